@@ -0,0 +1,60 @@
+#!/usr/bin/env bash
+# Measures the time from launching the service to its first successful GET /bookings.
+#
+# Usage: scripts/startup-time.sh [baseline|startup] [runs] [port]
+#   baseline  the executable jar, as built by mvn package (or mvn -Pstartup package, as the -exec jar)
+#   startup   the layout built by mvn -Pstartup package: thin jar, AOT classes, CDS archive, lazy beans
+#
+# Each run starts a fresh JVM, polls GET /bookings until it answers 200, records the elapsed
+# milliseconds and stops the JVM. The median of all runs is printed last.
+set -euo pipefail
+
+mode="${1:-startup}"
+runs="${2:-5}"
+port="${3:-18080}"
+root="$(cd "$(dirname "$0")/.." && pwd)"
+target="$root/target"
+
+case "$mode" in
+  baseline)
+    jar="$(ls "$target"/BookingManagerService-*-exec.jar 2>/dev/null || ls "$target"/BookingManagerService-*[0-9T].jar)"
+    workdir="$target"
+    command=(java -jar "$jar")
+    ;;
+  startup)
+    workdir="$target/startup"
+    if [[ ! -f "$workdir/application.jsa" ]]; then
+      echo "Missing $workdir/application.jsa, build it with: mvn -Pstartup package -DskipTests" >&2
+      exit 1
+    fi
+    jar="$(cd "$workdir" && ls BookingManagerService-*.jar)"
+    command=(java -XX:SharedArchiveFile=application.jsa -Xshare:auto -Dspring.aot.enabled=true
+             -jar "$jar" --spring.profiles.active=startup)
+    ;;
+  *)
+    echo "Unknown mode '$mode', expected baseline or startup" >&2
+    exit 1
+    ;;
+esac
+
+timings=()
+for ((run = 1; run <= runs; run++)); do
+  start=$(date +%s%N)
+  (cd "$workdir" && exec "${command[@]}" --server.port="$port" --booking.journal.enabled=false) > /dev/null 2>&1 &
+  pid=$!
+  until [[ "$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:$port/bookings" || true)" == "200" ]]; do
+    if ! kill -0 "$pid" 2> /dev/null; then
+      echo "The service exited before answering, run it by hand to see why: ${command[*]}" >&2
+      exit 1
+    fi
+    sleep 0.01
+  done
+  elapsed=$(( ($(date +%s%N) - start) / 1000000 ))
+  kill "$pid"
+  wait "$pid" 2> /dev/null || true
+  timings+=("$elapsed")
+  echo "$mode run $run: ${elapsed} ms"
+done
+
+median=$(printf '%s\n' "${timings[@]}" | sort -n | awk '{ values[NR] = $1 } END { print values[int((NR + 1) / 2)] }')
+echo "$mode median over $runs runs: ${median} ms to the first successful GET /bookings"
@@ -0,0 +1,138 @@
+package com.bookingmanagerservice.benchmark;
+
+import com.bookingmanagerservice.model.Booking;
+import com.bookingmanagerservice.repository.BookingRepository;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Data sets shared by the benchmarks.
+ * Bookings never overlap each other; the density is the fraction of nights they occupy
+ * over the span of the calendar, so it controls how often a random stay hits a conflict.
+ */
+final class BenchmarkData {
+
+    static final LocalDate ORIGIN = LocalDate.of(2020, 1, 1);
+    private static final int MAX_NIGHTS = 7;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Generates non-overlapping bookings occupying roughly {@code density} of the calendar.
+     *
+     * @param count   Number of bookings.
+     * @param density Fraction of nights occupied, between 0 and 1.
+     * @param seed    Random seed, so every fork sees the same calendar.
+     * @return The bookings in start order, with IDs 1..count.
+     */
+    static List<Booking> bookings(int count, double density, long seed) {
+        Random random = new Random(seed);
+        double averageGap = (MAX_NIGHTS + 1) / 2.0 * (1 - density) / density;
+        List<Booking> bookings = new ArrayList<>(count);
+        LocalDate cursor = ORIGIN;
+        for (int i = 0; i < count; i++) {
+            cursor = cursor.plusDays((long) (random.nextDouble() * 2 * averageGap));
+            LocalDate end = cursor.plusDays(1 + random.nextInt(MAX_NIGHTS));
+            Booking booking = new Booking(cursor, end, "Guest " + i);
+            booking.setId((long) i + 1);
+            booking.setVersion(0L);
+            bookings.add(booking);
+            cursor = end;
+        }
+        return bookings;
+    }
+
+    /**
+     * Number of days covered by a generated calendar.
+     */
+    static long span(List<Booking> bookings) {
+        return bookings.get(bookings.size() - 1).getEndDate().toEpochDay() - ORIGIN.toEpochDay();
+    }
+
+    /**
+     * Generates random stays spread over a span of days.
+     */
+    static LocalDate[][] stays(int count, long span, long seed) {
+        Random random = new Random(seed);
+        LocalDate[][] stays = new LocalDate[count][];
+        for (int i = 0; i < count; i++) {
+            LocalDate start = ORIGIN.plusDays((long) (random.nextDouble() * span));
+            stays[i] = new LocalDate[]{start, start.plusDays(1 + random.nextInt(MAX_NIGHTS))};
+        }
+        return stays;
+    }
+
+    /**
+     * Creates a map-backed BookingRepository supporting the calls made by BookingService's write paths,
+     * so service benchmarks measure the service and its calendar rather than a database.
+     */
+    static BookingRepository inMemoryRepository(List<Booking> initial) {
+        Map<Long, Booking> rows = new ConcurrentHashMap<>();
+        AtomicLong ids = new AtomicLong();
+        for (Booking booking : initial) {
+            rows.put(booking.getId(), booking);
+            ids.accumulateAndGet(booking.getId(), Math::max);
+        }
+        return (BookingRepository) Proxy.newProxyInstance(BookingRepository.class.getClassLoader(),
+                new Class<?>[]{BookingRepository.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "save":
+                            Booking booking = (Booking) args[0];
+                            if (booking.getId() == null) {
+                                booking.setId(ids.incrementAndGet());
+                            }
+                            rows.put(booking.getId(), booking);
+                            return booking;
+                        case "saveAll":
+                            List<Booking> saved = new ArrayList<>();
+                            for (Object row : (Iterable<?>) args[0]) {
+                                Booking each = (Booking) row;
+                                if (each.getId() == null) {
+                                    each.setId(ids.incrementAndGet());
+                                }
+                                rows.put(each.getId(), each);
+                                saved.add(each);
+                            }
+                            return saved;
+                        case "findById":
+                            return Optional.ofNullable(rows.get((Long) args[0]));
+                        case "rescheduleIfVersion":
+                            Booking current = rows.get((Long) args[0]);
+                            if (current == null || !args[1].equals(current.getVersion())) {
+                                return 0;
+                            }
+                            current.setStartDate((LocalDate) args[2]);
+                            current.setEndDate((LocalDate) args[3]);
+                            current.setVersion(current.getVersion() + 1);
+                            return 1;
+                        case "existsById":
+                            return rows.containsKey((Long) args[0]);
+                        case "findAll":
+                            return new ArrayList<>(rows.values());
+                        case "delete":
+                            rows.remove(((Booking) args[0]).getId());
+                            return null;
+                        case "deleteById":
+                            rows.remove((Long) args[0]);
+                            return null;
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        case "toString":
+                            return "InMemoryBookingRepository";
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
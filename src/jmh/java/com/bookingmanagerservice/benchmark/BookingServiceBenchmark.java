@@ -0,0 +1,78 @@
+package com.bookingmanagerservice.benchmark;
+
+import com.bookingmanagerservice.calendar.DateStripedLocks;
+import com.bookingmanagerservice.calendar.OccupancyCalendar;
+import com.bookingmanagerservice.metrics.BookingMetrics;
+import com.bookingmanagerservice.model.Booking;
+import com.bookingmanagerservice.repository.BookingRepository;
+import com.bookingmanagerservice.service.BookingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the BookingService hot paths: the availability check and the two checked writes.
+ * The repository is an in-memory map, so the numbers isolate the service and its occupancy calendar.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class BookingServiceBenchmark {
+
+    private static final int STAYS = 1 << 16;
+
+    @Param({"1000", "100000", "1000000"})
+    public int bookings;
+
+    @Param({"0.1", "0.5", "0.9"})
+    public double density;
+
+    private LocalDate[][] stays;
+    private BookingService bookingService;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        stays = BenchmarkData.stays(STAYS, BenchmarkData.span(BenchmarkData.bookings(bookings, density, 42)), 7);
+    }
+
+    /**
+     * Starts every iteration from the generated calendar, so writes from earlier iterations do not pile up.
+     */
+    @Setup(Level.Iteration)
+    public void reset() {
+        // Writes mutate the entities, so every iteration gets its own copy of the calendar.
+        BookingRepository repository = BenchmarkData.inMemoryRepository(BenchmarkData.bookings(bookings, density, 42));
+        bookingService = new BookingService(repository, null, new OccupancyCalendar(), new DateStripedLocks(), new BookingMetrics(new SimpleMeterRegistry()),
+                event -> { });
+        bookingService.rebuildOccupancyCalendar();
+    }
+
+    @Benchmark
+    public boolean areDatesAvailable() {
+        LocalDate[] stay = nextStay();
+        return bookingService.areDatesAvailable(Booking.DEFAULT_PROPERTY_ID, stay[0], stay[1]);
+    }
+
+    @Benchmark
+    public Optional<Booking> createBooking() {
+        LocalDate[] stay = nextStay();
+        return bookingService.createBooking(new Booking(stay[0], stay[1], "Benchmark guest"));
+    }
+
+    @Benchmark
+    public Optional<Booking> rescheduleBooking() {
+        LocalDate[] stay = nextStay();
+        long id = 1 + (next * 31L) % bookings;
+        return bookingService.rescheduleBooking(id, new Booking(stay[0], stay[1], null));
+    }
+
+    private LocalDate[] nextStay() {
+        next = (next + 1) & (STAYS - 1);
+        return stays[next];
+    }
+}
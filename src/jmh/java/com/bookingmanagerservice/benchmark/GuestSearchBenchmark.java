@@ -0,0 +1,101 @@
+package com.bookingmanagerservice.benchmark;
+
+import com.bookingmanagerservice.BookingManagerServiceApplication;
+import com.bookingmanagerservice.dto.BookingView;
+import com.bookingmanagerservice.model.Booking;
+import com.bookingmanagerservice.repository.BookingRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Guest type-ahead against H2: one page of 20 bookings whose guest starts with a prefix typed so
+ * far, and the page after it. Guests are drawn from a few hundred first and last names, so short
+ * prefixes match a large share of the table and long ones a handful of rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class GuestSearchBenchmark {
+
+    private static final int PREFIXES = 1 << 12;
+    private static final Limit PAGE = Limit.of(20);
+    private static final String[] FIRST_NAMES = {"Ana", "Bruno", "Carla", "Diego", "Elena", "Felipe", "Gabriela", "Hugo",
+            "Isabel", "João", "Karen", "Luis", "María", "Nicolás", "Olga", "Pedro", "Quentin", "Rosa", "Sofía", "Tomás"};
+    private static final String[] LAST_NAMES = {"Almeida", "Barbosa", "Castro", "Dias", "Escobar", "Fernández", "Gómez",
+            "Herrera", "Iglesias", "Jiménez", "Klein", "López", "Martins", "Núñez", "Oliveira", "Pereira", "Quiroga",
+            "Ramírez", "Silva", "Torres", "Urrutia", "Vargas", "Weber", "Xavier", "Yamada", "Zapata"};
+
+    @Param({"1000000"})
+    public int bookings;
+
+    @Param({"1", "3", "8", "14"})
+    public int prefixLength;
+
+    private ConfigurableApplicationContext context;
+    private BookingRepository bookingRepository;
+    private String[] prefixes;
+    private BookingView[] lastOfFirstPage;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(BookingManagerServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:guest-search;DB_CLOSE_DELAY=-1", "--logging.level.root=WARN");
+        bookingRepository = context.getBean(BookingRepository.class);
+
+        List<Booking> data = BenchmarkData.bookings(bookings, 0.5, 42);
+        Random random = new Random(7);
+        for (Booking booking : data) {
+            booking.setGuestDetails(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                    + LAST_NAMES[random.nextInt(LAST_NAMES.length)] + " " + random.nextInt(1000));
+        }
+        context.getBean(JdbcTemplate.class).batchUpdate(
+                "INSERT INTO booking (id, property_id, start_date, end_date, guest_details, guest_key, version) VALUES (?, ?, ?, ?, ?, ?, 0)",
+                data, 10_000, (statement, booking) -> {
+                    statement.setLong(1, booking.getId());
+                    statement.setLong(2, booking.getPropertyId());
+                    statement.setDate(3, Date.valueOf(booking.getStartDate()));
+                    statement.setDate(4, Date.valueOf(booking.getEndDate()));
+                    statement.setString(5, booking.getGuestDetails());
+                    statement.setString(6, booking.getGuestKey());
+                });
+
+        prefixes = new String[PREFIXES];
+        lastOfFirstPage = new BookingView[PREFIXES];
+        for (int i = 0; i < PREFIXES; i++) {
+            String guest = data.get(random.nextInt(data.size())).getGuestDetails();
+            prefixes[i] = guest.substring(0, Math.min(prefixLength, guest.length()));
+            List<BookingView> page = bookingRepository.findByGuestPrefix(prefixes[i], null, null, PAGE);
+            lastOfFirstPage[i] = page.get(page.size() - 1);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BookingView> firstPage() {
+        next = (next + 1) & (PREFIXES - 1);
+        return bookingRepository.findByGuestPrefix(prefixes[next], null, null, PAGE);
+    }
+
+    @Benchmark
+    public List<BookingView> nextPage() {
+        next = (next + 1) & (PREFIXES - 1);
+        BookingView last = lastOfFirstPage[next];
+        return bookingRepository.findByGuestPrefix(prefixes[next], Booking.guestKey(last.guestDetails()), last.id(), PAGE);
+    }
+}
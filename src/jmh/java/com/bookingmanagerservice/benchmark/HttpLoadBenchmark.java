@@ -0,0 +1,124 @@
+package com.bookingmanagerservice.benchmark;
+
+import com.bookingmanagerservice.BookingManagerServiceApplication;
+import com.bookingmanagerservice.model.Booking;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load benchmark of the booking endpoints over real HTTP, comparing Tomcat on platform threads
+ * with the virtual-thread mode ({@code spring.threads.virtual.enabled}).
+ * Each invocation fires a burst of {@code concurrency} simultaneous requests and waits for all of
+ * them: a quarter create bookings (mostly rejected as conflicts, which never reach the database),
+ * the rest read a keyset page of bookings or search free windows, both of which block on H2.
+ * The score is the time to drain one burst; the default Tomcat pool of 200 worker threads is
+ * kept in both modes, so bursts larger than the pool queue on platform threads only.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class HttpLoadBenchmark {
+
+    private static final int BOOKINGS = 10_000;
+    private static final int STAYS = 1 << 12;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"100", "1000", "2500"})
+    public int concurrency;
+
+    private ConfigurableApplicationContext context;
+    private ExecutorService clientExecutor;
+    private HttpClient client;
+    private String baseUrl;
+    private LocalDate[][] stays;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        context = new SpringApplicationBuilder(BookingManagerServiceApplication.class)
+                .run("--server.port=0",
+                        "--spring.threads.virtual.enabled=" + threads.equals("virtual"),
+                        "--spring.datasource.url=jdbc:h2:mem:load;DB_CLOSE_DELAY=-1",
+                        "--logging.level.root=WARN");
+        baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+        // The client side always uses virtual threads so it never limits the server under test.
+        clientExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(clientExecutor).build();
+
+        // Seed through the batch endpoint so IDs come from the entity sequence and the calendar stays in sync.
+        List<Booking> data = BenchmarkData.bookings(BOOKINGS, 0.5, 42);
+        data.forEach(booking -> booking.setId(null));
+        String body = context.getBean(ObjectMapper.class).writeValueAsString(data);
+        HttpResponse<String> seeded = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/bookings/batch"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (seeded.statusCode() != 200) {
+            throw new IllegalStateException("Seeding failed: " + seeded.statusCode());
+        }
+        stays = BenchmarkData.stays(STAYS, BenchmarkData.span(data), 7);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        clientExecutor.close();
+        context.close();
+    }
+
+    @Benchmark
+    public int burst() {
+        CompletableFuture<?>[] responses = new CompletableFuture<?>[concurrency];
+        for (int i = 0; i < concurrency; i++) {
+            responses[i] = client.sendAsync(request(i), HttpResponse.BodyHandlers.discarding())
+                    .thenAccept(response -> {
+                        if (response.statusCode() >= 500) {
+                            throw new IllegalStateException("Request failed: " + response.statusCode());
+                        }
+                    });
+        }
+        CompletableFuture.allOf(responses).join();
+        return responses.length;
+    }
+
+    private HttpRequest request(int i) {
+        LocalDate[] stay = nextStay();
+        switch (i & 3) {
+            case 0:
+                String booking = "{\"startDate\":\"" + stay[0] + "\",\"endDate\":\"" + stay[1] + "\",\"guestDetails\":\"Load " + i + "\"}";
+                return HttpRequest.newBuilder(URI.create(baseUrl + "/bookings"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(booking))
+                        .build();
+            case 1:
+                return HttpRequest.newBuilder(URI.create(baseUrl + "/availability?from=" + stay[0] + "&to=" + stay[0].plusDays(30)))
+                        .GET()
+                        .build();
+            default:
+                return HttpRequest.newBuilder(URI.create(baseUrl + "/bookings?limit=20&afterId=" + (next * 2L % BOOKINGS)))
+                        .GET()
+                        .build();
+        }
+    }
+
+    private LocalDate[] nextStay() {
+        next = (next + 1) & (STAYS - 1);
+        return stays[next];
+    }
+}
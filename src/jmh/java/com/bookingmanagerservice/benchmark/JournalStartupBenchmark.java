@@ -0,0 +1,67 @@
+package com.bookingmanagerservice.benchmark;
+
+import com.bookingmanagerservice.journal.JournalRecord;
+import com.bookingmanagerservice.journal.JournalStore;
+import com.bookingmanagerservice.model.Booking;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark of the journal's share of startup: opening a store and materializing its bookings,
+ * from either a journal holding every write or a snapshot with an empty journal tail.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class JournalStartupBenchmark {
+
+    private static final int REGION_SIZE = 64 << 20;
+
+    @Param({"10000", "100000", "1000000"})
+    public int records;
+
+    @Param({"journal", "snapshot"})
+    public String layout;
+
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void write() throws IOException {
+        directory = Files.createTempDirectory("journal-benchmark");
+        List<Booking> bookings = BenchmarkData.bookings(records, 0.5, 42);
+        try (JournalStore store = JournalStore.open(directory, REGION_SIZE, false)) {
+            for (Booking booking : bookings) {
+                store.append(JournalRecord.of(booking, false));
+            }
+            if (layout.equals("snapshot")) {
+                store.snapshot();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public int open() throws IOException {
+        try (JournalStore store = JournalStore.open(directory, REGION_SIZE, false)) {
+            return store.bookings().size();
+        }
+    }
+}
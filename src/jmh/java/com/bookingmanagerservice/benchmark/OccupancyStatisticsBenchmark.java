@@ -0,0 +1,98 @@
+package com.bookingmanagerservice.benchmark;
+
+import com.bookingmanagerservice.dto.BlockView;
+import com.bookingmanagerservice.dto.BookingView;
+import com.bookingmanagerservice.dto.OccupancyReport;
+import com.bookingmanagerservice.dto.RecomputeReport;
+import com.bookingmanagerservice.event.BookingChangedEvent;
+import com.bookingmanagerservice.model.Booking;
+import com.bookingmanagerservice.service.BlockService;
+import com.bookingmanagerservice.service.BookingService;
+import com.bookingmanagerservice.stats.OccupancyStatistics;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Occupancy statistics over bookings spread across 100 properties: the full fork/join recompute
+ * from every stay, the incremental update applied by one rescheduled booking, and a yearly report
+ * over all properties. The services stream the bookings from memory, so the recompute numbers
+ * measure the counting, not the database read.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class OccupancyStatisticsBenchmark {
+
+    private static final int PROPERTIES = 100;
+    private static final int MOVES = 1 << 12;
+
+    @Param({"100000", "1000000"})
+    public int bookings;
+
+    private List<Booking> data;
+    private OccupancyStatistics statistics;
+    private BookingChangedEvent[] moves;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        // Consecutive slices of one long calendar, each moved back to the origin at its own property.
+        data = BenchmarkData.bookings(bookings, 0.5, 42);
+        int perProperty = bookings / PROPERTIES;
+        long shift = 0;
+        for (int i = 0; i < data.size(); i++) {
+            Booking booking = data.get(i);
+            if (i % perProperty == 0) {
+                shift = booking.getStartDate().toEpochDay() - BenchmarkData.ORIGIN.toEpochDay();
+            }
+            booking.setPropertyId(1L + i / perProperty);
+            booking.setStartDate(booking.getStartDate().minusDays(shift));
+            booking.setEndDate(booking.getEndDate().minusDays(shift));
+        }
+        BookingService bookingService = new BookingService(null, null, null, null, null, event -> { }) {
+            @Override
+            public void forEachBooking(Consumer<BookingView> action) {
+                data.forEach(booking -> action.accept(BookingView.of(booking)));
+            }
+        };
+        BlockService blockService = new BlockService(null, null, null, event -> { }) {
+            @Override
+            public void forEachBlock(Consumer<BlockView> action) {
+            }
+        };
+        statistics = new OccupancyStatistics(bookingService, blockService);
+        statistics.initialize();
+
+        Random random = new Random(7);
+        moves = new BookingChangedEvent[MOVES];
+        for (int i = 0; i < MOVES; i++) {
+            Booking existing = data.get(random.nextInt(data.size()));
+            Booking moved = new Booking(existing.getStartDate().plusDays(random.nextInt(5) - 2),
+                    existing.getEndDate().plusDays(random.nextInt(5) - 2), existing.getGuestDetails());
+            moved.setId(existing.getId());
+            moved.setPropertyId(existing.getPropertyId());
+            moves[i] = new BookingChangedEvent(moved, false);
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public RecomputeReport recompute() {
+        return statistics.recompute();
+    }
+
+    @Benchmark
+    public void incrementalUpdate() {
+        statistics.onBookingChanged(moves[next++ & (MOVES - 1)]);
+    }
+
+    @Benchmark
+    public OccupancyReport yearlyReport() {
+        return statistics.occupancy(BenchmarkData.ORIGIN.getYear() + 1, null);
+    }
+}
@@ -0,0 +1,71 @@
+package com.bookingmanagerservice.benchmark;
+
+import com.bookingmanagerservice.controller.PayloadFormats;
+import com.bookingmanagerservice.model.Booking;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encode and decode time of a page of bookings in each payload format, with mappers configured like
+ * the application's message converters. The setup prints the encoded size of the page, raw and
+ * gzipped, since JMH only reports times.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class PayloadFormatBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    @Param({"1", "100", "1000"})
+    public int bookings;
+
+    private ObjectMapper mapper;
+    private List<Booking> page;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void encodePage() throws IOException {
+        mapper = switch (format) {
+            case "json" -> Jackson2ObjectMapperBuilder.json()
+                    .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS) // As Spring Boot does.
+                    .build();
+            case "cbor" -> PayloadFormats.binaryMapper(Jackson2ObjectMapperBuilder.json(), new CBORFactory());
+            case "smile" -> PayloadFormats.binaryMapper(Jackson2ObjectMapperBuilder.json(), new SmileFactory());
+            default -> throw new IllegalArgumentException("Unknown format " + format);
+        };
+        page = BenchmarkData.bookings(bookings, 0.5, 42);
+        encoded = mapper.writeValueAsBytes(page);
+        System.out.printf("%n%s, %d bookings: %d bytes, %d bytes gzipped%n", format, bookings, encoded.length, gzip(encoded).length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return mapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public Booking[] decode() throws IOException {
+        return mapper.readValue(encoded, Booking[].class);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(bytes);
+        }
+        return compressed.toByteArray();
+    }
+}
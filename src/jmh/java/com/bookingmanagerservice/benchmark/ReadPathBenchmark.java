@@ -0,0 +1,71 @@
+package com.bookingmanagerservice.benchmark;
+
+import com.bookingmanagerservice.BookingManagerServiceApplication;
+import com.bookingmanagerservice.model.Booking;
+import com.bookingmanagerservice.repository.BookingRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading the whole booking table against H2, the way the list endpoint used to and does now:
+ * "entities" loads managed entities in a read-write transaction, "readOnlyEntities" loads them in
+ * a read-only one (no dirty-checking snapshots), and "views" selects record projections that the
+ * persistence context never tracks. Run with {@code -prof gc} to compare the bytes allocated per
+ * read ({@code gc.alloc.rate.norm}) along with the latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ReadPathBenchmark {
+
+    @Param({"1000", "100000"})
+    public int bookings;
+
+    @Param({"entities", "readOnlyEntities", "views"})
+    public String path;
+
+    private ConfigurableApplicationContext context;
+    private BookingRepository bookingRepository;
+    private TransactionTemplate transaction;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(BookingManagerServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:read-paths;DB_CLOSE_DELAY=-1", "--logging.level.root=WARN");
+        bookingRepository = context.getBean(BookingRepository.class);
+        transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transaction.setReadOnly(!path.equals("entities"));
+
+        List<Booking> data = BenchmarkData.bookings(bookings, 0.5, 42);
+        context.getBean(JdbcTemplate.class).batchUpdate(
+                "INSERT INTO booking (id, property_id, start_date, end_date, guest_details, version) VALUES (?, ?, ?, ?, ?, 0)", data, 10_000,
+                (statement, booking) -> {
+                    statement.setLong(1, booking.getId());
+                    statement.setLong(2, booking.getPropertyId());
+                    statement.setDate(3, Date.valueOf(booking.getStartDate()));
+                    statement.setDate(4, Date.valueOf(booking.getEndDate()));
+                    statement.setString(5, booking.getGuestDetails());
+                });
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<?> listAll() {
+        return transaction.execute(status -> path.equals("views") ? bookingRepository.findAllViews() : bookingRepository.findAll());
+    }
+}
@@ -0,0 +1,128 @@
+package com.bookingmanagerservice.benchmark;
+
+import com.bookingmanagerservice.BookingManagerServiceApplication;
+import com.bookingmanagerservice.dto.DateRange;
+import com.bookingmanagerservice.model.Block;
+import com.bookingmanagerservice.model.Booking;
+import com.bookingmanagerservice.repository.BlockRepository;
+import com.bookingmanagerservice.repository.BookingRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the repository overlap queries against the H2 database used by the service.
+ * The tables are seeded with plain JDBC batches so large data sets load quickly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class RepositoryOverlapBenchmark {
+
+    private static final int STAYS = 1 << 12;
+
+    @Param({"1000", "100000", "1000000"})
+    public int bookings;
+
+    @Param({"0.1", "0.9"})
+    public double density;
+
+    private ConfigurableApplicationContext context;
+    private BookingRepository bookingRepository;
+    private BlockRepository blockRepository;
+    private LocalDate[][] stays;
+    private LocalDate[][] upcomingStays; // Stays in the last twentieth of the calendar, like most new bookings.
+    private int next;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(BookingManagerServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1", "--logging.level.root=WARN");
+        bookingRepository = context.getBean(BookingRepository.class);
+        blockRepository = context.getBean(BlockRepository.class);
+
+        List<Booking> data = BenchmarkData.bookings(bookings, density, 42);
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        jdbc.batchUpdate("INSERT INTO booking (id, property_id, start_date, end_date, guest_details, version) VALUES (?, ?, ?, ?, ?, 0)", data, 10_000,
+                (statement, booking) -> {
+                    statement.setLong(1, booking.getId());
+                    statement.setLong(2, booking.getPropertyId());
+                    statement.setDate(3, Date.valueOf(booking.getStartDate()));
+                    statement.setDate(4, Date.valueOf(booking.getEndDate()));
+                    statement.setString(5, booking.getGuestDetails());
+                });
+        // One block for every hundred bookings, reusing their dates.
+        jdbc.batchUpdate("INSERT INTO block (id, property_id, start_date, end_date, reason, version) VALUES (?, ?, ?, ?, ?, 0)",
+                data.subList(0, Math.max(1, data.size() / 100)), 10_000,
+                (statement, booking) -> {
+                    statement.setLong(1, booking.getId());
+                    statement.setLong(2, booking.getPropertyId());
+                    statement.setDate(3, Date.valueOf(booking.getStartDate()));
+                    statement.setDate(4, Date.valueOf(booking.getEndDate()));
+                    statement.setString(5, "Maintenance");
+                });
+        stays = BenchmarkData.stays(STAYS, BenchmarkData.span(data), 7);
+        long span = BenchmarkData.span(data);
+        upcomingStays = BenchmarkData.stays(STAYS, span / 20, 11);
+        for (LocalDate[] stay : upcomingStays) {
+            stay[0] = stay[0].plusDays(span - span / 20);
+            stay[1] = stay[1].plusDays(span - span / 20);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Booking> findOverlappingBookings() {
+        LocalDate[] stay = nextStay();
+        return bookingRepository.findOverlappingBookings(Booking.DEFAULT_PROPERTY_ID, stay[0], stay[1]);
+    }
+
+    @Benchmark
+    public boolean existsOverlappingBooking() {
+        LocalDate[] stay = nextStay();
+        return bookingRepository.existsOverlapping(Booking.DEFAULT_PROPERTY_ID, stay[0], stay[1], null);
+    }
+
+    @Benchmark
+    public boolean existsOverlappingUpcomingBooking() {
+        nextStay();
+        LocalDate[] stay = upcomingStays[next];
+        return bookingRepository.existsOverlapping(Booking.DEFAULT_PROPERTY_ID, stay[0], stay[1], null);
+    }
+
+    @Benchmark
+    public List<DateRange> findOverlappingRanges() {
+        LocalDate[] stay = nextStay();
+        return bookingRepository.findOverlappingRanges(Booking.DEFAULT_PROPERTY_ID, stay[0], stay[1]);
+    }
+
+    @Benchmark
+    public List<Block> findOverlappingBlocks() {
+        LocalDate[] stay = nextStay();
+        return blockRepository.findOverlappingBlocks(Booking.DEFAULT_PROPERTY_ID, stay[0], stay[1]);
+    }
+
+    @Benchmark
+    public boolean existsOverlappingBlock() {
+        LocalDate[] stay = nextStay();
+        return blockRepository.existsOverlapping(Booking.DEFAULT_PROPERTY_ID, stay[0], stay[1]);
+    }
+
+    private LocalDate[] nextStay() {
+        next = (next + 1) & (STAYS - 1);
+        return stays[next];
+    }
+}
@@ -0,0 +1,117 @@
+package com.bookingmanagerservice.benchmark;
+
+import com.bookingmanagerservice.calendar.DateStripedLocks;
+import com.bookingmanagerservice.calendar.OccupancyCalendar;
+import com.bookingmanagerservice.metrics.BookingMetrics;
+import com.bookingmanagerservice.model.Booking;
+import com.bookingmanagerservice.pipeline.BookingPipeline;
+import com.bookingmanagerservice.repository.BookingRepository;
+import com.bookingmanagerservice.service.BookingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of concurrent checked booking creations in the two write modes: "locked", where each
+ * caller checks and saves under date locks, and "sequenced", where callers hand their writes to the
+ * single-writer pipeline and wait for its futures. The repository is an in-memory map and the
+ * transactions are no-ops, so the numbers compare the coordination, not the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class WriteModeBenchmark {
+
+    private static final int STAYS = 1 << 16;
+    private static final int BOOKINGS = 100_000;
+
+    @Param({"locked", "sequenced"})
+    public String mode;
+
+    @Param({"1", "64"})
+    public int properties;
+
+    private LocalDate[][] stays;
+    private BookingService bookingService;
+    private BookingPipeline pipeline;
+
+    /**
+     * Position of one benchmark thread in the generated stays.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next = (int) (Thread.currentThread().getId() * 7919);
+
+        int next() {
+            next = (next + 1) & (STAYS - 1);
+            return next;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void generate() {
+        stays = BenchmarkData.stays(STAYS, BenchmarkData.span(BenchmarkData.bookings(BOOKINGS, 0.5, 42)), 7);
+    }
+
+    /**
+     * Starts every iteration from the generated calendar, with a fresh pipeline in sequenced mode.
+     */
+    @Setup(Level.Iteration)
+    public void reset() {
+        BookingRepository repository = BenchmarkData.inMemoryRepository(BenchmarkData.bookings(BOOKINGS, 0.5, 42));
+        OccupancyCalendar calendar = new OccupancyCalendar();
+        BookingMetrics metrics = new BookingMetrics(new SimpleMeterRegistry());
+        bookingService = new BookingService(repository, null, calendar, new DateStripedLocks(), metrics, event -> { });
+        bookingService.rebuildOccupancyCalendar();
+        if (mode.equals("sequenced")) {
+            pipeline = new BookingPipeline(bookingService, repository, null, calendar, metrics, event -> { },
+                    new NoTransactions(), new SimpleMeterRegistry(), 1024, 256);
+            pipeline.start();
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void stop() throws Exception {
+        if (pipeline != null) {
+            pipeline.destroy();
+            pipeline = null;
+        }
+    }
+
+    @Benchmark
+    public Optional<Booking> createBooking(Cursor cursor) {
+        int index = cursor.next();
+        LocalDate[] stay = stays[index];
+        Booking booking = new Booking(stay[0], stay[1], "Benchmark guest");
+        booking.setPropertyId(Booking.DEFAULT_PROPERTY_ID + index % properties);
+        return pipeline != null ? BookingPipeline.await(pipeline.createBooking(booking)) : bookingService.createBooking(booking);
+    }
+
+    /**
+     * Transaction manager whose transactions do nothing, matching the in-memory repository.
+     */
+    private static final class NoTransactions implements PlatformTransactionManager {
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
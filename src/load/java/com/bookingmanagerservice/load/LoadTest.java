@@ -0,0 +1,309 @@
+package com.bookingmanagerservice.load;
+
+import com.bookingmanagerservice.BookingManagerServiceApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Offline HTTP load test of the booking endpoints, for gating releases.
+ * Boots the application on a random port with its own in-memory database, seeds it through the
+ * batch import, then runs {@code concurrency} closed-loop clients for a warm-up and a measured
+ * period. Each client repeatedly picks an operation from the weighted mix, sends it and records
+ * its latency in an HdrHistogram; throughput and p50/p95/p99/p99.9 latencies are reported per
+ * operation. The process exits with status 1 if any request failed (5xx or I/O error) or a gate
+ * ({@code max-p99}, {@code min-throughput}) is missed.
+ * <p>
+ * Options are {@code key=value} arguments, e.g.
+ * {@code concurrency=64 duration=60s mix=create:20,reschedule:10,list:60,block:10 max-p99=50ms}.
+ * Arguments starting with {@code --} are passed to the application, e.g. {@code --booking.write-mode=sequenced}.
+ * Being closed-loop, the clients wait for each answer before sending the next request, so
+ * latencies are those seen by clients at the achieved throughput, not at a fixed arrival rate.
+ */
+public class LoadTest {
+
+    private static final LocalDate ORIGIN = LocalDate.of(2030, 1, 1);
+    private static final int HORIZON_DAYS = 3 * 365; // Days over which bookings and blocks are spread.
+    private static final long HIGHEST_LATENCY = TimeUnit.SECONDS.toMicros(60); // Larger latencies are clamped.
+
+    /**
+     * The operations of the mix.
+     */
+    enum Operation {
+        CREATE("create"), RESCHEDULE("reschedule"), LIST("list"), BLOCK("block");
+
+        private final String key; // Name used in the mix option and the report.
+
+        Operation(String key) {
+            this.key = key;
+        }
+    }
+
+    private final Map<String, String> options; // The key=value options.
+    private final List<String> applicationArgs; // Arguments passed on to the application.
+    private final Map<Operation, Integer> mix = new EnumMap<>(Operation.class); // Relative weight of each operation.
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class); // Microseconds, measured period only.
+    private final Map<Operation, LongAdder> rejected = new EnumMap<>(Operation.class); // 4xx answers, e.g. conflicts.
+    private final LongAdder failures = new LongAdder(); // 5xx answers and I/O errors.
+    private final AtomicLong seeded = new AtomicLong(); // Bookings accepted by the seed import.
+    private HttpClient client; // Shared by the clients, on virtual threads.
+    private String baseUrl; // Root URL of the application under test.
+    private volatile boolean measuring; // Set during the measured period.
+    private volatile boolean stopping; // Set once the clients must stop.
+
+    LoadTest(Map<String, String> options, List<String> applicationArgs) {
+        this.options = options;
+        this.applicationArgs = applicationArgs;
+        for (String weight : option("mix", "create:20,reschedule:10,list:60,block:10").split(",")) {
+            String[] parts = weight.split(":");
+            mix.put(operation(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+        }
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new ConcurrentHistogram(HIGHEST_LATENCY, 3));
+            rejected.put(operation, new LongAdder());
+        }
+    }
+
+    /**
+     * Runs the load test and exits with status 1 if it failed or missed a gate.
+     *
+     * @param args {@code key=value} options, and {@code --} arguments for the application.
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        List<String> applicationArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                applicationArgs.add(arg);
+            } else if (arg.contains("=")) {
+                options.put(arg.substring(0, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            } else {
+                throw new IllegalArgumentException("Expected key=value or --application.property=value, got " + arg);
+            }
+        }
+        boolean passed = new LoadTest(options, applicationArgs).run(System.out);
+        System.exit(passed ? 0 : 1);
+    }
+
+    /**
+     * Boots the application, drives the load and prints the report.
+     *
+     * @param out Where the report is printed.
+     * @return true if no request failed and every gate was met.
+     */
+    boolean run(PrintStream out) throws Exception {
+        List<String> args = new ArrayList<>(List.of("--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:load-test;DB_CLOSE_DELAY=-1",
+                "--logging.level.root=WARN",
+                "--spring.main.banner-mode=off"));
+        args.addAll(applicationArgs); // Later arguments win.
+        int concurrency = Integer.parseInt(option("concurrency", "32"));
+        Duration warmup = duration(option("warmup", "10s"));
+        Duration measured = duration(option("duration", "30s"));
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BookingManagerServiceApplication.class)
+                .run(args.toArray(String[]::new));
+             ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+            client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(clients).build();
+            seed(context.getBean(ObjectMapper.class), Integer.parseInt(option("bookings", "10000")),
+                    Integer.parseInt(option("properties", "100")));
+
+            for (int i = 0; i < concurrency; i++) {
+                clients.execute(this::drive);
+            }
+            Thread.sleep(warmup.toMillis());
+            measuring = true;
+            long start = System.nanoTime();
+            Thread.sleep(measured.toMillis());
+            measuring = false;
+            double seconds = (System.nanoTime() - start) / 1e9;
+            stopping = true;
+            clients.shutdown();
+            clients.awaitTermination(1, TimeUnit.MINUTES);
+
+            out.printf("Load test: %d clients, %s warm-up, %s measured, %d seeded bookings, application args %s%n",
+                    concurrency, warmup, measured, seeded.get(), applicationArgs);
+            return report(out, seconds);
+        }
+    }
+
+    // Closed loop of one client: pick an operation, send it, record the latency.
+    private void drive() {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        while (!stopping) {
+            int pick = ThreadLocalRandom.current().nextInt(total);
+            Operation operation = null;
+            for (Map.Entry<Operation, Integer> weight : mix.entrySet()) {
+                pick -= weight.getValue();
+                if (pick < 0) {
+                    operation = weight.getKey();
+                    break;
+                }
+            }
+            boolean counted = measuring;
+            long start = System.nanoTime();
+            int status;
+            try {
+                status = client.send(request(operation), HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (IOException e) {
+                status = 599;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            long micros = (System.nanoTime() - start) / 1000;
+            if (counted && measuring) {
+                latencies.get(operation).recordValue(Math.min(micros, HIGHEST_LATENCY));
+                if (status >= 500) {
+                    failures.increment();
+                } else if (status >= 400) {
+                    rejected.get(operation).increment();
+                }
+            }
+        }
+    }
+
+    private HttpRequest request(Operation operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int properties = Integer.parseInt(option("properties", "100"));
+        LocalDate start = ORIGIN.plusDays(random.nextInt(HORIZON_DAYS));
+        LocalDate end = start.plusDays(1 + random.nextInt(14));
+        long propertyId = 1 + random.nextInt(properties);
+        return switch (operation) {
+            case CREATE -> json("/bookings", "POST", "{\"propertyId\":" + propertyId + ",\"startDate\":\"" + start
+                    + "\",\"endDate\":\"" + end + "\",\"guestDetails\":\"Load guest\"}");
+            case RESCHEDULE -> json("/bookings/" + (1 + random.nextLong(Math.max(1, seeded.get()))) + "/reschedule", "PATCH",
+                    "{\"startDate\":\"" + start + "\",\"endDate\":\"" + end + "\"}");
+            case LIST -> HttpRequest.newBuilder(URI.create(baseUrl + "/bookings?limit=20&afterId=" + random.nextLong(Math.max(1, seeded.get()))))
+                    .GET()
+                    .build();
+            case BLOCK -> json("/blocks", "POST", "{\"propertyId\":" + propertyId + ",\"startDate\":\"" + start
+                    + "\",\"endDate\":\"" + start.plusDays(1) + "\",\"reason\":\"Load test\"}");
+        };
+    }
+
+    private HttpRequest json(String path, String method, String body) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    // Seeds random stays through the batch import; the overlapping ones are rejected by the import.
+    private void seed(ObjectMapper objectMapper, int bookings, int properties) throws IOException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < bookings; i++) {
+            LocalDate start = ORIGIN.plusDays(random.nextInt(HORIZON_DAYS));
+            body.append(i == 0 ? "" : ",").append("{\"propertyId\":").append(1 + random.nextInt(properties))
+                    .append(",\"startDate\":\"").append(start).append("\",\"endDate\":\"").append(start.plusDays(1 + random.nextInt(7)))
+                    .append("\",\"guestDetails\":\"Seed guest\"}");
+        }
+        HttpResponse<String> response = client.send(json("/bookings/batch", "POST", body.append("]").toString()),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Seeding failed with status " + response.statusCode() + ": " + response.body());
+        }
+        seeded.set(objectMapper.readTree(response.body()).get("accepted").asLong());
+    }
+
+    private boolean report(PrintStream out, double seconds) throws IOException {
+        Histogram all = new Histogram(HIGHEST_LATENCY, 3);
+        out.printf("%-11s %9s %10s %9s %9s %9s %9s %9s %9s%n",
+                "operation", "requests", "req/s", "p50 ms", "p95 ms", "p99 ms", "p99.9 ms", "max ms", "4xx");
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = latencies.get(operation);
+            if (histogram.getTotalCount() > 0) {
+                all.add(histogram);
+                line(out, operation.key, histogram, seconds, rejected.get(operation).sum());
+            }
+        }
+        line(out, "total", all, seconds, rejected.values().stream().mapToLong(LongAdder::sum).sum());
+        out.printf("failures (5xx or I/O): %d%n", failures.sum());
+
+        String histograms = option("hgrm", null);
+        if (histograms != null) {
+            Files.createDirectories(Path.of(histograms));
+            for (Operation operation : Operation.values()) {
+                try (PrintStream file = new PrintStream(Files.newOutputStream(Path.of(histograms, operation.key + ".hgrm")))) {
+                    latencies.get(operation).outputPercentileDistribution(file, 1000.0); // In milliseconds.
+                }
+            }
+        }
+
+        boolean passed = failures.sum() == 0 && all.getTotalCount() > 0;
+        String maxP99 = option("max-p99", null);
+        if (maxP99 != null && all.getValueAtPercentile(99) > duration(maxP99).toNanos() / 1000) {
+            out.printf("GATE MISSED: p99 %.2f ms is above %s%n", all.getValueAtPercentile(99) / 1000.0, maxP99);
+            passed = false;
+        }
+        String minThroughput = option("min-throughput", null);
+        if (minThroughput != null && all.getTotalCount() / seconds < Double.parseDouble(minThroughput)) {
+            out.printf("GATE MISSED: %.0f req/s is below %s%n", all.getTotalCount() / seconds, minThroughput);
+            passed = false;
+        }
+        out.println(passed ? "PASSED" : "FAILED");
+        return passed;
+    }
+
+    private static void line(PrintStream out, String name, Histogram histogram, double seconds, long rejected) {
+        out.printf("%-11s %9d %10.0f %9.2f %9.2f %9.2f %9.2f %9.2f %9d%n", name, histogram.getTotalCount(),
+                histogram.getTotalCount() / seconds,
+                histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(95) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0, histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0, rejected);
+    }
+
+    private String option(String key, String defaultValue) {
+        return options.getOrDefault(key, defaultValue);
+    }
+
+    private static Operation operation(String key) {
+        for (Operation operation : Operation.values()) {
+            if (operation.key.equals(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation in mix: " + key);
+    }
+
+    // Accepts "500ms", "30s" and "2m".
+    private static Duration duration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        throw new IllegalArgumentException("Expected a duration like 500ms, 30s or 2m, got " + value);
+    }
+}
@@ -0,0 +1,179 @@
+package com.bookingmanagerservice.cache;
+
+import com.bookingmanagerservice.dto.DateRange;
+import com.bookingmanagerservice.event.OccupancyChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded cache of the occupied nights of each property, one entry per calendar month.
+ * An entry is the sorted, merged list of booking and block ranges of the month, clipped to it,
+ * so an availability search over n months is n lookups and a sweep, with no query once warm.
+ * Entries are evicted by size and age, and invalidated by {@link OccupancyChangedEvent}s for
+ * exactly the months a write touched; a change of unknown extent clears the whole cache.
+ * An invalidation may arrive while the same month is being loaded from the database: each month
+ * has a generation, bumped by the events before they invalidate, and a load only caches the months
+ * whose generation it did not see move, so an invalidation is never overwritten by a stale load.
+ * Hit, miss and eviction counts are published as the {@code availability.months} cache metrics.
+ */
+@Component // Registers the cache as a singleton shared by the availability searches.
+public class AvailabilityCache {
+
+    private static final int GENERATION_STRIPES = 1024; // Power of two; months sharing a stripe only cost each other a reload.
+
+    private final Cache<MonthKey, List<DateRange>> months; // Occupied ranges of each (property, month).
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES); // Bumped by every invalidation of a month.
+    private final AtomicLong everywhere = new AtomicLong(); // Bumped by every invalidation of the whole cache.
+
+    /**
+     * Loads the occupied ranges of the months missing from the cache.
+     */
+    @FunctionalInterface
+    public interface MonthLoader {
+
+        /**
+         * @param propertyId The property to load.
+         * @param months     The months to load, in ascending order.
+         * @return The sorted, merged occupied ranges of each month, clipped to it.
+         */
+        Map<YearMonth, List<DateRange>> load(Long propertyId, SortedSet<YearMonth> months);
+    }
+
+    /**
+     * Constructor for dependency injection of the meter registry and the eviction settings.
+     *
+     * @param registry         Registry the cache statistics are published to.
+     * @param maximumSize      Maximum number of (property, month) entries kept.
+     * @param expireAfterWrite Age after which an entry is reloaded, bounding staleness if the
+     *                         database is also written by another instance.
+     */
+    @Autowired
+    public AvailabilityCache(MeterRegistry registry,
+                             @Value("${booking.availability-cache.maximum-size:10000}") long maximumSize,
+                             @Value("${booking.availability-cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.months = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, months, "availability.months");
+    }
+
+    /**
+     * Returns the occupied ranges of a property over consecutive months, loading the missing
+     * months together in one call to the loader.
+     *
+     * @param propertyId The property to read.
+     * @param first      The first month.
+     * @param last       The last month, inclusive.
+     * @param loader     Loader of the missing months.
+     * @return The occupied ranges of every month, in date order.
+     */
+    public List<DateRange> occupied(Long propertyId, YearMonth first, YearMonth last, MonthLoader loader) {
+        List<MonthKey> keys = new ArrayList<>();
+        for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+            keys.add(new MonthKey(propertyId, month));
+        }
+        Map<MonthKey, List<DateRange>> found = new HashMap<>(months.getAllPresent(keys));
+        if (found.size() < keys.size()) {
+            found.putAll(load(propertyId, keys, found, loader));
+        }
+        List<DateRange> occupied = new ArrayList<>();
+        for (MonthKey key : keys) {
+            occupied.addAll(found.get(key));
+        }
+        return occupied;
+    }
+
+    /**
+     * Loads the missing months and caches those no write invalidated meanwhile. The generations
+     * are read before the load and checked again once the entry is stored: an event bumping one
+     * in between may have invalidated before the store, so the entry is dropped again.
+     */
+    private Map<MonthKey, List<DateRange>> load(Long propertyId, List<MonthKey> keys, Map<MonthKey, List<DateRange>> found,
+                                                MonthLoader loader) {
+        SortedSet<YearMonth> missingMonths = new TreeSet<>();
+        Map<MonthKey, Long> seen = new HashMap<>();
+        long everywhereSeen = everywhere.get();
+        for (MonthKey key : keys) {
+            if (!found.containsKey(key)) {
+                missingMonths.add(key.month());
+                seen.put(key, generations.get(stripe(key)));
+            }
+        }
+        Map<MonthKey, List<DateRange>> loaded = new HashMap<>();
+        loader.load(propertyId, missingMonths).forEach((month, ranges) -> loaded.put(new MonthKey(propertyId, month), List.copyOf(ranges)));
+        loaded.forEach((key, ranges) -> {
+            if (unchanged(key, seen.get(key), everywhereSeen)) {
+                months.put(key, ranges);
+                if (!unchanged(key, seen.get(key), everywhereSeen)) {
+                    months.invalidate(key);
+                }
+            }
+        });
+        return loaded;
+    }
+
+    private boolean unchanged(MonthKey key, Long seen, long everywhereSeen) {
+        return seen != null && generations.get(stripe(key)) == seen && everywhere.get() == everywhereSeen;
+    }
+
+    private static int stripe(MonthKey key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (GENERATION_STRIPES - 1);
+    }
+
+    /**
+     * Drops the months touched by a write.
+     *
+     * @param event The change, published by the booking and block services after the write.
+     */
+    @EventListener
+    public void onOccupancyChanged(OccupancyChangedEvent event) {
+        if (event.isEverywhere()) {
+            everywhere.incrementAndGet();
+            months.invalidateAll();
+            return;
+        }
+        if (!event.endDate().isAfter(event.startDate())) {
+            return; // An empty range occupies no night.
+        }
+        YearMonth last = YearMonth.from(event.endDate().minusDays(1));
+        for (YearMonth month = YearMonth.from(event.startDate()); !month.isAfter(last); month = month.plusMonths(1)) {
+            MonthKey key = new MonthKey(event.propertyId(), month);
+            generations.incrementAndGet(stripe(key)); // Before the invalidation, so a load in flight sees it.
+            months.invalidate(key);
+        }
+    }
+
+    /**
+     * @return The hit, miss and eviction counts of the cache.
+     */
+    public CacheStats stats() {
+        return months.stats();
+    }
+
+    /**
+     * Key of one cached month of one property.
+     */
+    private record MonthKey(Long propertyId, YearMonth month) {
+    }
+}
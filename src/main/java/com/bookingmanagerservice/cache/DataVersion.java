@@ -0,0 +1,52 @@
+package com.bookingmanagerservice.cache;
+
+import com.bookingmanagerservice.event.OccupancyChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic version of the booking and block data served by this instance.
+ * Every booking and block write publishes an {@link OccupancyChangedEvent} once it is saved,
+ * which bumps the version, so an unchanged version means the lists are unchanged and a client
+ * holding the matching ETag can be answered 304 Not Modified without reading the database.
+ * The ETag is prefixed with an ID of the process, so a restart, which resets the counter,
+ * never reuses a tag handed out before.
+ * Writes made by other instances sharing the database are not seen.
+ */
+@Component // Registers the version as a singleton shared by the controllers.
+public class DataVersion {
+
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36); // Distinguishes tags of successive runs.
+    private final AtomicLong version = new AtomicLong(); // Number of writes since startup.
+
+    /**
+     * Bumps the version after a booking or block write.
+     *
+     * @param event The change, published by the booking and block services after the write.
+     */
+    @EventListener
+    public void onOccupancyChanged(OccupancyChangedEvent event) {
+        version.incrementAndGet();
+    }
+
+    /**
+     * @return The number of writes since startup.
+     */
+    public long current() {
+        return version.get();
+    }
+
+    /**
+     * Builds the weak ETag of the current data. It is weak because the same data is served in
+     * several encodings (JSON, CBOR, Smile, gzipped or not); Tomcat also never compresses a
+     * response carrying a strong ETag.
+     * Callers must read it before reading the data, so the data is never older than its tag.
+     *
+     * @return The ETag, e.g. {@code W/"lq3k2x1a-42"}.
+     */
+    public String etag() {
+        return "W/\"" + bootId + "-" + version.get() + "\"";
+    }
+}
@@ -0,0 +1,109 @@
+package com.bookingmanagerservice.calendar;
+
+import com.bookingmanagerservice.model.Booking;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Lock striping over the calendar, one stripe per property and epoch week.
+ * Writers lock only the weeks their stay touches in their own property, so overlapping writes
+ * are serialized while writes on unrelated dates or units proceed in parallel. Stripes are always
+ * acquired in ascending order, which rules out deadlocks between writers locking several weeks.
+ */
+@Component // Registers the locks as a singleton shared by the service layer.
+public class DateStripedLocks {
+
+    private static final int STRIPE_COUNT = 256; // Weeks further apart than this share a stripe.
+    private static final int DAYS_PER_STRIPE = 7;
+    private static final int PROPERTY_SPREAD = 37; // Odd, so the same week of consecutive properties lands on different stripes.
+
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPE_COUNT];
+
+    /**
+     * Creates the stripes.
+     */
+    public DateStripedLocks() {
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Locks every week touched by the half-open range {@code [startDate, endDate)} of a property.
+     * Ranges without both dates occupy no nights and lock nothing.
+     *
+     * @param propertyId The property being written.
+     * @param startDate  The first night of the range.
+     * @param endDate    The end of the range (exclusive).
+     * @return A handle releasing the locks when closed.
+     */
+    public Held lock(Long propertyId, LocalDate startDate, LocalDate endDate) {
+        BitSet selected = new BitSet(STRIPE_COUNT);
+        select(selected, propertyId, startDate, endDate);
+        return acquire(selected);
+    }
+
+    /**
+     * Locks every week touched by any of several bookings, in one ordered acquisition.
+     *
+     * @param bookings The bookings being written, possibly across several properties.
+     * @return A handle releasing the locks when closed.
+     */
+    public Held lockAll(Iterable<Booking> bookings) {
+        BitSet selected = new BitSet(STRIPE_COUNT);
+        for (Booking booking : bookings) {
+            select(selected, booking.getPropertyId(), booking.getStartDate(), booking.getEndDate());
+        }
+        return acquire(selected);
+    }
+
+    // Helpers
+
+    private void select(BitSet selected, Long propertyId, LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null) {
+            return;
+        }
+        long firstWeek = Math.floorDiv(startDate.toEpochDay(), DAYS_PER_STRIPE);
+        long lastWeek = Math.floorDiv(Math.max(endDate.toEpochDay() - 1, startDate.toEpochDay()), DAYS_PER_STRIPE);
+        if (lastWeek - firstWeek + 1 >= STRIPE_COUNT) {
+            selected.set(0, STRIPE_COUNT); // Very long ranges simply take every stripe.
+            return;
+        }
+        long offset = propertyId == null ? 0 : propertyId * PROPERTY_SPREAD;
+        for (long week = firstWeek; week <= lastWeek; week++) {
+            selected.set((int) Math.floorMod(week + offset, STRIPE_COUNT));
+        }
+    }
+
+    private Held acquire(BitSet selected) {
+        for (int i = selected.nextSetBit(0); i >= 0; i = selected.nextSetBit(i + 1)) {
+            stripes[i].lock();
+        }
+        return new Held(selected);
+    }
+
+    /**
+     * Handle on a set of locked stripes, meant for try-with-resources.
+     */
+    public final class Held implements AutoCloseable {
+
+        private final BitSet selected; // Stripes held by this handle.
+
+        private Held(BitSet selected) {
+            this.selected = selected;
+        }
+
+        /**
+         * Releases the stripes in reverse acquisition order.
+         */
+        @Override
+        public void close() {
+            for (int i = selected.previousSetBit(STRIPE_COUNT - 1); i >= 0; i = selected.previousSetBit(i - 1)) {
+                stripes[i].unlock();
+            }
+        }
+    }
+}
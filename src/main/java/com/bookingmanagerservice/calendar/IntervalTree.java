@@ -0,0 +1,246 @@
+package com.bookingmanagerservice.calendar;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Augmented AVL tree of half-open day intervals {@code [start, end)}.
+ * Each interval carries the ID of the entity it belongs to, and every node keeps the
+ * maximum end of its subtree so overlap queries can prune whole branches.
+ * Insertion, removal and "is there any overlap" run in O(log n); listing the k overlapping
+ * intervals runs in O(log n + k).
+ * This class is not thread-safe; callers are expected to guard it.
+ */
+public class IntervalTree {
+
+    private Node root; // Root of the balanced tree, ordered by (start, id).
+    private int size; // Number of intervals currently stored.
+
+    /**
+     * Adds an interval to the tree.
+     * Empty intervals (start >= end) are ignored because they can never overlap anything.
+     *
+     * @param start Inclusive start of the interval, in epoch days.
+     * @param end   Exclusive end of the interval, in epoch days.
+     * @param id    ID of the entity owning the interval.
+     */
+    public void insert(long start, long end, long id) {
+        if (start >= end) {
+            return;
+        }
+        root = insert(root, start, end, id);
+    }
+
+    /**
+     * Removes an interval previously added with {@link #insert(long, long, long)}.
+     *
+     * @param start Inclusive start the interval was inserted with.
+     * @param id    ID of the entity owning the interval.
+     * @return true if the interval was found and removed, false otherwise.
+     */
+    public boolean remove(long start, long id) {
+        int before = size;
+        root = remove(root, start, id);
+        return size < before;
+    }
+
+    /**
+     * Checks whether any stored interval overlaps {@code [start, end)}.
+     *
+     * @param start     Inclusive start of the query range, in epoch days.
+     * @param end       Exclusive end of the query range, in epoch days.
+     * @param excludeId ID whose interval should be ignored, or null to consider all intervals.
+     * @return true if at least one interval overlaps the range.
+     */
+    public boolean overlapsAny(long start, long end, Long excludeId) {
+        if (start >= end) {
+            return false;
+        }
+        return overlapsAny(root, start, end, excludeId);
+    }
+
+    /**
+     * Visits the IDs of all intervals overlapping {@code [start, end)}, in ascending start order.
+     *
+     * @param start   Inclusive start of the query range, in epoch days.
+     * @param end     Exclusive end of the query range, in epoch days.
+     * @param visitor Callback receiving each overlapping interval's ID.
+     */
+    public void forEachOverlapping(long start, long end, LongConsumer visitor) {
+        if (start >= end) {
+            return;
+        }
+        forEachOverlapping(root, start, end, visitor);
+    }
+
+    /**
+     * Removes every interval from the tree.
+     */
+    public void clear() {
+        root = null;
+        size = 0;
+    }
+
+    /**
+     * @return The number of intervals stored in the tree.
+     */
+    public int size() {
+        return size;
+    }
+
+    // Recursive helpers
+
+    private Node insert(Node node, long start, long end, long id) {
+        if (node == null) {
+            size++;
+            return new Node(start, end, id);
+        }
+        int cmp = compare(start, id, node);
+        if (cmp < 0) {
+            node.left = insert(node.left, start, end, id);
+        } else if (cmp > 0) {
+            node.right = insert(node.right, start, end, id);
+        } else {
+            node.end = end; // Same key: replace the interval in place.
+        }
+        return rebalance(node);
+    }
+
+    private Node remove(Node node, long start, long id) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(start, id, node);
+        if (cmp < 0) {
+            node.left = remove(node.left, start, id);
+        } else if (cmp > 0) {
+            node.right = remove(node.right, start, id);
+        } else {
+            size--;
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            node.start = successor.start;
+            node.end = successor.end;
+            node.id = successor.id;
+            size++; // The successor's removal below decrements the size again.
+            node.right = remove(node.right, successor.start, successor.id);
+        }
+        return rebalance(node);
+    }
+
+    private boolean overlapsAny(Node node, long start, long end, Long excludeId) {
+        while (node != null) {
+            if (node.maxEnd <= start) {
+                return false; // Nothing in this subtree ends after the query starts.
+            }
+            if (node.start < end && node.end > start && (excludeId == null || node.id != excludeId)) {
+                return true;
+            }
+            if (node.left != null && node.left.maxEnd > start && overlapsAny(node.left, start, end, excludeId)) {
+                return true;
+            }
+            if (node.start >= end) {
+                return false; // Right subtree only holds intervals starting even later.
+            }
+            node = node.right;
+        }
+        return false;
+    }
+
+    private void forEachOverlapping(Node node, long start, long end, LongConsumer visitor) {
+        if (node == null || node.maxEnd <= start) {
+            return;
+        }
+        forEachOverlapping(node.left, start, end, visitor);
+        if (node.start < end && node.end > start) {
+            visitor.accept(node.id);
+        }
+        if (node.start < end) {
+            forEachOverlapping(node.right, start, end, visitor);
+        }
+    }
+
+    private static int compare(long start, long id, Node node) {
+        int cmp = Long.compare(start, node.start);
+        return cmp != 0 ? cmp : Long.compare(id, node.id);
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static void update(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        long maxEnd = node.end;
+        if (node.left != null) {
+            maxEnd = Math.max(maxEnd, node.left.maxEnd);
+        }
+        if (node.right != null) {
+            maxEnd = Math.max(maxEnd, node.right.maxEnd);
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    private static Node rebalance(Node node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    /**
+     * Tree node holding one interval and the augmented subtree data.
+     */
+    private static final class Node {
+        long start;
+        long end;
+        long id;
+        long maxEnd;
+        int height = 1;
+        Node left;
+        Node right;
+
+        Node(long start, long end, long id) {
+            this.start = start;
+            this.end = end;
+            this.id = id;
+            this.maxEnd = end;
+        }
+    }
+}
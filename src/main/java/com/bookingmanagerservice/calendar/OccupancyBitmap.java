@@ -0,0 +1,170 @@
+package com.bookingmanagerservice.calendar;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Sparse bitmap with one bit per day, indexed by {@code LocalDate.toEpochDay()}.
+ * Days are packed 64 to a {@code long} word, and words are grouped in fixed segments of
+ * {@value #SEGMENT_DAYS} days, allocated when a day of theirs is first set and dropped once all
+ * their days are free again. Memory therefore follows the occupied stretches of the calendar, not
+ * the span between its earliest and latest day. Checking a range of n days costs roughly n / 64
+ * word-mask tests; a range within one segment allocates nothing.
+ * Ranges are half-open: {@code [start, end)} in epoch days.
+ * This class is not thread-safe; callers are expected to guard it.
+ */
+public class OccupancyBitmap {
+
+    private static final int SEGMENT_SHIFT = 9; // log2 of the days of a segment.
+    private static final int SEGMENT_DAYS = 1 << SEGMENT_SHIFT; // Days of a segment, about 17 months.
+    private static final int SEGMENT_WORDS = SEGMENT_DAYS >>> 6; // Words of a segment.
+
+    private final TreeMap<Long, long[]> segments = new TreeMap<>(); // Segment i covers days [i * SEGMENT_DAYS, (i + 1) * SEGMENT_DAYS); absent segments are free.
+
+    /**
+     * Marks every day in {@code [start, end)} as occupied.
+     *
+     * @param start Inclusive first day, in epoch days.
+     * @param end   Exclusive last day, in epoch days.
+     */
+    public void set(long start, long end) {
+        if (start >= end) {
+            return;
+        }
+        long lastSegment = segment(end - 1);
+        for (long index = segment(start); index <= lastSegment; index++) {
+            long[] words = segments.computeIfAbsent(index, key -> new long[SEGMENT_WORDS]);
+            apply(words, from(index, start), to(index, end), true);
+        }
+    }
+
+    /**
+     * Marks every day in {@code [start, end)} as free.
+     *
+     * @param start Inclusive first day, in epoch days.
+     * @param end   Exclusive last day, in epoch days.
+     */
+    public void clear(long start, long end) {
+        if (start >= end) {
+            return;
+        }
+        Iterator<Map.Entry<Long, long[]>> touched = segments.subMap(segment(start), true, segment(end - 1), true).entrySet().iterator();
+        while (touched.hasNext()) {
+            Map.Entry<Long, long[]> entry = touched.next();
+            long[] words = entry.getValue();
+            apply(words, from(entry.getKey(), start), to(entry.getKey(), end), false);
+            if (isEmpty(words)) {
+                touched.remove(); // Free segments take no memory.
+            }
+        }
+    }
+
+    /**
+     * Checks whether any day in {@code [start, end)} is occupied.
+     *
+     * @param start Inclusive first day, in epoch days.
+     * @param end   Exclusive last day, in epoch days.
+     * @return true if at least one day in the range is occupied.
+     */
+    public boolean anySet(long start, long end) {
+        if (start >= end) {
+            return false;
+        }
+        long firstSegment = segment(start);
+        long lastSegment = segment(end - 1);
+        if (firstSegment == lastSegment) { // The usual stay: one lookup, no iteration.
+            long[] words = segments.get(firstSegment);
+            return words != null && anySet(words, from(firstSegment, start), to(firstSegment, end));
+        }
+        for (Map.Entry<Long, long[]> entry : segments.subMap(firstSegment, true, lastSegment, true).entrySet()) {
+            if (anySet(entry.getValue(), from(entry.getKey(), start), to(entry.getKey(), end))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a single day is occupied.
+     *
+     * @param day The day, in epoch days.
+     * @return true if the day is occupied.
+     */
+    public boolean get(long day) {
+        long[] words = segments.get(segment(day));
+        if (words == null) {
+            return false;
+        }
+        int offset = (int) (day - (segment(day) << SEGMENT_SHIFT));
+        return (words[offset >>> 6] & (1L << (offset & 63))) != 0;
+    }
+
+    /**
+     * Frees every day.
+     */
+    public void clearAll() {
+        segments.clear();
+    }
+
+    // Helpers
+
+    private static long segment(long day) {
+        return day >> SEGMENT_SHIFT; // Arithmetic shift: floors for days before the epoch too.
+    }
+
+    // First offset of [start, ...) within a segment.
+    private static int from(long index, long start) {
+        return (int) Math.max(start - (index << SEGMENT_SHIFT), 0);
+    }
+
+    // End offset of [..., end) within a segment.
+    private static int to(long index, long end) {
+        return (int) Math.min(end - (index << SEGMENT_SHIFT), SEGMENT_DAYS);
+    }
+
+    private static boolean anySet(long[] words, int from, int to) {
+        int firstWord = from >>> 6;
+        int lastWord = (to - 1) >>> 6;
+        long firstMask = -1L << (from & 63);
+        long lastMask = -1L >>> (63 - ((to - 1) & 63));
+        if (firstWord == lastWord) {
+            return (words[firstWord] & firstMask & lastMask) != 0;
+        }
+        if ((words[firstWord] & firstMask) != 0) {
+            return true;
+        }
+        for (int i = firstWord + 1; i < lastWord; i++) {
+            if (words[i] != 0) {
+                return true;
+            }
+        }
+        return (words[lastWord] & lastMask) != 0;
+    }
+
+    private static void apply(long[] words, int from, int to, boolean value) {
+        int firstWord = from >>> 6;
+        int lastWord = (to - 1) >>> 6;
+        long firstMask = -1L << (from & 63);
+        long lastMask = -1L >>> (63 - ((to - 1) & 63));
+        for (int i = firstWord; i <= lastWord; i++) {
+            long mask = -1L;
+            if (i == firstWord) {
+                mask &= firstMask;
+            }
+            if (i == lastWord) {
+                mask &= lastMask;
+            }
+            words[i] = value ? words[i] | mask : words[i] & ~mask;
+        }
+    }
+
+    private static boolean isEmpty(long[] words) {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,272 @@
+package com.bookingmanagerservice.calendar;
+
+import com.bookingmanagerservice.model.Block;
+import com.bookingmanagerservice.model.Booking;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory occupancy engine, indexing bookings and blocks together, partitioned by property.
+ * Within a property, both kinds share one interval tree and one bitmap of occupied nights, so
+ * validating a write against bookings and blocks is a single lookup: a handful of word-mask checks
+ * with no {@code LocalDate} comparisons or allocations, even over multi-year horizons.
+ * Each property has its own partition and lock, so a check for one unit never reads another
+ * unit's data or waits on its writers, and partitions are rebuilt in parallel.
+ * Ranges are half-open: a stay from {@code startDate} to {@code endDate} occupies every night
+ * from the start date up to, but not including, the end date, so a check-out and a check-in
+ * on the same day do not conflict. The same rule applies to blocks.
+ * The calendar must be kept in sync by the service layer on every booking and block mutation.
+ */
+@Component // Registers the calendar as a singleton shared by the service layer.
+public class OccupancyCalendar {
+
+    private final ConcurrentMap<Long, Partition> partitions = new ConcurrentHashMap<>(); // Occupied nights of each property.
+    private final ConcurrentMap<Long, Long> propertyByKey = new ConcurrentHashMap<>(); // Property holding each indexed occupant.
+
+    /**
+     * Replaces the booking ranges of the calendar, leaving the blocks untouched.
+     *
+     * @param allBookings All bookings currently persisted.
+     */
+    public void rebuildBookings(Iterable<Booking> allBookings) {
+        Map<Long, List<long[]>> byProperty = new HashMap<>();
+        for (Booking booking : allBookings) {
+            addRow(byProperty, OccupantKind.BOOKING, booking.getId(), booking.getPropertyId(), booking.getStartDate(), booking.getEndDate());
+        }
+        rebuild(OccupantKind.BOOKING, byProperty);
+    }
+
+    /**
+     * Replaces the block ranges of the calendar, leaving the bookings untouched.
+     *
+     * @param allBlocks All blocks currently persisted.
+     */
+    public void rebuildBlocks(Iterable<Block> allBlocks) {
+        Map<Long, List<long[]>> byProperty = new HashMap<>();
+        for (Block block : allBlocks) {
+            addRow(byProperty, OccupantKind.BLOCK, block.getId(), block.getPropertyId(), block.getStartDate(), block.getEndDate());
+        }
+        rebuild(OccupantKind.BLOCK, byProperty);
+    }
+
+    /**
+     * Adds a booking to the calendar, replacing any range previously held by the same ID,
+     * even if that range belonged to another property.
+     *
+     * @param booking The saved booking. Bookings without an ID are ignored.
+     */
+    public void putBooking(Booking booking) {
+        if (booking != null) {
+            put(OccupantKind.BOOKING, booking.getId(), booking.getPropertyId(), booking.getStartDate(), booking.getEndDate());
+        }
+    }
+
+    /**
+     * Removes a booking from the calendar.
+     *
+     * @param id The ID of the booking to remove.
+     */
+    public void removeBooking(Long id) {
+        remove(OccupantKind.BOOKING, id);
+    }
+
+    /**
+     * Adds a block to the calendar, replacing any range previously held by the same ID,
+     * even if that range belonged to another property.
+     *
+     * @param block The saved block. Blocks without an ID are ignored.
+     */
+    public void putBlock(Block block) {
+        if (block != null) {
+            put(OccupantKind.BLOCK, block.getId(), block.getPropertyId(), block.getStartDate(), block.getEndDate());
+        }
+    }
+
+    /**
+     * Removes a block from the calendar.
+     *
+     * @param id The ID of the block to remove.
+     */
+    public void removeBlock(Long id) {
+        remove(OccupantKind.BLOCK, id);
+    }
+
+    /**
+     * Checks if a stay is free of both bookings and blocks of its property in a single lookup.
+     *
+     * @param propertyId       The property of the stay.
+     * @param startDate        The check-in date (first night).
+     * @param endDate          The check-out date (exclusive).
+     * @param excludeBookingId ID of a booking to ignore (e.g. the one being rescheduled), or null.
+     * @return true if no other booking and no block of the property overlaps the stay, false otherwise.
+     */
+    public boolean isAvailable(Long propertyId, LocalDate startDate, LocalDate endDate, Long excludeBookingId) {
+        if (startDate == null || endDate == null) {
+            return true; // Incomplete ranges cannot occupy the calendar.
+        }
+        Partition partition = partitions.get(propertyId);
+        if (partition == null) {
+            return true; // Nothing has ever occupied this property.
+        }
+        Long excludeKey = excludeBookingId == null ? null : OccupantKind.BOOKING.key(excludeBookingId);
+        partition.lock.readLock().lock();
+        try {
+            return !partition.occupants.overlapsAny(startDate.toEpochDay(), endDate.toEpochDay(), excludeKey);
+        } finally {
+            partition.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Checks if any night of a date range is closed by a block of a property.
+     *
+     * @param propertyId The property to check.
+     * @param startDate  The first night of the range.
+     * @param endDate    The end of the range (exclusive).
+     * @return true if at least one block of the property overlaps the range, false otherwise.
+     */
+    public boolean isBlocked(Long propertyId, LocalDate startDate, LocalDate endDate) {
+        return findConflicts(propertyId, startDate, endDate).stream().anyMatch(occupant -> occupant.kind() == OccupantKind.BLOCK);
+    }
+
+    /**
+     * Lists the bookings and blocks of a property overlapping a date range, ordered by start date.
+     *
+     * @param propertyId The property to search.
+     * @param startDate  The first night of the range.
+     * @param endDate    The end of the range (exclusive).
+     * @return The overlapping occupants.
+     */
+    public List<Occupant> findConflicts(Long propertyId, LocalDate startDate, LocalDate endDate) {
+        List<Occupant> conflicts = new ArrayList<>();
+        Partition partition = partitions.get(propertyId);
+        if (startDate == null || endDate == null || partition == null) {
+            return conflicts;
+        }
+        partition.lock.readLock().lock();
+        try {
+            for (long key : partition.occupants.findOverlapping(startDate.toEpochDay(), endDate.toEpochDay())) {
+                conflicts.add(Occupant.of(key));
+            }
+        } finally {
+            partition.lock.readLock().unlock();
+        }
+        return conflicts;
+    }
+
+    /**
+     * @return The number of bookings and blocks currently in the calendar, across all properties.
+     */
+    public int size() {
+        return propertyByKey.size();
+    }
+
+    // Helpers
+
+    private void put(OccupantKind kind, Long id, Long propertyId, LocalDate startDate, LocalDate endDate) {
+        if (id == null) {
+            return;
+        }
+        long key = kind.key(id);
+        if (startDate == null || endDate == null || !endDate.isAfter(startDate)) {
+            remove(kind, id); // Incomplete and empty ranges cannot occupy the calendar.
+            return;
+        }
+        // Computing under the key's map entry serializes concurrent writes of the same occupant,
+        // so a move between properties never leaves a stale copy behind.
+        propertyByKey.compute(key, (k, previousProperty) -> {
+            if (previousProperty != null && !previousProperty.equals(propertyId)) {
+                partitions.get(previousProperty).remove(key);
+            }
+            partitions.computeIfAbsent(propertyId, p -> new Partition()).put(key, startDate.toEpochDay(), endDate.toEpochDay());
+            return propertyId;
+        });
+    }
+
+    private void remove(OccupantKind kind, Long id) {
+        if (id == null) {
+            return;
+        }
+        propertyByKey.computeIfPresent(kind.key(id), (key, propertyId) -> {
+            partitions.get(propertyId).remove(key);
+            return null;
+        });
+    }
+
+    private static void addRow(Map<Long, List<long[]>> byProperty, OccupantKind kind, Long id, Long propertyId,
+                               LocalDate startDate, LocalDate endDate) {
+        if (id != null && startDate != null && endDate != null && endDate.isAfter(startDate)) {
+            byProperty.computeIfAbsent(propertyId, p -> new ArrayList<>())
+                    .add(new long[]{kind.key(id), startDate.toEpochDay(), endDate.toEpochDay()});
+        }
+    }
+
+    // Drops every occupant of one kind, then reloads each property's rows in parallel.
+    private void rebuild(OccupantKind kind, Map<Long, List<long[]>> byProperty) {
+        partitions.values().parallelStream().forEach(partition -> partition.removeIf(kind));
+        propertyByKey.keySet().removeIf(key -> OccupantKind.of(key) == kind);
+        byProperty.entrySet().parallelStream().forEach(entry -> {
+            Partition partition = partitions.computeIfAbsent(entry.getKey(), p -> new Partition());
+            partition.putAll(entry.getValue());
+            for (long[] row : entry.getValue()) {
+                propertyByKey.put(row[0], entry.getKey());
+            }
+        });
+    }
+
+    /**
+     * Occupied nights of a single property, with the lock guarding them.
+     */
+    private static final class Partition {
+
+        private final RangeLayer occupants = new RangeLayer(); // Nights occupied by the property's bookings and blocks.
+        private final ReadWriteLock lock = new ReentrantReadWriteLock(); // Allows concurrent readers and exclusive writers.
+
+        void put(long key, long start, long end) {
+            lock.writeLock().lock();
+            try {
+                occupants.put(key, start, end);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void putAll(List<long[]> rows) {
+            lock.writeLock().lock();
+            try {
+                for (long[] row : rows) {
+                    occupants.put(row[0], row[1], row[2]);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(long key) {
+            lock.writeLock().lock();
+            try {
+                occupants.remove(key);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void removeIf(OccupantKind kind) {
+            lock.writeLock().lock();
+            try {
+                occupants.removeIf(key -> OccupantKind.of(key) == kind);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.bookingmanagerservice.calendar;
+
+/**
+ * A booking or block found in the {@link OccupancyCalendar}.
+ *
+ * @param kind Whether the entry is a booking or a block.
+ * @param id   The ID of the booking or block.
+ */
+public record Occupant(OccupantKind kind, long id) {
+
+    /**
+     * Decodes an index key.
+     *
+     * @param key The index key.
+     * @return The occupant it identifies.
+     */
+    static Occupant of(long key) {
+        return new Occupant(OccupantKind.of(key), key >> 1);
+    }
+}
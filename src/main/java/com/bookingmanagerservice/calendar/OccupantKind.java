@@ -0,0 +1,31 @@
+package com.bookingmanagerservice.calendar;
+
+/**
+ * Kind of entity occupying nights in the {@link OccupancyCalendar}.
+ * Bookings and blocks share one index, so each entry is keyed by its ID with the kind packed
+ * into the lowest bit.
+ */
+public enum OccupantKind {
+    BOOKING,
+    BLOCK;
+
+    /**
+     * Packs an entity ID and this kind into a single index key.
+     *
+     * @param id The entity ID.
+     * @return The index key.
+     */
+    long key(long id) {
+        return (id << 1) | ordinal();
+    }
+
+    /**
+     * Extracts the kind from an index key.
+     *
+     * @param key The index key.
+     * @return The kind of the entity.
+     */
+    static OccupantKind of(long key) {
+        return values()[(int) (key & 1)];
+    }
+}
@@ -0,0 +1,98 @@
+package com.bookingmanagerservice.calendar;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongPredicate;
+
+/**
+ * A set of keyed day ranges kept both as an {@link IntervalTree} and as an
+ * {@link OccupancyBitmap}. The tree is the source of truth and answers "which IDs"; the bitmap
+ * answers "is anything there" with a few word-mask checks.
+ * Keys are opaque to the layer; {@link OccupancyCalendar} packs the entity kind into them.
+ * Ranges are half-open {@code [start, end)} in epoch days.
+ * This class is not thread-safe; {@link OccupancyCalendar} guards it.
+ */
+class RangeLayer {
+
+    private final IntervalTree tree = new IntervalTree(); // Ranges ordered by start day.
+    private final OccupancyBitmap bitmap = new OccupancyBitmap(); // Union of all ranges, one bit per day.
+    private final Map<Long, long[]> rangeById = new HashMap<>(); // Indexed range of each ID, needed for removal.
+
+    /**
+     * Adds or replaces the range of an ID.
+     */
+    void put(long id, long start, long end) {
+        remove(id);
+        if (start >= end) {
+            return;
+        }
+        tree.insert(start, end, id);
+        bitmap.set(start, end);
+        rangeById.put(id, new long[]{start, end});
+    }
+
+    /**
+     * Removes the range of an ID, re-marking the days still covered by other ranges.
+     */
+    void remove(long id) {
+        long[] range = rangeById.remove(id);
+        if (range == null) {
+            return;
+        }
+        tree.remove(range[0], id);
+        bitmap.clear(range[0], range[1]);
+        tree.forEachOverlapping(range[0], range[1], other -> {
+            long[] otherRange = rangeById.get(other);
+            bitmap.set(Math.max(otherRange[0], range[0]), Math.min(otherRange[1], range[1]));
+        });
+    }
+
+    /**
+     * Checks whether any range other than {@code excludeId}'s overlaps {@code [start, end)}.
+     */
+    boolean overlapsAny(long start, long end, Long excludeId) {
+        if (excludeId != null) {
+            long[] own = rangeById.get(excludeId);
+            if (own != null && own[0] < end && own[1] > start) {
+                return tree.overlapsAny(start, end, excludeId); // The bitmap cannot tell our own days apart.
+            }
+        }
+        return bitmap.anySet(start, end);
+    }
+
+    /**
+     * Lists the IDs whose ranges overlap {@code [start, end)}, ordered by start day.
+     */
+    List<Long> findOverlapping(long start, long end) {
+        List<Long> ids = new ArrayList<>();
+        tree.forEachOverlapping(start, end, ids::add);
+        return ids;
+    }
+
+    /**
+     * Removes the ranges of every ID matching a predicate.
+     */
+    void removeIf(LongPredicate predicate) {
+        List<Long> matching = new ArrayList<>();
+        for (Long id : rangeById.keySet()) {
+            if (predicate.test(id)) {
+                matching.add(id);
+            }
+        }
+        if (matching.size() == rangeById.size()) {
+            tree.clear();
+            bitmap.clearAll();
+            rangeById.clear();
+            return;
+        }
+        for (Long id : matching) {
+            remove(id);
+        }
+    }
+
+    int size() {
+        return tree.size();
+    }
+}
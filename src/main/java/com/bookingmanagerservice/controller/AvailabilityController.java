@@ -0,0 +1,79 @@
+package com.bookingmanagerservice.controller;
+
+import com.bookingmanagerservice.dto.RangeCheck;
+import com.bookingmanagerservice.model.Booking;
+import com.bookingmanagerservice.service.AvailabilityService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * REST controller for availability searches.
+ * Provides HTTP endpoints that tell storefronts which dates can still be booked.
+ */
+@RestController
+@RequestMapping("/availability")
+public class AvailabilityController {
+
+    private static final int MAX_CHECKS = 1000; // Candidate stays accepted by one batch check.
+
+    private final AvailabilityService availabilityService;
+
+    /**
+     * Constructor to inject the AvailabilityService dependency.
+     *
+     * @param availabilityService Service computing availability.
+     */
+    @Autowired
+    public AvailabilityController(AvailabilityService availabilityService) {
+        this.availabilityService = availabilityService;
+    }
+
+    /**
+     * Endpoint to find the free windows between bookings and blocks.
+     * Handles GET request on "/availability?from=&to=&minNights=&propertyId=".
+     *
+     * @param from The first night of the search window (ISO date).
+     * @param to The end of the search window, exclusive (ISO date).
+     * @param minNights The minimum length of the returned windows, 1 by default.
+     * @param propertyId The property to search, the default property if omitted.
+     * @return ResponseEntity with the free windows, or a bad request status if the window is invalid.
+     */
+    @GetMapping
+    public ResponseEntity<?> getFreeWindows(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                            @RequestParam(defaultValue = "1") int minNights,
+                                            @RequestParam(required = false) Long propertyId) {
+        if (!to.isAfter(from) || minNights < 1) {
+            return ResponseEntity.badRequest().body("'to' must be after 'from' and 'minNights' must be at least 1.");
+        }
+        return ResponseEntity.ok(availabilityService.findFreeWindows(
+                propertyId == null ? Booking.DEFAULT_PROPERTY_ID : propertyId, from, to, minNights));
+    }
+
+    /**
+     * Endpoint to check many candidate stays in one call.
+     * Handles POST request on "/availability/check" with a JSON array of stays
+     * ({@code propertyId}, {@code startDate}, {@code endDate}).
+     *
+     * @param checks The candidate stays, at most 1000.
+     * @return ResponseEntity with one verdict per stay, in request order, listing the conflicting
+     * bookings and blocks, or a bad request status if a stay is invalid.
+     */
+    @PostMapping("/check")
+    public ResponseEntity<?> checkRanges(@RequestBody List<RangeCheck> checks) {
+        if (checks.isEmpty() || checks.size() > MAX_CHECKS) {
+            return ResponseEntity.badRequest().body("Between 1 and " + MAX_CHECKS + " stays can be checked at once.");
+        }
+        for (RangeCheck check : checks) {
+            if (check == null || check.startDate() == null || check.endDate() == null || !check.endDate().isAfter(check.startDate())) {
+                return ResponseEntity.badRequest().body("Every stay needs a 'startDate' before its 'endDate'.");
+            }
+        }
+        return ResponseEntity.ok(availabilityService.checkRanges(checks));
+    }
+}
@@ -1,13 +1,22 @@
 package com.bookingmanagerservice.controller;
 
+import com.bookingmanagerservice.cache.DataVersion;
+import com.bookingmanagerservice.dto.BlockView;
 import com.bookingmanagerservice.model.Block;
+import com.bookingmanagerservice.pipeline.BookingPipeline;
 import com.bookingmanagerservice.service.BlockService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import jakarta.validation.Valid; // Ensure this import is present for @Valid
 import java.util.List;
+import java.util.Optional;
 
 /**
  * REST controller for managing property blocks.
@@ -15,18 +24,29 @@ import java.util.List;
  */
 @RestController // Marks this class as a REST controller, meaning it's ready for use by Spring MVC to handle web requests.
 @RequestMapping("/blocks") // Maps HTTP requests to handler methods of MVC and REST controllers.
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET) // Served by Spring MVC; the reactive build maps /blocks to ReactiveBlockController instead.
 public class BlockController {
 
     private final BlockService blockService; // Service layer dependency for block operations.
+    private final ObjectMapper objectMapper; // Serializes blocks when streaming NDJSON.
+    private final DataVersion dataVersion; // ETag source of the block list.
+    private final BookingPipeline pipeline; // Sequenced write path, or null in the default locked mode.
 
     /**
      * Constructor for dependency injection of block service.
      *
      * @param blockService Service that manages block operations.
+     * @param objectMapper JSON mapper used for streamed listings.
+     * @param dataVersion  Version of the data, used as the ETag of the list.
+     * @param pipeline     Single-writer pipeline applying new blocks, present with booking.write-mode=sequenced.
      */
     @Autowired // Automatically injects the BlockService instance created by Spring.
-    public BlockController(BlockService blockService) {
+    public BlockController(BlockService blockService, ObjectMapper objectMapper, DataVersion dataVersion,
+                           Optional<BookingPipeline> pipeline) {
         this.blockService = blockService;
+        this.objectMapper = objectMapper;
+        this.dataVersion = dataVersion;
+        this.pipeline = pipeline.orElse(null);
     }
 
     /**
@@ -38,7 +58,8 @@ public class BlockController {
      */
     @PostMapping // Maps HTTP POST requests onto specific handler methods.
     public ResponseEntity<Block> createBlock(@Valid @RequestBody Block block) {
-        Block savedBlock = blockService.createBlock(block); // Calls the service layer to save the block.
+        // Calls the service layer to save the block, or the sequencer in sequenced write mode.
+        Block savedBlock = pipeline != null ? BookingPipeline.await(pipeline.createBlock(block)) : blockService.createBlock(block);
         return ResponseEntity.status(HttpStatus.CREATED).body(savedBlock); // Returns a response entity with CREATED status and saved block.
     }
 
@@ -59,14 +80,39 @@ public class BlockController {
     }
 
     /**
-     * Lists all blocks.
+     * Lists blocks.
      * This method will handle the GET request on "/blocks" endpoint.
+     * With a "limit" parameter one keyset page is returned, with a Link header to the next page;
+     * otherwise the full list is returned. Polls repeating the ETag in If-None-Match get
+     * 304 Not Modified until a booking or block changes.
      *
-     * @return A list of all blocks and a ResponseEntity.
+     * @param afterId The last ID of the previous page, used with "limit".
+     * @param limit   The page size.
+     * @param request The current request, for If-None-Match.
+     * @return A ResponseEntity with the blocks, or null once a 304 has been written.
      */
     @GetMapping // Maps HTTP GET requests onto specific handler methods.
-    public ResponseEntity<List<Block>> getAllBlocks() {
-        List<Block> blocks = blockService.getAllBlocks(); // Calls the service layer to retrieve all blocks.
-        return ResponseEntity.ok(blocks); // Returns an OK response with the list of blocks.
+    public ResponseEntity<List<BlockView>> getAllBlocks(@RequestParam(required = false) Long afterId,
+                                                        @RequestParam(required = false) Integer limit,
+                                                        WebRequest request) {
+        return ListingResponses.unlessNotModified(request, dataVersion.etag(), () -> { // Unchanged data is answered 304.
+            if (limit != null) {
+                int pageSize = Math.max(1, Math.min(limit, BlockService.MAX_PAGE_SIZE));
+                return ListingResponses.page(blockService.getBlocksPage(afterId, pageSize), pageSize, BlockView::id); // Returns one keyset page.
+            }
+            List<BlockView> blocks = blockService.getAllBlocks(); // Calls the service layer to retrieve all blocks.
+            return ResponseEntity.ok(blocks); // Returns an OK response with the list of blocks.
+        });
+    }
+
+    /**
+     * Streams all blocks as newline-delimited JSON.
+     * This method will handle the GET request on "/blocks" with "Accept: application/x-ndjson".
+     *
+     * @return A ResponseEntity writing the blocks straight from a database cursor.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE) // Selected only when the client asks for NDJSON.
+    public ResponseEntity<StreamingResponseBody> streamBlocks() {
+        return ListingResponses.ndjson(objectMapper, blockService::forEachBlock);
     }
 }
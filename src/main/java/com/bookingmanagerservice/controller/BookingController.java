@@ -1,34 +1,70 @@
 package com.bookingmanagerservice.controller;
 
+import com.bookingmanagerservice.cache.DataVersion;
+import com.bookingmanagerservice.dto.BatchImportResult;
+import com.bookingmanagerservice.dto.BookingView;
 import com.bookingmanagerservice.model.Booking;
+import com.bookingmanagerservice.pipeline.BookingPipeline;
 import com.bookingmanagerservice.service.BookingService;
+import com.bookingmanagerservice.service.DatesUnavailableException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import jakarta.validation.Valid;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
  * REST controller for managing bookings.
  * Provides HTTP endpoints for operations like adding, updating,
  * cancelling, rescheduling, retrieving, and deleting bookings.
+ * Served by Spring MVC; in the reactive build, a reactive web application maps the same
+ * endpoints to ReactiveBookingController instead.
  */
 @RestController
 @RequestMapping("/bookings")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class BookingController {
 
     private final BookingService bookingService;
+    private final ObjectMapper objectMapper;
+    private final DataVersion dataVersion;
+    private final BookingPipeline pipeline; // Sequenced write path, or null in the default locked mode.
 
     /**
      * Constructor to inject the BookingService dependency.
      *
      * @param bookingService Service handling business logic related to bookings.
+     * @param objectMapper JSON mapper used to parse NDJSON imports row by row.
+     * @param dataVersion Version of the data, used as the ETag of the booking list.
+     * @param pipeline Single-writer pipeline applying creations, reschedules and imports, present with booking.write-mode=sequenced.
      */
     @Autowired
-    public BookingController(BookingService bookingService) {
+    public BookingController(BookingService bookingService, ObjectMapper objectMapper, DataVersion dataVersion,
+                             Optional<BookingPipeline> pipeline) {
         this.bookingService = bookingService;
+        this.objectMapper = objectMapper;
+        this.dataVersion = dataVersion;
+        this.pipeline = pipeline.orElse(null);
     }
 
     /**
@@ -36,32 +72,152 @@ public class BookingController {
      * Handles POST request to add a new booking.
      *
      * @param booking The booking object to be added.
-     * @return ResponseEntity containing the saved booking or a conflict status.
+     * @return ResponseEntity containing the saved booking, a conflict status, or 400 if the booking is invalid.
      */
 
     @PostMapping
-    public ResponseEntity<?> addBooking(@RequestBody Booking booking) {
-        Optional<Booking> savedBooking = bookingService.createBooking(booking);
+    public ResponseEntity<?> addBooking(@Valid @RequestBody Booking booking) {
+        Optional<Booking> savedBooking = pipeline != null
+                ? BookingPipeline.await(pipeline.createBooking(booking))
+                : bookingService.createBooking(booking);
         if (!savedBooking.isPresent()) {
             return ResponseEntity.status(HttpStatus.CONFLICT).body("Booking dates are unavailable.");
         }
-        return ResponseEntity.status(HttpStatus.CREATED).body(savedBooking.get());
+        return VersionTags.tag(ResponseEntity.status(HttpStatus.CREATED), savedBooking.get().getVersion()).body(savedBooking.get());
     }
 
+    /**
+     * Endpoint to import many bookings at once from a JSON array.
+     * Handles POST request on "/bookings/batch". The array is read element by element and
+     * imported chunk by chunk, so a large upload is never held in memory as a whole. Elements
+     * that cannot be mapped to a booking are reported as rejected rows; if the array itself is
+     * cut short or broken, the rows read so far are imported and the rest is reported as one
+     * malformed row.
+     *
+     * @param body The JSON request body.
+     * @return ResponseEntity with the accepted and rejected rows, or 400 if the body is not an array.
+     * @throws IOException If the request body cannot be read.
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BatchImportResult> importBookings(InputStream body) throws IOException {
+        List<BatchImportResult.Item> items = new ArrayList<>();
+        List<Booking> chunk = new ArrayList<>(BookingService.IMPORT_CHUNK);
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                return ResponseEntity.badRequest().build();
+            }
+            try {
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    JsonNode element = parser.readValueAsTree(); // Consumes the whole element, even if it is not a booking.
+                    chunk.add(toBooking(element));
+                    if (chunk.size() == BookingService.IMPORT_CHUNK) {
+                        importChunk(chunk, items);
+                    }
+                }
+            } catch (JsonProcessingException e) {
+                chunk.add(null); // The rest of the array cannot be read.
+            }
+        }
+        importChunk(chunk, items);
+        return ResponseEntity.ok(total(items));
+    }
+
+    /**
+     * Endpoint to import many bookings at once from newline-delimited JSON, one booking per line.
+     * Lines that cannot be parsed are reported as rejected rows instead of failing the whole import.
+     * The body is read and imported chunk by chunk, so a large upload is never held in memory as a whole.
+     *
+     * @param body The NDJSON request body.
+     * @return ResponseEntity with the accepted and rejected rows.
+     * @throws IOException If the request body cannot be read.
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<BatchImportResult> importBookingsNdjson(InputStream body) throws IOException {
+        List<BatchImportResult.Item> items = new ArrayList<>();
+        List<Booking> chunk = new ArrayList<>(BookingService.IMPORT_CHUNK);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                chunk.add(objectMapper.readValue(line, Booking.class));
+            } catch (JsonProcessingException e) {
+                chunk.add(null); // Reported as a malformed row by the service.
+            }
+            if (chunk.size() == BookingService.IMPORT_CHUNK) {
+                importChunk(chunk, items);
+            }
+        }
+        importChunk(chunk, items);
+        return ResponseEntity.ok(total(items));
+    }
+
+    /**
+     * Maps one element of a JSON array to a booking, or to a null row if it is not one.
+     */
+    private Booking toBooking(JsonNode element) {
+        try {
+            return objectMapper.treeToValue(element, Booking.class);
+        } catch (JsonProcessingException e) {
+            return null; // Reported as a malformed row by the service.
+        }
+    }
+
+    /**
+     * Imports the rows read so far through the service and empties the chunk. The rows are numbered
+     * from the number of rows imported before them. In sequenced write mode the chunk is imported on
+     * the sequencer, so it cannot interleave with pipelined creations.
+     */
+    private void importChunk(List<Booking> chunk, List<BatchImportResult.Item> items) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<Booking> rows = new ArrayList<>(chunk); // The chunk is reused for the next rows.
+        int firstIndex = items.size();
+        BatchImportResult result = pipeline != null
+                ? BookingPipeline.await(pipeline.runExclusively(() -> bookingService.importBookings(rows, firstIndex)))
+                : bookingService.importBookings(rows, firstIndex);
+        items.addAll(result.items());
+        chunk.clear();
+    }
+
+    /**
+     * Adds up the outcomes of the imported chunks.
+     */
+    private static BatchImportResult total(List<BatchImportResult.Item> items) {
+        int accepted = (int) items.stream().filter(BatchImportResult.Item::accepted).count();
+        return new BatchImportResult(accepted, items.size() - accepted, items);
+    }
 
     /**
      * Endpoint to update an existing booking.
-     * Handles PUT request to update a booking by its ID.
+     * Handles PUT request to update a booking by its ID. With an If-Match header carrying the
+     * booking's ETag, the update only applies if nobody changed the booking since it was read.
+     * In sequenced write mode it runs on the sequencer, like every write that can take nights.
      *
      * @param id The ID of the booking to update.
      * @param booking Updated booking details.
-     * @return ResponseEntity containing the updated booking or a not found status.
+     * @param ifMatch The ETag the client last saw, or null.
+     * @return ResponseEntity containing the updated booking and its new ETag, a not found status,
+     * 412 if the If-Match version is stale, or 409 if a concurrent update won or the dates are unavailable.
      */
     @PutMapping("/{id}")
-    public ResponseEntity<Booking> updateBooking(@PathVariable Long id, @Valid @RequestBody Booking booking) {
-        Optional<Booking> updatedBookingOpt = bookingService.updateBooking(id, booking);
-        return updatedBookingOpt.map(ResponseEntity::ok)
-                .orElseGet(() -> ResponseEntity.notFound().build());
+    public ResponseEntity<?> updateBooking(@PathVariable Long id, @Valid @RequestBody Booking booking,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        try {
+            Long expectedVersion = VersionTags.parseIfMatch(ifMatch);
+            Optional<Booking> updatedBookingOpt = pipeline != null
+                    ? BookingPipeline.await(pipeline.updateBooking(id, booking, expectedVersion))
+                    : bookingService.updateBooking(id, booking, expectedVersion);
+            return updatedBookingOpt.<ResponseEntity<?>>map(updated -> VersionTags.tag(ResponseEntity.ok(), updated.getVersion()).body(updated))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (OptimisticLockingFailureException e) {
+            return VersionTags.lost(ifMatch, e);
+        } catch (DatesUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
     }
 
     /**
@@ -79,32 +235,102 @@ public class BookingController {
 
     /**
      * Endpoint to reschedule an existing booking.
+     * Like the update, it honours If-Match so concurrent edits are never silently overwritten.
      *
      * @param id The ID of the booking to reschedule.
      * @param newDates The new booking details.
-     * @return ResponseEntity containing the updated booking or an error message.
+     * @param ifMatch The ETag the client last saw, or null.
+     * @return ResponseEntity containing the updated booking and its new ETag, or an error message.
      */
     @PatchMapping("/{id}/reschedule")
-    public ResponseEntity<?> rescheduleBooking(@PathVariable Long id, @RequestBody Booking newDates) {
-        Optional<Booking> rescheduledBookingOpt = bookingService.rescheduleBooking(id, newDates);
+    public ResponseEntity<?> rescheduleBooking(@PathVariable Long id, @RequestBody Booking newDates,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (newDates.getStartDate() == null || newDates.getEndDate() == null) {
+            return ResponseEntity.badRequest().body("Start and end dates are required.");
+        }
+        Optional<Booking> rescheduledBookingOpt;
+        try {
+            Long expectedVersion = VersionTags.parseIfMatch(ifMatch);
+            rescheduledBookingOpt = pipeline != null
+                    ? BookingPipeline.await(pipeline.rescheduleBooking(id, newDates, expectedVersion))
+                    : bookingService.rescheduleBooking(id, newDates, expectedVersion);
+        } catch (OptimisticLockingFailureException e) {
+            return VersionTags.lost(ifMatch, e);
+        }
 
         if (!rescheduledBookingOpt.isPresent()) {
             return ResponseEntity.status(HttpStatus.CONFLICT).body("Unable to reschedule the booking. Either the booking does not exist or the new dates are not available.");
         }
 
-        return ResponseEntity.ok(rescheduledBookingOpt.get());
+        return VersionTags.tag(ResponseEntity.ok(), rescheduledBookingOpt.get().getVersion()).body(rescheduledBookingOpt.get());
     }
 
     /**
-     * Endpoint to retrieve all bookings.
-     * Handles GET request for a list of all bookings.
+     * Endpoint to retrieve bookings.
+     * Handles GET request for a list of bookings. With a "limit" parameter one keyset page is
+     * returned, with a Link header to the next page; otherwise the full list is returned.
+     * The response carries the ETag of the current data version; polling with If-None-Match
+     * gets 304 Not Modified, without any database read, until a booking or block changes.
      *
-     * @return ResponseEntity with a list of all bookings.
+     * @param afterId The last ID of the previous page, used with "limit".
+     * @param limit The page size.
+     * @param request The current request, for If-None-Match.
+     * @return ResponseEntity with the bookings, or null once a 304 has been written.
      */
     @GetMapping
-    public ResponseEntity<List<Booking>> getAllBookings() {
-        List<Booking> bookings = bookingService.getAllBookings();
-        return ResponseEntity.ok(bookings);
+    public ResponseEntity<List<BookingView>> getAllBookings(@RequestParam(required = false) Long afterId,
+                                                            @RequestParam(required = false) Integer limit,
+                                                            WebRequest request) {
+        return ListingResponses.unlessNotModified(request, dataVersion.etag(), () -> {
+            if (limit != null) {
+                int pageSize = Math.max(1, Math.min(limit, BookingService.MAX_PAGE_SIZE));
+                return ListingResponses.page(bookingService.getBookingsPage(afterId, pageSize), pageSize, BookingView::id);
+            }
+            List<BookingView> bookings = bookingService.getAllBookings();
+            return ResponseEntity.ok(bookings);
+        });
+    }
+
+    /**
+     * Endpoint for guest type-ahead.
+     * Handles GET request to find the bookings whose guest details start with a prefix, ignoring
+     * case, accents and extra spaces. Results come in pages ordered by guest, then ID; a full page
+     * carries a Link header to the next one, which resumes after its last booking.
+     *
+     * @param guest      The start of the guest details.
+     * @param afterGuest The guest key of the last booking of the previous page, from the Link header.
+     * @param afterId    The ID of the last booking of the previous page, from the Link header.
+     * @param limit      The page size (default 20).
+     * @param request    The current request, for If-None-Match.
+     * @return ResponseEntity with the bookings, 400 for a blank prefix, or null once a 304 has been written.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchBookings(@RequestParam String guest,
+                                            @RequestParam(required = false) String afterGuest,
+                                            @RequestParam(required = false) Long afterId,
+                                            @RequestParam(defaultValue = "20") int limit,
+                                            WebRequest request) {
+        if (Booking.guestKey(guest).isEmpty()) {
+            return ResponseEntity.badRequest().body("'guest' must not be blank.");
+        }
+        return ListingResponses.unlessNotModified(request, dataVersion.etag(), () -> {
+            int pageSize = Math.max(1, Math.min(limit, BookingService.MAX_PAGE_SIZE));
+            return ListingResponses.searchPage(bookingService.searchBookingsByGuest(guest, afterGuest, afterId, pageSize),
+                    pageSize, Map.of("guest", guest),
+                    booking -> Map.of("afterGuest", Booking.guestKey(booking.guestDetails()), "afterId", booking.id()));
+        });
+    }
+
+    /**
+     * Endpoint to stream all bookings as newline-delimited JSON.
+     * Handles GET request with "Accept: application/x-ndjson"; rows are written straight from a
+     * database cursor, so memory use does not depend on the number of bookings.
+     *
+     * @return ResponseEntity with the streaming body.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamBookings() {
+        return ListingResponses.ndjson(objectMapper, bookingService::forEachBooking);
     }
 
     /**
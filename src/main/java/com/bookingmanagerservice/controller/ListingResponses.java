@@ -0,0 +1,127 @@
+package com.bookingmanagerservice.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Helpers shared by the list endpoints of the controllers: conditional GETs, keyset pages and NDJSON streams.
+ */
+final class ListingResponses {
+
+    private static final int FLUSH_EVERY = 500; // Rows written between two flushes of a stream.
+
+    private ListingResponses() {
+    }
+
+    /**
+     * Answers a list request with 304 Not Modified, without building the list, if the client's
+     * If-None-Match already holds the current ETag; otherwise builds the list and tags it.
+     *
+     * @param request The current request.
+     * @param etag    The ETag of the current data, read before the data itself.
+     * @param listing Builds the full response when the client's copy is stale.
+     * @return ResponseEntity with the list, or null once the 304 has been written.
+     */
+    static <T> ResponseEntity<List<T>> unlessNotModified(WebRequest request, String etag, Supplier<ResponseEntity<List<T>>> listing) {
+        if (request.checkNotModified(etag)) {
+            return null; // The 304 and its ETag are already set on the response.
+        }
+        return listing.get(); // The ETag header is already set on the response too.
+    }
+
+    /**
+     * Builds the response for one keyset page, with a {@code Link: rel="next"} header when the page is full.
+     *
+     * @param items    The rows of the page.
+     * @param pageSize The effective page size.
+     * @param idOf     Extracts the keyset ID of a row.
+     * @return ResponseEntity with the page.
+     */
+    static <T> ResponseEntity<List<T>> page(List<T> items, int pageSize, Function<T, Long> idOf) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!items.isEmpty() && items.size() >= pageSize) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("afterId", idOf.apply(items.get(items.size() - 1)))
+                    .replaceQueryParam("limit", pageSize)
+                    .toUriString();
+            response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return response.body(items);
+    }
+
+    /**
+     * Builds the response for one keyset page of a search, with a {@code Link: rel="next"} header when
+     * the page is full. The link is built from scratch: the search parameters, the cursor of the last
+     * row and the page size, each value encoded, since search terms may hold any character.
+     *
+     * @param items    The rows of the page.
+     * @param pageSize The effective page size.
+     * @param search   The search parameters to repeat in the link.
+     * @param cursorOf Extracts the cursor parameters of a row.
+     * @return ResponseEntity with the page.
+     */
+    static <T> ResponseEntity<List<T>> searchPage(List<T> items, int pageSize, Map<String, Object> search,
+                                                  Function<T, Map<String, Object>> cursorOf) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!items.isEmpty() && items.size() >= pageSize) {
+            Map<String, Object> parameters = new TreeMap<>(search); // In name order, so the link of a page never varies.
+            parameters.putAll(cursorOf.apply(items.get(items.size() - 1)));
+            parameters.put("limit", pageSize);
+            UriComponentsBuilder next = ServletUriComponentsBuilder.fromCurrentRequestUri();
+            parameters.keySet().forEach(name -> next.queryParam(name, "{" + name + "}"));
+            response.header(HttpHeaders.LINK, "<" + next.encode().buildAndExpand(parameters).toUriString() + ">; rel=\"next\"");
+        }
+        return response.body(items);
+    }
+
+    /**
+     * Builds a streaming NDJSON response, writing the rows as the source produces them and
+     * flushing them every {@value #FLUSH_EVERY} rows. Every row ends with a newline, so an empty
+     * source gives an empty body.
+     *
+     * @param objectMapper The mapper used to serialize the rows.
+     * @param source       Feeds every row to the given consumer.
+     * @return ResponseEntity with the streaming body.
+     */
+    static <T> ResponseEntity<StreamingResponseBody> ndjson(ObjectMapper objectMapper, Consumer<Consumer<T>> source) {
+        StreamingResponseBody body = outputStream -> {
+            // Jackson flushes after every value by default, which would defeat the batched flushes.
+            try (SequenceWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                    .withRootValueSeparator("\n").writeValues(outputStream)) {
+                int[] written = {0};
+                source.accept(row -> {
+                    try {
+                        writer.write(row);
+                        if (++written[0] % FLUSH_EVERY == 0) {
+                            writer.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                if (written[0] > 0) {
+                    writer.flush(); // The generator buffers the last rows; the final newline must follow them.
+                    outputStream.write('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+}
@@ -0,0 +1,57 @@
+package com.bookingmanagerservice.controller;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Binary payload formats: booking and block payloads are read and written as CBOR
+ * ({@code application/cbor}) or Smile ({@code application/x-jackson-smile}) when the client asks
+ * for them in {@code Accept} or {@code Content-Type}. JSON stays the default.
+ */
+@Configuration // Declares the binary message converters.
+public class PayloadFormats {
+
+    /**
+     * Reads and writes {@code application/cbor}.
+     *
+     * @param builder Boot's mapper builder, carrying the same modules and settings as the JSON mapper.
+     * @return The CBOR converter, replacing Spring's default one.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(binaryMapper(builder, new CBORFactory()));
+    }
+
+    /**
+     * Reads and writes {@code application/x-jackson-smile}.
+     *
+     * @param builder Boot's mapper builder, carrying the same modules and settings as the JSON mapper.
+     * @return The Smile converter, replacing Spring's default one.
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(binaryMapper(builder, new SmileFactory()));
+    }
+
+    /**
+     * Builds the mapper of a binary format. Dates are written as {@code [year, month, day]} arrays
+     * instead of ISO strings, which are smaller and faster to encode; both forms are read back.
+     *
+     * @param builder Mapper builder to start from.
+     * @param factory Factory of the binary format.
+     * @return The mapper.
+     */
+    public static ObjectMapper binaryMapper(Jackson2ObjectMapperBuilder builder, JsonFactory factory) {
+        return builder.factory(factory)
+                .featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+}
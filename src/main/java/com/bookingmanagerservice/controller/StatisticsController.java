@@ -0,0 +1,58 @@
+package com.bookingmanagerservice.controller;
+
+import com.bookingmanagerservice.dto.RecomputeReport;
+import com.bookingmanagerservice.stats.OccupancyStatistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+/**
+ * REST controller for occupancy statistics.
+ * Provides HTTP endpoints reporting booked and blocked nights per month and per year.
+ */
+@RestController
+@RequestMapping("/stats")
+public class StatisticsController {
+
+    private final OccupancyStatistics occupancyStatistics;
+
+    /**
+     * Constructor to inject the OccupancyStatistics dependency.
+     *
+     * @param occupancyStatistics Counters of booked and blocked nights.
+     */
+    @Autowired
+    public StatisticsController(OccupancyStatistics occupancyStatistics) {
+        this.occupancyStatistics = occupancyStatistics;
+    }
+
+    /**
+     * Endpoint to report the occupancy of a year, month by month.
+     * Handles GET request on "/stats/occupancy?year=&propertyId=".
+     *
+     * @param year The year to report, the current year if omitted.
+     * @param propertyId The property to report, all properties if omitted.
+     * @return ResponseEntity with the occupancy report, or a bad request status if the year is invalid.
+     */
+    @GetMapping("/occupancy")
+    public ResponseEntity<?> getOccupancy(@RequestParam(required = false) Integer year,
+                                          @RequestParam(required = false) Long propertyId) {
+        if (year != null && (year < 1 || year > 9999)) {
+            return ResponseEntity.badRequest().body("'year' must be between 1 and 9999.");
+        }
+        return ResponseEntity.ok(occupancyStatistics.occupancy(year != null ? year : LocalDate.now().getYear(), propertyId));
+    }
+
+    /**
+     * Endpoint to rebuild the occupancy counters from the database and report how many differed.
+     * Handles POST request on "/stats/occupancy/recompute".
+     *
+     * @return ResponseEntity with the outcome of the recompute.
+     */
+    @PostMapping("/occupancy/recompute")
+    public ResponseEntity<RecomputeReport> recomputeOccupancy() {
+        return ResponseEntity.ok(occupancyStatistics.recompute());
+    }
+}
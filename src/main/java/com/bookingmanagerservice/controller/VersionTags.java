@@ -0,0 +1,67 @@
+package com.bookingmanagerservice.controller;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Helpers mapping entity versions to HTTP ETags and conditional requests.
+ * The ETag of a booking is its {@code @Version}, quoted: {@code "3"}.
+ */
+final class VersionTags {
+
+    private static final long NO_VERSION = -1L; // Versions start at 0, so this matches no booking.
+
+    private VersionTags() {
+    }
+
+    /**
+     * Reads the version a client expects from an If-Match header.
+     *
+     * @param ifMatch The header value, e.g. {@code "3"} or {@code W/"3"}, or null.
+     * @return The expected version; null if the header is absent or {@code *} (any version).
+     * Tags that are not versions of this service yield a version no entity has, so the request fails its precondition.
+     */
+    static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        tag = tag.replace("\"", "");
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            return NO_VERSION;
+        }
+    }
+
+    /**
+     * Adds the ETag of a version to a response.
+     *
+     * @param response The response being built.
+     * @param version  The version of the returned entity, or null if unknown.
+     * @return The same response builder.
+     */
+    static ResponseEntity.BodyBuilder tag(ResponseEntity.BodyBuilder response, Long version) {
+        if (version != null) {
+            response.eTag("\"" + version + "\"");
+        }
+        return response;
+    }
+
+    /**
+     * Builds the response of a write that lost to a concurrent one.
+     * A failed If-Match is a 412 Precondition Failed; a race lost without If-Match is a 409 Conflict.
+     *
+     * @param ifMatch The If-Match header of the request, or null.
+     * @param e       The failure reported by the service.
+     * @return ResponseEntity with the status and the reason.
+     */
+    static ResponseEntity<String> lost(String ifMatch, OptimisticLockingFailureException e) {
+        HttpStatus status = ifMatch != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT;
+        return ResponseEntity.status(status).body(e.getMessage());
+    }
+}
@@ -0,0 +1,32 @@
+package com.bookingmanagerservice.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk booking import.
+ *
+ * @param accepted Number of rows saved.
+ * @param rejected Number of rows refused.
+ * @param items    Per-row outcome, in the order the rows were received.
+ */
+public record BatchImportResult(int accepted, int rejected, List<Item> items) {
+
+    /**
+     * Outcome of a single imported row.
+     *
+     * @param index    Zero-based position of the row in the request.
+     * @param accepted Whether the row was saved.
+     * @param id       ID of the saved booking, or null if the row was rejected.
+     * @param reason   Why the row was rejected, or null if it was accepted.
+     */
+    public record Item(int index, boolean accepted, Long id, String reason) {
+
+        public static Item accepted(int index, Long id) {
+            return new Item(index, true, id, null);
+        }
+
+        public static Item rejected(int index, String reason) {
+            return new Item(index, false, null, reason);
+        }
+    }
+}
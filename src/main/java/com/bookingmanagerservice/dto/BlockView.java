@@ -0,0 +1,30 @@
+package com.bookingmanagerservice.dto;
+
+import com.bookingmanagerservice.model.Block;
+
+import java.time.LocalDate;
+
+/**
+ * Read-only projection of a block, selected straight into a record by the list queries.
+ * It is never tracked by the persistence context and serializes to the same JSON as the entity.
+ *
+ * @param id         The ID of the block.
+ * @param version    The version of the block.
+ * @param propertyId The property the block closes.
+ * @param startDate  The first blocked night.
+ * @param endDate    The end of the block (exclusive).
+ * @param reason     The reason for the block.
+ */
+public record BlockView(Long id, Long version, Long propertyId, LocalDate startDate, LocalDate endDate, String reason) {
+
+    /**
+     * Builds the view of a loaded block.
+     *
+     * @param block The block.
+     * @return Its view.
+     */
+    public static BlockView of(Block block) {
+        return new BlockView(block.getId(), block.getVersion(), block.getPropertyId(),
+                block.getStartDate(), block.getEndDate(), block.getReason());
+    }
+}
@@ -0,0 +1,31 @@
+package com.bookingmanagerservice.dto;
+
+import com.bookingmanagerservice.model.Booking;
+
+import java.time.LocalDate;
+
+/**
+ * Read-only projection of a booking, selected straight into a record by the list and search
+ * queries. Unlike a {@link Booking} entity, it is never tracked by the persistence context, so
+ * it has no dirty-checking snapshot. It serializes to the same JSON as the entity.
+ *
+ * @param id           The ID of the booking.
+ * @param version      The version of the booking, as in its ETag.
+ * @param propertyId   The property the booking is for.
+ * @param startDate    The first night of the stay.
+ * @param endDate      The check-out date (exclusive).
+ * @param guestDetails Details about the guest.
+ */
+public record BookingView(Long id, Long version, Long propertyId, LocalDate startDate, LocalDate endDate, String guestDetails) {
+
+    /**
+     * Builds the view of a loaded booking.
+     *
+     * @param booking The booking.
+     * @return Its view.
+     */
+    public static BookingView of(Booking booking) {
+        return new BookingView(booking.getId(), booking.getVersion(), booking.getPropertyId(),
+                booking.getStartDate(), booking.getEndDate(), booking.getGuestDetails());
+    }
+}
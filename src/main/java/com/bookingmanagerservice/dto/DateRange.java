@@ -0,0 +1,13 @@
+package com.bookingmanagerservice.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Projection of the dates of a booking or block, read without hydrating the entity.
+ * Like the entities, the range is half-open: the end date is not occupied.
+ *
+ * @param startDate The first occupied night.
+ * @param endDate   The end of the range (exclusive).
+ */
+public record DateRange(LocalDate startDate, LocalDate endDate) {
+}
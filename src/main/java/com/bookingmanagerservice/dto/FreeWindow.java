@@ -0,0 +1,13 @@
+package com.bookingmanagerservice.dto;
+
+import java.time.LocalDate;
+
+/**
+ * A gap in the calendar with no booking and no block.
+ *
+ * @param startDate The first free night (earliest check-in).
+ * @param endDate   The end of the gap (latest check-out).
+ * @param nights    The number of free nights in the gap.
+ */
+public record FreeWindow(LocalDate startDate, LocalDate endDate, long nights) {
+}
@@ -0,0 +1,28 @@
+package com.bookingmanagerservice.dto;
+
+/**
+ * Occupancy of a month or a year. A night is booked if a booking holds it, blocked if only blocks
+ * hold it, and available unless blocked; the rate is the share of available nights that are booked.
+ *
+ * @param period          The month ({@code 2031-03}) or the year ({@code 2031}).
+ * @param bookedNights    Nights held by a booking.
+ * @param blockedNights   Nights held only by blocks.
+ * @param availableNights Nights of the period at every counted property, minus the blocked ones.
+ * @param occupancyRate   {@code bookedNights / availableNights}, or 0 if nothing is available.
+ */
+public record OccupancyFigures(String period, long bookedNights, long blockedNights, long availableNights, double occupancyRate) {
+
+    /**
+     * Builds the figures of a period, deriving the rate.
+     *
+     * @param period          The month or year.
+     * @param bookedNights    Nights held by a booking.
+     * @param blockedNights   Nights held only by blocks.
+     * @param availableNights Nights not blocked.
+     * @return The figures.
+     */
+    public static OccupancyFigures of(String period, long bookedNights, long blockedNights, long availableNights) {
+        return new OccupancyFigures(period, bookedNights, blockedNights, availableNights,
+                availableNights > 0 ? (double) bookedNights / availableNights : 0);
+    }
+}
@@ -0,0 +1,14 @@
+package com.bookingmanagerservice.dto;
+
+import java.util.List;
+
+/**
+ * Occupancy statistics of one year, for one property or all of them.
+ *
+ * @param propertyId The property, or null for all properties.
+ * @param properties The number of properties counted: 1, or every property holding a booking or block.
+ * @param year       The figures of the whole year.
+ * @param months     The figures of each month of the year, in order.
+ */
+public record OccupancyReport(Long propertyId, int properties, OccupancyFigures year, List<OccupancyFigures> months) {
+}
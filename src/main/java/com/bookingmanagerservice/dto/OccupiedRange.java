@@ -0,0 +1,14 @@
+package com.bookingmanagerservice.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Projection of the ID and dates of a booking or block, read without hydrating the entity.
+ * Like the entities, the range is half-open: the end date is not occupied.
+ *
+ * @param id        The ID of the booking or block.
+ * @param startDate The first occupied night.
+ * @param endDate   The end of the range (exclusive).
+ */
+public record OccupiedRange(Long id, LocalDate startDate, LocalDate endDate) {
+}
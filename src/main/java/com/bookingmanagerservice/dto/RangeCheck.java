@@ -0,0 +1,13 @@
+package com.bookingmanagerservice.dto;
+
+import java.time.LocalDate;
+
+/**
+ * A candidate stay whose availability is asked in a batch check.
+ *
+ * @param propertyId The property of the stay, the default property if null.
+ * @param startDate  The first night of the stay.
+ * @param endDate    The check-out date (exclusive).
+ */
+public record RangeCheck(Long propertyId, LocalDate startDate, LocalDate endDate) {
+}
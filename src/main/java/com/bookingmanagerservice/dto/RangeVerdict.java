@@ -0,0 +1,18 @@
+package com.bookingmanagerservice.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Answer to one candidate stay of a batch availability check.
+ *
+ * @param propertyId The property of the stay.
+ * @param startDate  The first night of the stay.
+ * @param endDate    The check-out date (exclusive).
+ * @param available  true if no booking or block holds any night of the stay.
+ * @param bookingIds The IDs of the bookings holding a night of the stay, in date order.
+ * @param blockIds   The IDs of the blocks holding a night of the stay, in date order.
+ */
+public record RangeVerdict(Long propertyId, LocalDate startDate, LocalDate endDate, boolean available,
+                           List<Long> bookingIds, List<Long> blockIds) {
+}
@@ -0,0 +1,12 @@
+package com.bookingmanagerservice.dto;
+
+/**
+ * Outcome of a full recompute of the occupancy statistics from the database.
+ *
+ * @param stays         The bookings and blocks read.
+ * @param months        The (property, month) counters rebuilt.
+ * @param mismatches    The counters whose incrementally maintained values differed from the recomputed ones.
+ * @param elapsedMillis The duration of the recompute.
+ */
+public record RecomputeReport(long stays, int months, int mismatches, long elapsedMillis) {
+}
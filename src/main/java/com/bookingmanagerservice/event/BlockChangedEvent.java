@@ -0,0 +1,13 @@
+package com.bookingmanagerservice.event;
+
+import com.bookingmanagerservice.model.Block;
+
+/**
+ * Published after a block has been saved or removed, carrying the block as written.
+ * Listeners run synchronously and must copy what they need: the entity may change afterwards.
+ *
+ * @param block   The block, with its ID and version after the write.
+ * @param removed true if the block was deleted, false if it was saved.
+ */
+public record BlockChangedEvent(Block block, boolean removed) {
+}
@@ -0,0 +1,13 @@
+package com.bookingmanagerservice.event;
+
+import com.bookingmanagerservice.model.Booking;
+
+/**
+ * Published after a booking has been saved or removed, carrying the booking as written.
+ * Listeners run synchronously and must copy what they need: the entity may change afterwards.
+ *
+ * @param booking The booking, with its ID and version after the write.
+ * @param removed true if the booking was cancelled or deleted, false if it was saved.
+ */
+public record BookingChangedEvent(Booking booking, boolean removed) {
+}
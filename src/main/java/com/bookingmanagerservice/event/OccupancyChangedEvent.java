@@ -0,0 +1,48 @@
+package com.bookingmanagerservice.event;
+
+import com.bookingmanagerservice.model.Block;
+import com.bookingmanagerservice.model.Booking;
+
+import java.time.LocalDate;
+
+/**
+ * Published after a write has changed which nights of a property are occupied.
+ * Listeners use it to drop whatever they derived from those nights, e.g. cached availability.
+ * Like the entities, the range is half-open: the end date is not affected.
+ *
+ * @param propertyId The property whose nights changed, or null if any property may have changed.
+ * @param startDate  The first night that may have changed, or null if the range is unknown.
+ * @param endDate    The end of the changed range (exclusive), or null if the range is unknown.
+ */
+public record OccupancyChangedEvent(Long propertyId, LocalDate startDate, LocalDate endDate) {
+
+    /**
+     * @param booking The booking that was saved, moved or removed.
+     * @return An event covering the nights of the booking.
+     */
+    public static OccupancyChangedEvent of(Booking booking) {
+        return new OccupancyChangedEvent(booking.getPropertyId(), booking.getStartDate(), booking.getEndDate());
+    }
+
+    /**
+     * @param block The block that was saved or removed.
+     * @return An event covering the nights of the block.
+     */
+    public static OccupancyChangedEvent of(Block block) {
+        return new OccupancyChangedEvent(block.getPropertyId(), block.getStartDate(), block.getEndDate());
+    }
+
+    /**
+     * @return An event for a change whose nights are unknown, invalidating every property.
+     */
+    public static OccupancyChangedEvent everywhere() {
+        return new OccupancyChangedEvent(null, null, null);
+    }
+
+    /**
+     * @return true if the changed nights are unknown, so any property may have changed.
+     */
+    public boolean isEverywhere() {
+        return propertyId == null || startDate == null || endDate == null;
+    }
+}
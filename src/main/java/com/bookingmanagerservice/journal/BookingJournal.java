@@ -0,0 +1,221 @@
+package com.bookingmanagerservice.journal;
+
+import com.bookingmanagerservice.event.BlockChangedEvent;
+import com.bookingmanagerservice.event.BookingChangedEvent;
+import com.bookingmanagerservice.event.OccupancyChangedEvent;
+import com.bookingmanagerservice.model.Block;
+import com.bookingmanagerservice.model.Booking;
+import com.bookingmanagerservice.service.BlockService;
+import com.bookingmanagerservice.service.BookingService;
+import com.bookingmanagerservice.stats.OccupancyStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Optional durable storage for the in-memory database, enabled with {@code booking.journal.enabled=true}.
+ * Every booking and block write is appended to a memory-mapped journal once it is saved, and a
+ * compact snapshot replaces the journal every {@code booking.journal.snapshot-every} records.
+ * On startup, before the web server accepts requests, the latest snapshot and the journal tail
+ * are replayed and the rows are inserted with batched JDBC, bypassing JPA, after which the
+ * occupancy calendars and statistics are rebuilt.
+ * The restore expects empty tables, i.e. the default in-memory H2 database.
+ */
+@Component // Registers the journal when enabled.
+@ConditionalOnProperty(name = "booking.journal.enabled", havingValue = "true")
+@Lazy(false) // Restores before the first request, even under spring.main.lazy-initialization.
+public class BookingJournal implements SmartInitializingSingleton, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingJournal.class);
+
+    private final JdbcTemplate jdbcTemplate; // Restores the rows without going through JPA.
+    private final BookingService bookingService; // Rebuilds its calendar after a restore.
+    private final BlockService blockService; // Rebuilds its calendar after a restore.
+    private final OccupancyStatistics statistics; // Recomputed after a restore.
+    private final ApplicationEventPublisher eventPublisher; // Announces the restored rows to caches.
+    private final Path directory; // Directory of the snapshot and journal files.
+    private final DataSize regionSize; // Size of the mapped regions of the journal.
+    private final boolean forceOnWrite; // Forces every append to the storage device.
+    private final long snapshotEvery; // Records appended between two snapshots.
+    private final ExecutorService snapshotter = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "journal-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    }); // Writes snapshots off the request threads.
+    private final AtomicBoolean snapshotting = new AtomicBoolean(); // Set while a snapshot is pending.
+    private JournalStore store; // Opened once every singleton, including the schema, is ready.
+
+    /**
+     * Constructor for dependency injection of the JDBC template, the services and the journal settings.
+     *
+     * @param jdbcTemplate   JDBC access used to restore the rows.
+     * @param bookingService Service whose occupancy calendar is rebuilt after a restore.
+     * @param blockService   Service whose occupancy calendar is rebuilt after a restore.
+     * @param statistics     Occupancy statistics recomputed after a restore.
+     * @param eventPublisher Publisher announcing the restored rows.
+     * @param directory      Directory of the snapshot and journal files.
+     * @param regionSize     Size of the mapped regions of the journal.
+     * @param forceOnWrite   true to force every append to disk, surviving machine crashes at the cost of a sync per write.
+     * @param snapshotEvery  Records appended between two snapshots.
+     */
+    @Autowired
+    public BookingJournal(JdbcTemplate jdbcTemplate, BookingService bookingService, BlockService blockService,
+                          OccupancyStatistics statistics, ApplicationEventPublisher eventPublisher,
+                          @Value("${booking.journal.directory:data/journal}") Path directory,
+                          @Value("${booking.journal.region-size:64MB}") DataSize regionSize,
+                          @Value("${booking.journal.force-on-write:false}") boolean forceOnWrite,
+                          @Value("${booking.journal.snapshot-every:100000}") long snapshotEvery) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.bookingService = bookingService;
+        this.blockService = blockService;
+        this.statistics = statistics;
+        this.eventPublisher = eventPublisher;
+        this.directory = directory;
+        this.regionSize = regionSize;
+        this.forceOnWrite = forceOnWrite;
+        this.snapshotEvery = snapshotEvery;
+    }
+
+    /**
+     * Opens the journal and restores its rows, once the schema exists and before requests are served.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            store = JournalStore.open(directory, Math.toIntExact(regionSize.toBytes()), forceOnWrite);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open the journal in " + directory, e);
+        }
+        restore(store.bookings(), store.blocks());
+    }
+
+    /**
+     * Appends a booking write to the journal.
+     *
+     * @param event The write, published by the booking service after saving it.
+     */
+    @EventListener
+    public void onBookingChanged(BookingChangedEvent event) {
+        append(JournalRecord.of(event.booking(), event.removed()));
+    }
+
+    /**
+     * Appends a block write to the journal.
+     *
+     * @param event The write, published by the block service after saving it.
+     */
+    @EventListener
+    public void onBlockChanged(BlockChangedEvent event) {
+        append(JournalRecord.of(event.block(), event.removed()));
+    }
+
+    /**
+     * Waits for a pending snapshot, then takes a last one so the next startup has no tail to replay.
+     */
+    @Override
+    public void destroy() throws Exception {
+        snapshotter.shutdown();
+        snapshotter.awaitTermination(1, TimeUnit.MINUTES);
+        if (store != null) {
+            if (store.appendedSinceSnapshot() > 0) {
+                store.snapshot();
+            }
+            store.close();
+        }
+    }
+
+    // Helpers
+
+    private void append(JournalRecord record) {
+        try {
+            store.append(record);
+        } catch (IOException e) {
+            // The write is already committed: failing the request would not undo it. The store
+            // still holds it in memory, so a snapshot persists it in place of the journal.
+            log.error("Cannot append to the journal in {}; taking a snapshot instead.", directory, e);
+            snapshot();
+            return;
+        }
+        if (store.appendedSinceSnapshot() >= snapshotEvery) {
+            snapshot();
+        }
+    }
+
+    // Writes a snapshot off the request thread, unless one is already pending.
+    private void snapshot() {
+        if (snapshotting.compareAndSet(false, true)) {
+            snapshotter.execute(() -> {
+                try {
+                    store.snapshot();
+                } catch (IOException e) {
+                    log.error("Cannot write a snapshot in {}.", directory, e);
+                } finally {
+                    snapshotting.set(false);
+                }
+            });
+        }
+    }
+
+    private void restore(List<Booking> bookings, List<Block> blocks) {
+        if (bookings.isEmpty() && blocks.isEmpty()) {
+            return;
+        }
+        Long existing = jdbcTemplate.queryForObject("SELECT (SELECT COUNT(*) FROM booking) + (SELECT COUNT(*) FROM block)", Long.class);
+        if (existing != null && existing > 0) {
+            throw new IllegalStateException("The journal in " + directory + " can only be restored into empty booking and block tables.");
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO booking (id, version, property_id, start_date, end_date, guest_details, guest_key) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                bookings, 10_000, (statement, booking) -> {
+                    statement.setLong(1, booking.getId());
+                    statement.setLong(2, booking.getVersion());
+                    statement.setLong(3, booking.getPropertyId());
+                    statement.setDate(4, Date.valueOf(booking.getStartDate()));
+                    statement.setDate(5, Date.valueOf(booking.getEndDate()));
+                    statement.setString(6, booking.getGuestDetails());
+                    statement.setString(7, booking.getGuestKey());
+                });
+        jdbcTemplate.batchUpdate("INSERT INTO block (id, version, property_id, start_date, end_date, reason) VALUES (?, ?, ?, ?, ?, ?)",
+                blocks, 10_000, (statement, block) -> {
+                    statement.setLong(1, block.getId());
+                    statement.setLong(2, block.getVersion());
+                    statement.setLong(3, block.getPropertyId());
+                    statement.setDate(4, Date.valueOf(block.getStartDate()));
+                    statement.setDate(5, Date.valueOf(block.getEndDate()));
+                    statement.setString(6, block.getReason());
+                });
+        restartSequence("booking_seq", bookings.stream().mapToLong(Booking::getId).max().orElse(0));
+        restartSequence("block_seq", blocks.stream().mapToLong(Block::getId).max().orElse(0));
+
+        bookingService.rebuildOccupancyCalendar();
+        blockService.rebuildOccupancyCalendar();
+        statistics.recompute();
+        eventPublisher.publishEvent(OccupancyChangedEvent.everywhere());
+    }
+
+    /**
+     * Moves a sequence past the restored IDs, by at least one allocation pool of 50.
+     */
+    private void restartSequence(String sequence, long maxId) {
+        jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (maxId + 51));
+    }
+}
@@ -0,0 +1,137 @@
+package com.bookingmanagerservice.journal;
+
+import com.bookingmanagerservice.model.Block;
+import com.bookingmanagerservice.model.Booking;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * One entry of the journal: the state of a booking or block after a write.
+ * Removals carry the removed row too, so replay can order writes by version alone.
+ * Encoded as a fixed 45-byte body followed by the UTF-8 guest details or block reason.
+ *
+ * @param kind       What was written.
+ * @param id         The ID of the booking or block.
+ * @param version    Its version after the write.
+ * @param propertyId Its property.
+ * @param startDay   Its start date, in epoch days.
+ * @param endDay     Its end date (exclusive), in epoch days.
+ * @param text       The guest details of a booking or the reason of a block.
+ */
+public record JournalRecord(Kind kind, long id, long version, long propertyId, long startDay, long endDay, String text) {
+
+    private static final int FIXED_SIZE = 1 + 5 * Long.BYTES + Integer.BYTES; // Kind, five longs, text length.
+
+    /**
+     * What a record describes.
+     */
+    public enum Kind {
+        BOOKING_PUT, BOOKING_REMOVE, BLOCK_PUT, BLOCK_REMOVE;
+
+        /**
+         * @return true for bookings, false for blocks.
+         */
+        public boolean isBooking() {
+            return this == BOOKING_PUT || this == BOOKING_REMOVE;
+        }
+
+        /**
+         * @return true if the row was removed, false if it was saved.
+         */
+        public boolean isRemove() {
+            return this == BOOKING_REMOVE || this == BLOCK_REMOVE;
+        }
+    }
+
+    /**
+     * @param booking The booking as written.
+     * @param removed true if the booking was removed.
+     * @return The record of the write.
+     */
+    public static JournalRecord of(Booking booking, boolean removed) {
+        return new JournalRecord(removed ? Kind.BOOKING_REMOVE : Kind.BOOKING_PUT, booking.getId(), versionOf(booking.getVersion()),
+                booking.getPropertyId(), booking.getStartDate().toEpochDay(), booking.getEndDate().toEpochDay(), booking.getGuestDetails());
+    }
+
+    /**
+     * @param block   The block as written.
+     * @param removed true if the block was removed.
+     * @return The record of the write.
+     */
+    public static JournalRecord of(Block block, boolean removed) {
+        return new JournalRecord(removed ? Kind.BLOCK_REMOVE : Kind.BLOCK_PUT, block.getId(), versionOf(block.getVersion()),
+                block.getPropertyId(), block.getStartDate().toEpochDay(), block.getEndDate().toEpochDay(), block.getReason());
+    }
+
+    /**
+     * @return The booking described by the record.
+     */
+    public Booking toBooking() {
+        Booking booking = new Booking(LocalDate.ofEpochDay(startDay), LocalDate.ofEpochDay(endDay), text);
+        booking.setId(id);
+        booking.setVersion(version);
+        booking.setPropertyId(propertyId);
+        return booking;
+    }
+
+    /**
+     * @return The block described by the record.
+     */
+    public Block toBlock() {
+        Block block = new Block(LocalDate.ofEpochDay(startDay), LocalDate.ofEpochDay(endDay), text);
+        block.setId(id);
+        block.setVersion(version);
+        block.setPropertyId(propertyId);
+        return block;
+    }
+
+    /**
+     * Writes the body of the record at the position of a buffer.
+     *
+     * @param buffer The buffer to write to, with enough space for the record.
+     * @return The number of bytes written.
+     */
+    int encode(ByteBuffer buffer) {
+        byte[] bytes = text == null ? new byte[0] : text.getBytes(StandardCharsets.UTF_8);
+        buffer.put((byte) kind.ordinal())
+                .putLong(id)
+                .putLong(version)
+                .putLong(propertyId)
+                .putLong(startDay)
+                .putLong(endDay)
+                .putInt(bytes.length)
+                .put(bytes);
+        return FIXED_SIZE + bytes.length;
+    }
+
+    /**
+     * Reads a record body written by {@link #encode(ByteBuffer)}.
+     *
+     * @param buffer The buffer, positioned at the start of the body.
+     * @return The record.
+     */
+    static JournalRecord decode(ByteBuffer buffer) {
+        Kind kind = Kind.values()[buffer.get()];
+        long id = buffer.getLong();
+        long version = buffer.getLong();
+        long propertyId = buffer.getLong();
+        long startDay = buffer.getLong();
+        long endDay = buffer.getLong();
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new JournalRecord(kind, id, version, propertyId, startDay, endDay, new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return The largest body size of a record whose text has the given length in characters.
+     */
+    static int maxSize(int textLength) {
+        return FIXED_SIZE + 3 * textLength; // UTF-8 needs at most three bytes per UTF-16 char.
+    }
+
+    private static long versionOf(Long version) {
+        return version == null ? 0 : version;
+    }
+}
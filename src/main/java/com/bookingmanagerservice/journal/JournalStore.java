@@ -0,0 +1,313 @@
+package com.bookingmanagerservice.journal;
+
+import com.bookingmanagerservice.model.Block;
+import com.bookingmanagerservice.model.Booking;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Durable store of bookings and blocks: a compact snapshot plus an append-only journal of the
+ * writes made since, kept in a directory and mirrored by an in-memory copy of the latest rows.
+ * Files come in generations: {@code snapshot-N.bin} holds every live row at the moment
+ * {@code journal-N.log} was started. Opening the store loads the newest snapshot and replays
+ * the journals from its generation on; taking a snapshot starts the next generation and
+ * deletes the older files once the new snapshot is safely on disk.
+ * Replay keeps, for every ID, the record with the highest version, a removal winning a tie, so
+ * the outcome does not depend on the order in which concurrent writers appended.
+ * Appends are thread-safe; at most one snapshot is written at a time.
+ */
+public final class JournalStore implements Closeable {
+
+    private static final int SNAPSHOT_MAGIC = 0x42534E50; // "BSNP"
+
+    private final Path directory;
+    private final int regionSize; // Mapped region size of the journal segments.
+    private final boolean forceOnWrite; // Forces every append to the storage device.
+    private final Map<Long, JournalRecord> bookings = new HashMap<>(); // Latest record of each booking, removals included.
+    private final Map<Long, JournalRecord> blocks = new HashMap<>(); // Latest record of each block, removals included.
+    private final ReentrantLock lock = new ReentrantLock(); // Guards the maps, the journal and the generation.
+    private final Object snapshotLock = new Object(); // Keeps snapshots from overlapping.
+    private MappedJournal journal; // Segment of the current generation.
+    private long generation; // Generation of the current journal segment.
+    private long appendedSinceSnapshot; // Records in the current segment.
+
+    private JournalStore(Path directory, int regionSize, boolean forceOnWrite) {
+        this.directory = directory;
+        this.regionSize = regionSize;
+        this.forceOnWrite = forceOnWrite;
+    }
+
+    /**
+     * Opens a store, loading its latest snapshot and replaying the journal written since.
+     *
+     * @param directory    The directory of the store, created if missing.
+     * @param regionSize   The size of the regions the journal is mapped in, in bytes.
+     * @param forceOnWrite true to force every append to the storage device, surviving machine
+     *                     crashes at the cost of one sync per write.
+     * @return The store, holding the rows as of the last append.
+     * @throws IOException If the files cannot be read.
+     */
+    public static JournalStore open(Path directory, int regionSize, boolean forceOnWrite) throws IOException {
+        Files.createDirectories(directory);
+        JournalStore store = new JournalStore(directory, regionSize, forceOnWrite);
+        store.recover();
+        return store;
+    }
+
+    /**
+     * Appends a write to the journal.
+     * The in-memory copy takes the write even if the journal cannot, so the next snapshot still
+     * persists it.
+     *
+     * @param record The state of the row after the write.
+     * @throws IOException If the journal cannot be extended.
+     */
+    public void append(JournalRecord record) throws IOException {
+        lock.lock();
+        try {
+            apply(record);
+            journal.append(record);
+            appendedSinceSnapshot++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes a snapshot of the live rows and drops the journal it replaces.
+     * Appends are only held up while the next segment is opened and the rows are copied.
+     *
+     * @throws IOException If the snapshot cannot be written.
+     */
+    public void snapshot() throws IOException {
+        synchronized (snapshotLock) {
+            long snapshotGeneration;
+            List<JournalRecord> live;
+            lock.lock();
+            try {
+                snapshotGeneration = generation + 1;
+                MappedJournal next = MappedJournal.open(journalFile(snapshotGeneration), regionSize, forceOnWrite, record -> { });
+                journal.close();
+                journal = next;
+                generation = snapshotGeneration;
+                appendedSinceSnapshot = 0;
+                live = new ArrayList<>(bookings.size() + blocks.size());
+                collectLive(bookings, live);
+                collectLive(blocks, live);
+            } finally {
+                lock.unlock();
+            }
+            writeSnapshot(snapshotGeneration, live);
+            deleteOlderThan(snapshotGeneration);
+        }
+    }
+
+    /**
+     * @return The live bookings, as of the last append.
+     */
+    public List<Booking> bookings() {
+        lock.lock();
+        try {
+            return bookings.values().stream().filter(record -> !record.kind().isRemove()).map(JournalRecord::toBooking).toList();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The live blocks, as of the last append.
+     */
+    public List<Block> blocks() {
+        lock.lock();
+        try {
+            return blocks.values().stream().filter(record -> !record.kind().isRemove()).map(JournalRecord::toBlock).toList();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The number of records appended, or replayed, since the last snapshot.
+     */
+    public long appendedSinceSnapshot() {
+        lock.lock();
+        try {
+            return appendedSinceSnapshot;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            journal.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Helpers
+
+    private void recover() throws IOException {
+        TreeSet<Long> snapshots = generations("snapshot-", ".bin");
+        long first = snapshots.isEmpty() ? 0 : snapshots.last();
+        if (!snapshots.isEmpty()) {
+            readSnapshot(snapshotFile(first));
+        }
+        TreeSet<Long> journals = new TreeSet<>(generations("journal-", ".log").tailSet(first));
+        generation = journals.isEmpty() ? first : journals.last();
+        for (long older : journals.headSet(generation)) {
+            MappedJournal.replay(journalFile(older), this::replay);
+        }
+        journal = MappedJournal.open(journalFile(generation), regionSize, forceOnWrite, this::replay);
+        deleteOlderThan(first);
+    }
+
+    private void replay(JournalRecord record) {
+        apply(record);
+        appendedSinceSnapshot++;
+    }
+
+    private void apply(JournalRecord record) {
+        Map<Long, JournalRecord> rows = record.kind().isBooking() ? bookings : blocks;
+        rows.merge(record.id(), record, (current, next) -> supersedes(next, current) ? next : current);
+    }
+
+    private static boolean supersedes(JournalRecord next, JournalRecord current) {
+        if (next.version() != current.version()) {
+            return next.version() > current.version();
+        }
+        return next.kind().isRemove() || !current.kind().isRemove(); // A removal is final for its version.
+    }
+
+    private static void collectLive(Map<Long, JournalRecord> rows, List<JournalRecord> live) {
+        for (JournalRecord record : rows.values()) {
+            if (!record.kind().isRemove()) {
+                live.add(record);
+            }
+        }
+    }
+
+    /**
+     * Writes a snapshot to a temporary file, forces it and renames it into place, so a snapshot
+     * file either is complete or does not exist.
+     */
+    private void writeSnapshot(long snapshotGeneration, List<JournalRecord> live) throws IOException {
+        Path temporary = directory.resolve("snapshot-" + snapshotGeneration + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            OutputStream stream = Channels.newOutputStream(channel);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 20));
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(live.size());
+            ByteBuffer scratch = ByteBuffer.allocate(4096);
+            CRC32C crc = new CRC32C();
+            for (JournalRecord record : live) {
+                int maxLength = JournalRecord.maxSize(record.text() == null ? 0 : record.text().length());
+                if (maxLength > scratch.capacity()) {
+                    scratch = ByteBuffer.allocate(maxLength);
+                }
+                scratch.clear();
+                int length = record.encode(scratch);
+                crc.reset();
+                crc.update(scratch.array(), 0, length);
+                out.writeInt(length);
+                out.writeInt((int) crc.getValue());
+                out.write(scratch.array(), 0, length);
+            }
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temporary, snapshotFile(snapshotGeneration), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void readSnapshot(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 20))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Not a snapshot file: " + file);
+            }
+            long count = in.readLong();
+            CRC32C crc = new CRC32C();
+            for (long i = 0; i < count; i++) {
+                byte[] body = new byte[in.readInt()];
+                int checksum = in.readInt();
+                in.readFully(body);
+                crc.reset();
+                crc.update(body);
+                if ((int) crc.getValue() != checksum) {
+                    throw new IOException("Corrupt record " + i + " in snapshot " + file);
+                }
+                apply(JournalRecord.decode(ByteBuffer.wrap(body)));
+            }
+        }
+    }
+
+    private void deleteOlderThan(long keptGeneration) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                Long fileGeneration = generationOf(name, "snapshot-", ".bin");
+                if (fileGeneration == null) {
+                    fileGeneration = generationOf(name, "journal-", ".log");
+                }
+                if ((fileGeneration != null && fileGeneration < keptGeneration) || name.endsWith(".tmp")) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private TreeSet<Long> generations(String prefix, String suffix) throws IOException {
+        TreeSet<Long> found = new TreeSet<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                Long fileGeneration = generationOf(file.getFileName().toString(), prefix, suffix);
+                if (fileGeneration != null) {
+                    found.add(fileGeneration);
+                }
+            });
+        }
+        return found;
+    }
+
+    private static Long generationOf(String name, String prefix, String suffix) {
+        if (!name.startsWith(prefix) || !name.endsWith(suffix)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private Path snapshotFile(long fileGeneration) {
+        return directory.resolve("snapshot-" + fileGeneration + ".bin");
+    }
+
+    private Path journalFile(long fileGeneration) {
+        return directory.resolve("journal-" + fileGeneration + ".log");
+    }
+}
@@ -0,0 +1,208 @@
+package com.bookingmanagerservice.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * One append-only journal segment, written through a memory-mapped region of the file.
+ * The file is split into fixed-size regions mapped one at a time; a record never straddles two
+ * regions. Each record is framed as {@code [length][crc32c][body]} and its length is written
+ * last, so a record cut short by a crash is either invisible (length still zero) or fails its
+ * checksum; replay stops there and the next append overwrites it.
+ * The file grows one region at a time, so its size on disk is a multiple of the region size.
+ * Appends land in the page cache, so they survive a crash of the process; they only survive a
+ * crash of the machine once forced, which {@code forceOnWrite} does after every append.
+ * This class is not thread-safe; callers are expected to guard it.
+ */
+final class MappedJournal implements Closeable {
+
+    private static final int MAGIC = 0x424A4E4C; // "BJNL"
+    private static final int FORMAT = 1;
+    private static final int HEADER = 16; // Magic, format, region size, reserved.
+    private static final int FRAME = 2 * Integer.BYTES; // Length and checksum of a record.
+    private static final int SKIP_TO_NEXT_REGION = -1; // Length marking the unused end of a region.
+
+    private final FileChannel channel;
+    private final int regionSize; // Bytes mapped at a time, fixed when the file is created.
+    private final boolean forceOnWrite; // Forces every append to the storage device.
+    private ByteBuffer scratch = ByteBuffer.allocate(4096); // Encodes a record body before it is checksummed and copied.
+    private final CRC32C crc = new CRC32C();
+    private MappedByteBuffer region; // The region being appended to.
+    private long regionStart; // File offset of the region.
+    private int position; // Offset of the next record within the region.
+
+    private MappedJournal(FileChannel channel, int regionSize, boolean forceOnWrite) {
+        this.channel = channel;
+        this.regionSize = regionSize;
+        this.forceOnWrite = forceOnWrite;
+    }
+
+    /**
+     * Opens a segment for appending, creating it if needed, after replaying the records it holds.
+     *
+     * @param file         The segment file.
+     * @param regionSize   The region size of a new file; an existing file keeps its own.
+     * @param forceOnWrite true to force every append to the storage device.
+     * @param replay       Receives every intact record, in append order.
+     * @return The journal, positioned after the last intact record.
+     * @throws IOException If the file cannot be read or mapped.
+     */
+    static MappedJournal open(Path file, int regionSize, boolean forceOnWrite, Consumer<JournalRecord> replay) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() >= HEADER) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER);
+                channel.read(header, 0);
+                header.flip();
+                if (header.getInt() != MAGIC || header.getInt() != FORMAT) {
+                    throw new IOException("Not a journal file: " + file);
+                }
+                regionSize = header.getInt();
+            }
+            MappedJournal journal = new MappedJournal(channel, regionSize, forceOnWrite);
+            journal.recover(replay);
+            return journal;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Replays the records of a segment without opening it for appends.
+     *
+     * @param file   The segment file.
+     * @param replay Receives every intact record, in append order.
+     * @throws IOException If the file cannot be read or mapped.
+     */
+    static void replay(Path file, Consumer<JournalRecord> replay) throws IOException {
+        open(file, 1 << 20, false, replay).close();
+    }
+
+    /**
+     * Appends a record.
+     *
+     * @param record The record to append.
+     * @throws IOException If the next region cannot be mapped.
+     * @throws IllegalArgumentException If the record is larger than a region.
+     */
+    void append(JournalRecord record) throws IOException {
+        int maxLength = JournalRecord.maxSize(record.text() == null ? 0 : record.text().length());
+        if (maxLength > regionSize - HEADER - FRAME) {
+            throw new IllegalArgumentException("Record of " + maxLength + " bytes does not fit a journal region of " + regionSize + " bytes.");
+        }
+        if (maxLength > scratch.capacity()) {
+            scratch = ByteBuffer.allocate(maxLength);
+        }
+        scratch.clear();
+        int length = record.encode(scratch);
+        if (position + FRAME + length > regionSize) {
+            if (regionSize - position >= Integer.BYTES) {
+                region.putInt(position, SKIP_TO_NEXT_REGION);
+            }
+            map(regionStart + regionSize);
+            position = 0;
+        }
+        crc.reset();
+        crc.update(scratch.array(), 0, length);
+        region.putInt(position + Integer.BYTES, (int) crc.getValue());
+        region.put(position + FRAME, scratch, 0, length);
+        region.putInt(position, length); // Written last: the record exists once its length does.
+        position += FRAME + length;
+        if (forceOnWrite) {
+            region.force();
+        }
+    }
+
+    /**
+     * Forces the appended records to the storage device.
+     */
+    void force() {
+        region.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        region.force();
+        region = null; // The mapping is released once the buffer is collected.
+        channel.close();
+    }
+
+    // Helpers
+
+    /**
+     * Walks the file region by region, replaying records until the first missing or broken one.
+     */
+    private void recover(Consumer<JournalRecord> replay) throws IOException {
+        boolean created = channel.size() < HEADER;
+        map(0);
+        if (created) {
+            region.putInt(0, MAGIC).putInt(4, FORMAT).putInt(8, regionSize);
+        }
+        position = HEADER;
+        int torn = 0; // Bytes of a record cut short, to be wiped.
+        while (true) {
+            if (regionSize - position < FRAME) {
+                if (!nextRegion()) {
+                    return;
+                }
+                continue;
+            }
+            int length = region.getInt(position);
+            if (length == SKIP_TO_NEXT_REGION) {
+                if (!nextRegion()) {
+                    return;
+                }
+                continue;
+            }
+            if (length == 0) {
+                return; // End of the journal.
+            }
+            if (length < 0 || position + FRAME + length > regionSize) {
+                torn = FRAME; // A length that cannot be right.
+                break;
+            }
+            ByteBuffer body = region.slice(position + FRAME, length);
+            crc.reset();
+            crc.update(body.duplicate());
+            if ((int) crc.getValue() != region.getInt(position + Integer.BYTES)) {
+                torn = FRAME + length; // Torn write: its length reached the disk before its body.
+                break;
+            }
+            replay.accept(JournalRecord.decode(body));
+            position += FRAME + length;
+        }
+        // Appends are sequential, so only the broken record stands between the journal and zeroed space.
+        // Wipe it so that later appends, which may be shorter, never leave parts of it readable.
+        for (int i = position; i < position + torn; i++) {
+            region.put(i, (byte) 0);
+        }
+    }
+
+    /**
+     * Moves to the next region if the file has one.
+     *
+     * @return false if the current region is the last one, leaving the journal at its end.
+     */
+    private boolean nextRegion() throws IOException {
+        if (regionStart + regionSize >= channel.size()) {
+            position = regionSize; // The next append maps a fresh region.
+            return false;
+        }
+        map(regionStart + regionSize);
+        position = 0;
+        return true;
+    }
+
+    private void map(long start) throws IOException {
+        region = channel.map(FileChannel.MapMode.READ_WRITE, start, regionSize);
+        regionStart = start;
+    }
+}
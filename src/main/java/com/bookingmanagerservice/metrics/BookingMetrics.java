@@ -0,0 +1,69 @@
+package com.bookingmanagerservice.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Business metrics of the booking write and read paths.
+ * Operation latencies are recorded separately by the {@code @Timed} services; this class covers
+ * what happens inside an operation: conflict checks, their outcome, and rows scanned by searches.
+ */
+@Component // Registers the metrics as a singleton shared by the service layer.
+public class BookingMetrics {
+
+    private final MeterRegistry registry; // Registry the meters are published to.
+    private final Timer conflictCheck; // Latency of a single conflict check.
+
+    /**
+     * Constructor for dependency injection of the meter registry.
+     *
+     * @param registry Registry the meters are published to.
+     */
+    @Autowired
+    public BookingMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.conflictCheck = Timer.builder("booking.conflict.check")
+                .description("Latency of booking conflict checks against the occupancy calendar")
+                .register(registry);
+    }
+
+    /**
+     * Times a conflict check and counts its outcome.
+     *
+     * @param operation The operation performing the check, e.g. "createBooking".
+     * @param check     The check, returning true if the dates are available.
+     * @return The result of the check.
+     */
+    public boolean checkConflicts(String operation, BooleanSupplier check) {
+        long start = System.nanoTime();
+        boolean available = check.getAsBoolean();
+        conflictCheck.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        Counter.builder(available ? "booking.accepted" : "booking.conflicts")
+                .description(available ? "Writes that passed the conflict check" : "Writes rejected by the conflict check")
+                .tag("operation", operation)
+                .register(registry)
+                .increment();
+        return available;
+    }
+
+    /**
+     * Records how many rows a query read to answer an availability search.
+     *
+     * @param query The search, e.g. "freeWindows".
+     * @param rows  The number of rows read.
+     */
+    public void rowsScanned(String query, int rows) {
+        DistributionSummary.builder("availability.rows.scanned")
+                .description("Rows read from the database by availability searches")
+                .tag("query", query)
+                .register(registry)
+                .record(rows);
+    }
+}
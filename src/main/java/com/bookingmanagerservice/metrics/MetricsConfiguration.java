@@ -0,0 +1,57 @@
+package com.bookingmanagerservice.metrics;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Metrics configuration: enables {@code @Timed} on the services and registers the per-request
+ * repository call counter.
+ */
+@Configuration // Declares beans and MVC configuration for the metrics.
+public class MetricsConfiguration {
+
+    /**
+     * Makes {@code @Timed} annotations record Micrometer timers.
+     *
+     * @param registry Registry the timers are published to.
+     * @return The aspect handling {@code @Timed}.
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    /**
+     * Registers the per-request repository call counter as an MVC interceptor.
+     *
+     * @param repositoryCallMetrics The counter.
+     * @return The MVC configuration.
+     */
+    @Bean
+    public WebMvcConfigurer repositoryCallInterceptor(RepositoryCallMetrics repositoryCallMetrics) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new HandlerInterceptor() {
+                    @Override
+                    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                        repositoryCallMetrics.startRequest();
+                        return true;
+                    }
+
+                    @Override
+                    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+                        repositoryCallMetrics.finishRequest(request);
+                    }
+                });
+            }
+        };
+    }
+}
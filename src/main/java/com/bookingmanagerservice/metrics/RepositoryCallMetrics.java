@@ -0,0 +1,106 @@
+package com.bookingmanagerservice.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts repository calls, in total and per HTTP request.
+ * The aspect counts every call made on a Spring Data repository; the request hooks, driven by
+ * an MVC interceptor, reset a per-thread counter when a request starts and record it, tagged
+ * with the URI pattern, when the request completes.
+ */
+@Aspect // Advises the Spring Data repository proxies.
+@Component // Registers the aspect as a singleton.
+public class RepositoryCallMetrics {
+
+    private static final ThreadLocal<int[]> CALLS = new ThreadLocal<>(); // Calls made by the current request, if any.
+
+    private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>(); // Repository interface name per proxy class.
+
+    private final MeterRegistry registry; // Registry the meters are published to.
+
+    /**
+     * Constructor for dependency injection of the meter registry.
+     *
+     * @param registry Registry the meters are published to.
+     */
+    @Autowired
+    public RepositoryCallMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Counts a call on any repository method.
+     *
+     * @param joinPoint The repository call.
+     * @return The result of the call.
+     * @throws Throwable Whatever the repository throws.
+     */
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object count(ProceedingJoinPoint joinPoint) throws Throwable {
+        int[] calls = CALLS.get();
+        if (calls != null) {
+            calls[0]++;
+        }
+        Counter.builder("repository.calls")
+                .description("Calls made on Spring Data repositories")
+                .tag("method", repositoryName(joinPoint.getThis()) + "." + joinPoint.getSignature().getName())
+                .register(registry)
+                .increment();
+        return joinPoint.proceed();
+    }
+
+    /**
+     * Starts counting the repository calls of the request handled by the current thread.
+     */
+    public void startRequest() {
+        CALLS.set(new int[1]);
+    }
+
+    /**
+     * Stops counting and records the repository calls of the request handled by the current thread.
+     *
+     * @param request The completed request.
+     */
+    public void finishRequest(HttpServletRequest request) {
+        int[] calls = CALLS.get();
+        CALLS.remove();
+        if (calls == null) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder("http.server.repository.calls")
+                .description("Repository calls made while handling one HTTP request")
+                .tag("method", request.getMethod())
+                .tag("uri", pattern == null ? "UNKNOWN" : pattern.toString())
+                .register(registry)
+                .record(calls[0]);
+    }
+
+    // Helpers
+
+    // Names the application repository (e.g. BookingRepository) rather than the Spring Data
+    // interface declaring the method (e.g. CrudRepository).
+    private String repositoryName(Object proxy) {
+        return repositoryNames.computeIfAbsent(proxy.getClass(), type -> {
+            for (Class<?> candidate : type.getInterfaces()) {
+                if (Repository.class.isAssignableFrom(candidate)) {
+                    return candidate.getSimpleName();
+                }
+            }
+            return type.getSimpleName();
+        });
+    }
+}
@@ -1,5 +1,6 @@
 package com.bookingmanagerservice.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -9,21 +10,31 @@ import java.time.LocalDate;
  * Class representing the 'Block' entity.
  * This entity is mapped to a table in the database using JPA annotations.
  * It represents a block of dates for a property during which no bookings can occur.
+ * Like bookings, blocks are indexed end date first, so overlap probes skip past blocks.
  */
 @Entity // Specifies that the class is an entity and is mapped to a database table.
+@Table(indexes = @Index(name = "idx_block_property_dates", columnList = "property_id, end_date, start_date")) // Serves property-scoped overlap probes, see the class comment.
 public class Block {
 
     @Id // Marks the id field as the primary key.
-    @GeneratedValue(strategy = GenerationType.IDENTITY) // Configures the way of increment of the specified column(field).
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "block_seq") // Pooled sequence so inserts can be JDBC-batched.
+    @SequenceGenerator(name = "block_seq", sequenceName = "block_seq", allocationSize = 50) // Reserves 50 IDs per sequence call.
     private Long id; // Unique identifier for each block.
 
+    @Version // Optimistic locking: every update bumps the version and fails if it changed meanwhile.
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY) // Clients send the version they read through If-Match, never in the body.
+    private Long version; // Revision of the block, so concurrent edits cannot overwrite each other.
+
+    @Column(nullable = false) // Marks the field as a column in the table with a constraint of not being null.
+    private Long propertyId = Booking.DEFAULT_PROPERTY_ID; // The property (unit) the block closes.
+
     @NotNull(message = "Start date cannot be null") // Ensures the start date is not null.
     @Column(nullable = false) // Marks the field as a column in the table with a constraint of not being null.
     private LocalDate startDate; // The start date of the block.
 
     @NotNull(message = "End date cannot be null") // Ensures the end date is not null.
     @Column(nullable = false) // Marks the field as a column in the table with a constraint of not being null.
-    private LocalDate endDate; // The end date of the block.
+    private LocalDate endDate; // The end date of the block, exclusive like a booking's check-out date.
 
     @NotBlank(message = "The reason for the block cannot be empty") // Ensures the reason is not blank.
     @Column(length = 500) // Marks the field as a column in the table and specifies the column length.
@@ -59,6 +70,22 @@ public class Block {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Long getPropertyId() {
+        return propertyId;
+    }
+
+    public void setPropertyId(Long propertyId) {
+        this.propertyId = propertyId == null ? Booking.DEFAULT_PROPERTY_ID : propertyId;
+    }
+
     public LocalDate getStartDate() {
         return startDate;
     }
@@ -1,34 +1,66 @@
 package com.bookingmanagerservice.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*; // JPA imports for object-relational mapping
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import java.text.Normalizer;
 import java.time.LocalDate;
+import java.util.Locale;
+import java.util.regex.Pattern;
 
 /**
  * Class representing the 'Booking' entity.
  * This entity is mapped to a database table using JPA annotations.
- * It represents a booking, with start and end dates, and guest details.
+ * It represents a booking of one property, with start and end dates, and guest details.
+ * The overlap index leads with the end date: an overlap probe then only walks the property's
+ * bookings ending after the requested check-in, i.e. its upcoming stays, never its history.
+ * The guest details are also stored normalized, in an indexed column serving prefix searches.
  */
 @Entity // Indicates that this class is a JPA entity.
+@Table(indexes = {
+        @Index(name = "idx_booking_property_dates", columnList = "property_id, end_date, start_date"), // Serves property-scoped overlap probes, see the class comment.
+        @Index(name = "idx_booking_guest_key", columnList = "guest_key, id") // Serves guest prefix searches, in keyset order.
+})
 public class Booking {
 
+    /**
+     * Property assigned to bookings and blocks that do not name one, so single-property clients keep working.
+     */
+    public static final long DEFAULT_PROPERTY_ID = 1L;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+"); // Accents left over by canonical decomposition.
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
     @Id // Marks this field as the primary key.
-    @GeneratedValue(strategy = GenerationType.IDENTITY) // Defines the ID generation strategy.
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_seq") // Pooled sequence so inserts can be JDBC-batched.
+    @SequenceGenerator(name = "booking_seq", sequenceName = "booking_seq", allocationSize = 50) // Reserves 50 IDs per sequence call.
     private Long id; // Unique identifier for each booking.
 
+    @Version // Optimistic locking: every update bumps the version and fails if it changed meanwhile.
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY) // Clients send the version they read through If-Match, never in the body.
+    private Long version; // Revision of the booking, exposed to clients as its ETag.
+
+    @Column(nullable = false) // Marks the column as non-null in the database.
+    private Long propertyId = DEFAULT_PROPERTY_ID; // The property (unit) the booking is for.
+
     @NotNull(message = "Start date cannot be null") // Validation: start date must not be null.
     @Column(nullable = false) // Marks the column as non-null in the database.
     private LocalDate startDate; // The start date of the booking.
 
     @NotNull(message = "End date cannot be null") // Validation: end date must not be null.
     @Column(nullable = false) // Marks the column as non-null in the database.
-    private LocalDate endDate; // The end date of the booking.
+    private LocalDate endDate; // The end (check-out) date of the booking, not occupied by it.
 
     @NotBlank(message = "Guest details cannot be empty") // Validation: guest details must not be blank.
     @Column(length = 200) // Sets the maximum size of the column.
     private String guestDetails; // Details about the guest.
 
+    @JsonIgnore // Derived from the guest details, never exchanged with clients.
+    @Column(length = 200) // Same size as the guest details.
+    private String guestKey; // The guest details normalized by guestKey(String), kept in sync by the constructor and setter.
+
     /**
      * Empty constructor for use by JPA.
      */
@@ -46,7 +78,23 @@ public class Booking {
     public Booking(LocalDate startDate, LocalDate endDate, String guestDetails) {
         this.startDate = startDate;
         this.endDate = endDate;
-        this.guestDetails = guestDetails;
+        setGuestDetails(guestDetails);
+    }
+
+    /**
+     * Normalizes guest details for case- and accent-insensitive prefix searches: lower case, no
+     * accents, and single spaces between words, e.g. {@code "  José  Álvarez"} becomes {@code "jose alvarez"}.
+     *
+     * @param guestDetails The guest details, or a search prefix.
+     * @return The normalized form, or null for null.
+     */
+    public static String guestKey(String guestDetails) {
+        if (guestDetails == null) {
+            return null;
+        }
+        String decomposed = Normalizer.normalize(guestDetails.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        String key = SPACES.matcher(MARKS.matcher(decomposed).replaceAll("")).replaceAll(" ").strip();
+        return key.length() > 200 ? key.substring(0, 200) : key;
     }
 
     // Getters and setters
@@ -59,6 +107,22 @@ public class Booking {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Long getPropertyId() {
+        return propertyId;
+    }
+
+    public void setPropertyId(Long propertyId) {
+        this.propertyId = propertyId == null ? DEFAULT_PROPERTY_ID : propertyId;
+    }
+
     public LocalDate getStartDate() {
         return startDate;
     }
@@ -81,6 +145,11 @@ public class Booking {
 
     public void setGuestDetails(String guestDetails) {
         this.guestDetails = guestDetails;
+        this.guestKey = guestKey(guestDetails);
+    }
+
+    public String getGuestKey() {
+        return guestKey;
     }
 
     // Overriding equals and hashCode methods...
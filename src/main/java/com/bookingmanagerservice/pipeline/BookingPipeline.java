@@ -0,0 +1,574 @@
+package com.bookingmanagerservice.pipeline;
+
+import com.bookingmanagerservice.calendar.OccupancyCalendar;
+import com.bookingmanagerservice.event.BlockChangedEvent;
+import com.bookingmanagerservice.event.BookingChangedEvent;
+import com.bookingmanagerservice.event.OccupancyChangedEvent;
+import com.bookingmanagerservice.metrics.BookingMetrics;
+import com.bookingmanagerservice.model.Block;
+import com.bookingmanagerservice.model.Booking;
+import com.bookingmanagerservice.repository.BlockRepository;
+import com.bookingmanagerservice.repository.BookingRepository;
+import com.bookingmanagerservice.service.BookingService;
+import com.bookingmanagerservice.service.DatesUnavailableException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Single-writer write path, enabled with {@code booking.write-mode=sequenced}.
+ * New bookings, updates, reschedules and new blocks, i.e. every write that can take nights, are
+ * published into a bounded {@link RingBuffer} and applied in arrival order by one sequencer thread.
+ * In this mode it is the only thread checking writes against the occupancy calendar, so the checks
+ * take no date locks. Each drained batch is checked command
+ * by command, including against the stays accepted earlier in the same batch, then persisted in a
+ * single transaction; only then is the calendar updated, the change events published and the
+ * callers' futures completed, so a caller never sees a write that is not committed. If the batch
+ * transaction fails, its commands are retried one transaction each, so only the faulty one fails.
+ * Commands missing their dates are refused before they take a slot.
+ * Bulk imports run on the sequencer too, between two batches, so they are serialized with it.
+ * When the buffer is full, callers wait for a free slot.
+ */
+@Component // Registers the pipeline when the sequenced write mode is selected.
+@ConditionalOnProperty(name = "booking.write-mode", havingValue = "sequenced")
+public class BookingPipeline implements DisposableBean {
+
+    private static final String DATES_REQUIRED = "Start and end dates are required.";
+    private static final String DATES_UNAVAILABLE = "Booking dates are unavailable.";
+
+    private final BookingService bookingService; // Answers the conflict checks, wherever the configured check looks.
+    private final BookingRepository bookingRepository; // Persists the accepted bookings and reschedules.
+    private final BlockRepository blockRepository; // Persists the accepted blocks.
+    private final OccupancyCalendar occupancyCalendar; // Updated by the sequencer once a batch is committed.
+    private final BookingMetrics bookingMetrics; // Conflict-check latency and outcome counters.
+    private final ApplicationEventPublisher eventPublisher; // Announces every committed write.
+    private final TransactionTemplate transactionTemplate; // One transaction per batch.
+    private final RingBuffer<Command> commands; // Commands waiting for the sequencer.
+    private final int maxBatch; // Commands checked and persisted together at most.
+    private final DistributionSummary batchSizes; // Commands per persisted batch.
+    private final Thread sequencer; // The only thread applying commands.
+    private volatile boolean running = true; // Cleared on shutdown; the commands already queued are still applied.
+    private volatile boolean sleeping; // Set while the sequencer is parked on an empty buffer.
+
+    /**
+     * Constructor for dependency injection of the services, repositories, calendar, metrics and pipeline settings.
+     *
+     * @param bookingService     Service answering the conflict checks.
+     * @param bookingRepository  Repository persisting bookings.
+     * @param blockRepository    Repository persisting blocks.
+     * @param occupancyCalendar  In-memory calendar owned by the sequencer for the pipelined writes.
+     * @param bookingMetrics     Metrics of the conflict checks.
+     * @param eventPublisher     Publisher of the change events following every write.
+     * @param transactionManager Transaction manager of the batch transactions.
+     * @param registry           Registry the backlog and batch sizes are published to.
+     * @param capacity           Slots of the ring buffer, rounded up to a power of two.
+     * @param maxBatch           Commands checked and persisted together at most.
+     */
+    @Autowired
+    public BookingPipeline(BookingService bookingService, BookingRepository bookingRepository, BlockRepository blockRepository,
+                           OccupancyCalendar occupancyCalendar, BookingMetrics bookingMetrics, ApplicationEventPublisher eventPublisher,
+                           PlatformTransactionManager transactionManager, MeterRegistry registry,
+                           @Value("${booking.pipeline.capacity:1024}") int capacity,
+                           @Value("${booking.pipeline.max-batch:256}") int maxBatch) {
+        this.bookingService = bookingService;
+        this.bookingRepository = bookingRepository;
+        this.blockRepository = blockRepository;
+        this.occupancyCalendar = occupancyCalendar;
+        this.bookingMetrics = bookingMetrics;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.commands = new RingBuffer<>(capacity);
+        this.maxBatch = Math.max(1, maxBatch);
+        this.batchSizes = DistributionSummary.builder("booking.pipeline.batch")
+                .description("Commands persisted together by the booking sequencer")
+                .register(registry);
+        Gauge.builder("booking.pipeline.backlog", commands, RingBuffer::size)
+                .description("Commands waiting for the booking sequencer")
+                .register(registry);
+        this.sequencer = new Thread(this::run, "booking-sequencer");
+        this.sequencer.setDaemon(true);
+    }
+
+    /**
+     * Starts the sequencer thread.
+     */
+    @PostConstruct
+    public void start() {
+        sequencer.start();
+    }
+
+    /**
+     * Creates a booking on the sequencer, if its dates are still available when its turn comes.
+     *
+     * @param booking The booking to be created.
+     * @return A future of the saved booking, of an empty Optional if the dates are not available, or
+     * failed with an {@link IllegalArgumentException} if a date is missing.
+     */
+    public CompletableFuture<Optional<Booking>> createBooking(Booking booking) {
+        if (booking.getStartDate() == null || booking.getEndDate() == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException(DATES_REQUIRED));
+        }
+        booking.setId(null); // New bookings always get a fresh ID, whatever the request carried.
+        CreateBooking command = new CreateBooking(booking, new CompletableFuture<>());
+        submit(command);
+        return command.result();
+    }
+
+    /**
+     * Updates a booking on the sequencer, if its new dates are available when its turn comes.
+     * Without an expected version the booking is read on the calling thread first; either way the
+     * sequencer applies the update with a conditional statement, so a concurrent edit makes it fail
+     * rather than be overwritten.
+     *
+     * @param id              The ID of the booking to update.
+     * @param booking         The updated booking details.
+     * @param expectedVersion The version the client last read (e.g. from If-Match), or null to update the latest one.
+     * @return A future of the updated booking, or of an empty Optional if the booking does not exist;
+     * failed with a {@link DatesUnavailableException} if the new dates are taken, with an
+     * {@link OptimisticLockingFailureException} if the booking is not at the expected version or was
+     * changed concurrently, or with an {@link IllegalArgumentException} if a date is missing.
+     */
+    public CompletableFuture<Optional<Booking>> updateBooking(Long id, Booking booking, Long expectedVersion) {
+        if (booking.getStartDate() == null || booking.getEndDate() == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException(DATES_REQUIRED));
+        }
+        Booking previous = null; // Only read without an expected version.
+        Long version = expectedVersion;
+        if (version == null) {
+            Optional<Booking> current = bookingRepository.findById(id);
+            if (!current.isPresent()) {
+                return CompletableFuture.completedFuture(Optional.empty());
+            }
+            previous = current.get();
+            version = previous.getVersion();
+        }
+        booking.setId(id);
+        UpdateBooking command = new UpdateBooking(booking, previous, version, expectedVersion != null, new CompletableFuture<>());
+        submit(command);
+        return command.result();
+    }
+
+    /**
+     * Reschedules a booking on the sequencer.
+     * The booking is read on the calling thread; the sequencer then checks the new dates and moves
+     * them with a conditional statement, so a concurrent edit makes the reschedule fail rather than
+     * be overwritten.
+     *
+     * @param id              The ID of the booking to be rescheduled.
+     * @param newDates        The new dates.
+     * @param expectedVersion The version the client last read (e.g. from If-Match), or null for the latest one.
+     * @return A future of the rescheduled booking, of an empty Optional if the booking does not exist or
+     * the new dates are not available, failed with an {@link OptimisticLockingFailureException} if
+     * the booking is not at the expected version or was changed concurrently, or failed with an
+     * {@link IllegalArgumentException} if a new date is missing.
+     */
+    public CompletableFuture<Optional<Booking>> rescheduleBooking(Long id, Booking newDates, Long expectedVersion) {
+        if (newDates.getStartDate() == null || newDates.getEndDate() == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException(DATES_REQUIRED));
+        }
+        Optional<Booking> current = bookingRepository.findById(id);
+        if (!current.isPresent()) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        if (expectedVersion != null && !expectedVersion.equals(current.get().getVersion())) {
+            // Stale clients lose before taking a slot.
+            return CompletableFuture.failedFuture(
+                    new OptimisticLockingFailureException("Booking " + id + " is no longer at version " + expectedVersion + "."));
+        }
+        RescheduleBooking command = new RescheduleBooking(current.get(), current.get().getVersion(),
+                newDates.getStartDate(), newDates.getEndDate(), new CompletableFuture<>());
+        submit(command);
+        return command.result();
+    }
+
+    /**
+     * Creates a block on the sequencer, so no booking checked before it can take its nights.
+     *
+     * @param block The block to be created.
+     * @return A future of the saved block.
+     */
+    public CompletableFuture<Block> createBlock(Block block) {
+        block.setId(null); // New blocks always get a fresh ID, whatever the request carried.
+        CreateBlock command = new CreateBlock(block, new CompletableFuture<>());
+        submit(command);
+        return command.result();
+    }
+
+    /**
+     * Runs an action on the sequencer, after every command submitted before it has been committed
+     * and before any command submitted after it is checked. Used for the bulk imports.
+     *
+     * @param action The action, e.g. an import through the booking service.
+     * @param <T>    The type of the action's result.
+     * @return A future of the action's result.
+     */
+    public <T> CompletableFuture<T> runExclusively(Supplier<T> action) {
+        Exclusive<T> command = new Exclusive<>(action, new CompletableFuture<>());
+        submit(command);
+        return command.result();
+    }
+
+    /**
+     * Waits for the result of a pipelined write, rethrowing its failure as is.
+     *
+     * @param result The future returned by the pipeline.
+     * @param <T>    The type of the result.
+     * @return The result.
+     */
+    public static <T> T await(CompletableFuture<T> result) {
+        try {
+            return result.get();
+        } catch (ExecutionException | CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Pipelined write failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a pipelined write", e);
+        }
+    }
+
+    /**
+     * Stops accepting commands and waits for the sequencer to apply the ones already queued.
+     */
+    @Override
+    public void destroy() throws Exception {
+        running = false;
+        LockSupport.unpark(sequencer);
+        sequencer.join(TimeUnit.MINUTES.toMillis(1));
+        Command late;
+        while (!sequencer.isAlive() && (late = commands.poll()) != null) {
+            late.fail(new IllegalStateException("The booking pipeline is shut down.")); // Published while the sequencer was exiting.
+        }
+    }
+
+    // Producer side
+
+    private void submit(Command command) {
+        while (running) {
+            if (commands.offer(command)) {
+                if (sleeping) {
+                    LockSupport.unpark(sequencer);
+                }
+                return;
+            }
+            LockSupport.parkNanos(10_000); // Full: wait for the sequencer to free a slot.
+        }
+        command.fail(new IllegalStateException("The booking pipeline is shut down."));
+    }
+
+    // Sequencer side
+
+    private void run() {
+        List<Command> batch = new ArrayList<>(maxBatch);
+        while (running || !commands.isEmpty()) {
+            if (commands.drainTo(batch, maxBatch) == 0) {
+                idle();
+                continue;
+            }
+            try {
+                apply(batch);
+            } catch (RuntimeException e) {
+                batch.forEach(command -> command.fail(e)); // Completing an already completed future is a no-op.
+            }
+            batch.clear();
+        }
+    }
+
+    // Parks on an empty buffer; producers unpark after seeing the flag, and the flag is set
+    // before the last emptiness check, so a command published in between is never missed.
+    private void idle() {
+        if (!commands.isEmpty()) {
+            Thread.yield(); // A producer claimed the next slot but has not filled it yet.
+            return;
+        }
+        for (int spins = 0; spins < 100; spins++) {
+            if (!commands.isEmpty() || !running) {
+                return;
+            }
+            Thread.onSpinWait();
+        }
+        sleeping = true;
+        if (commands.isEmpty() && running) {
+            LockSupport.park(this);
+        }
+        sleeping = false;
+    }
+
+    private void apply(List<Command> batch) {
+        Batch pending = new Batch();
+        for (Command command : batch) {
+            switch (command) {
+                case CreateBooking create -> {
+                    Booking booking = create.booking();
+                    if (check("createBooking", booking.getPropertyId(), booking.getStartDate(), booking.getEndDate(), null, pending)) {
+                        pending.reserve(booking.getPropertyId(), booking.getStartDate(), booking.getEndDate(), null);
+                        pending.creates.add(create);
+                    } else {
+                        create.result().complete(Optional.empty());
+                    }
+                }
+                case UpdateBooking update -> {
+                    Booking booking = update.booking();
+                    if (check("updateBooking", booking.getPropertyId(), booking.getStartDate(), booking.getEndDate(), booking.getId(), pending)) {
+                        pending.reserve(booking.getPropertyId(), booking.getStartDate(), booking.getEndDate(), booking.getId());
+                        pending.updates.add(update);
+                    } else if (update.versionGiven() && !bookingRepository.existsById(booking.getId())) {
+                        update.result().complete(Optional.empty()); // A missing booking is a not-found, not a conflict.
+                    } else {
+                        update.fail(new DatesUnavailableException(DATES_UNAVAILABLE));
+                    }
+                }
+                case RescheduleBooking reschedule -> {
+                    Booking current = reschedule.current();
+                    if (check("rescheduleBooking", current.getPropertyId(), reschedule.startDate(), reschedule.endDate(), current.getId(), pending)) {
+                        pending.reserve(current.getPropertyId(), reschedule.startDate(), reschedule.endDate(), current.getId());
+                        pending.reschedules.add(reschedule);
+                    } else {
+                        reschedule.result().complete(Optional.empty());
+                    }
+                }
+                case CreateBlock create -> {
+                    Block block = create.block();
+                    pending.reserve(block.getPropertyId(), block.getStartDate(), block.getEndDate(), null);
+                    pending.blocks.add(create);
+                }
+                case Exclusive<?> exclusive -> {
+                    commit(pending);
+                    pending = new Batch();
+                    exclusive.run();
+                }
+            }
+        }
+        commit(pending);
+    }
+
+    // The calendar only holds committed writes, so the stays accepted earlier in the batch are checked separately.
+    private boolean check(String operation, Long propertyId, LocalDate startDate, LocalDate endDate, Long excludeId, Batch pending) {
+        return bookingMetrics.checkConflicts(operation,
+                () -> bookingService.areDatesAvailable(propertyId, startDate, endDate, excludeId)
+                        && !pending.overlaps(propertyId, startDate, endDate, excludeId));
+    }
+
+    private void commit(Batch pending) {
+        int size = pending.creates.size() + pending.updates.size() + pending.reschedules.size() + pending.blocks.size();
+        if (size == 0) {
+            return;
+        }
+        List<Booking> savedBookings = new ArrayList<>();
+        List<Block> savedBlocks = new ArrayList<>();
+        boolean[] updated = new boolean[pending.updates.size()];
+        boolean[] rescheduled = new boolean[pending.reschedules.size()];
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!pending.creates.isEmpty()) {
+                    savedBookings.addAll(bookingRepository.saveAll(pending.creates.stream().map(CreateBooking::booking).toList()));
+                }
+                for (int i = 0; i < updated.length; i++) {
+                    Booking booking = pending.updates.get(i).booking();
+                    updated[i] = bookingRepository.updateIfVersion(booking.getId(), pending.updates.get(i).version(), booking.getPropertyId(),
+                            booking.getStartDate(), booking.getEndDate(), booking.getGuestDetails()) > 0;
+                }
+                for (int i = 0; i < rescheduled.length; i++) {
+                    RescheduleBooking reschedule = pending.reschedules.get(i);
+                    rescheduled[i] = bookingRepository.rescheduleIfVersion(reschedule.current().getId(), reschedule.version(),
+                            reschedule.startDate(), reschedule.endDate()) > 0;
+                }
+                if (!pending.blocks.isEmpty()) {
+                    savedBlocks.addAll(blockRepository.saveAll(pending.blocks.stream().map(CreateBlock::block).toList()));
+                }
+            });
+        } catch (RuntimeException e) {
+            if (size == 1) {
+                pending.creates.forEach(command -> command.fail(e));
+                pending.updates.forEach(command -> command.fail(e));
+                pending.reschedules.forEach(command -> command.fail(e));
+                pending.blocks.forEach(command -> command.fail(e));
+            } else {
+                commitEach(pending);
+            }
+            return;
+        }
+        batchSizes.record(size);
+
+        for (int i = 0; i < savedBookings.size(); i++) {
+            Booking saved = savedBookings.get(i);
+            occupancyCalendar.putBooking(saved);
+            eventPublisher.publishEvent(new BookingChangedEvent(saved, false));
+            eventPublisher.publishEvent(OccupancyChangedEvent.of(saved));
+            pending.creates.get(i).result().complete(Optional.of(saved));
+        }
+        for (int i = 0; i < updated.length; i++) {
+            UpdateBooking update = pending.updates.get(i);
+            Booking booking = update.booking();
+            if (!updated[i]) {
+                // Only the losing path pays for a second query, to tell a stale version from a missing booking.
+                if (update.versionGiven() && !bookingRepository.existsById(booking.getId())) {
+                    update.result().complete(Optional.empty());
+                } else {
+                    update.fail(new OptimisticLockingFailureException("Booking " + booking.getId() + " is no longer at version " + update.version() + "."));
+                }
+                continue;
+            }
+            booking.setVersion(update.version() + 1);
+            occupancyCalendar.putBooking(booking);
+            // Without the previous row, the nights the booking left (maybe at another property) are unknown.
+            eventPublisher.publishEvent(update.previous() != null ? OccupancyChangedEvent.of(update.previous()) : OccupancyChangedEvent.everywhere());
+            eventPublisher.publishEvent(new BookingChangedEvent(booking, false));
+            eventPublisher.publishEvent(OccupancyChangedEvent.of(booking));
+            update.result().complete(Optional.of(booking));
+        }
+        for (int i = 0; i < rescheduled.length; i++) {
+            RescheduleBooking reschedule = pending.reschedules.get(i);
+            Booking booking = reschedule.current();
+            if (!rescheduled[i]) {
+                reschedule.fail(new OptimisticLockingFailureException("Booking " + booking.getId() + " was changed while being rescheduled."));
+                continue;
+            }
+            OccupancyChangedEvent released = OccupancyChangedEvent.of(booking);
+            booking.setStartDate(reschedule.startDate());
+            booking.setEndDate(reschedule.endDate());
+            booking.setVersion(reschedule.version() + 1);
+            occupancyCalendar.putBooking(booking);
+            eventPublisher.publishEvent(new BookingChangedEvent(booking, false));
+            eventPublisher.publishEvent(released);
+            eventPublisher.publishEvent(OccupancyChangedEvent.of(booking));
+            reschedule.result().complete(Optional.of(booking));
+        }
+        for (int i = 0; i < savedBlocks.size(); i++) {
+            Block saved = savedBlocks.get(i);
+            occupancyCalendar.putBlock(saved);
+            eventPublisher.publishEvent(new BlockChangedEvent(saved, false));
+            eventPublisher.publishEvent(OccupancyChangedEvent.of(saved));
+            pending.blocks.get(i).result().complete(saved);
+        }
+    }
+
+    // Retries the commands of a failed batch one transaction each. The rolled back inserts left
+    // their generated IDs and versions on the entities, so those are cleared to insert them afresh.
+    private void commitEach(Batch failed) {
+        for (CreateBooking create : failed.creates) {
+            create.booking().setId(null);
+            create.booking().setVersion(null);
+            Batch single = new Batch();
+            single.creates.add(create);
+            commit(single);
+        }
+        for (UpdateBooking update : failed.updates) {
+            Batch single = new Batch();
+            single.updates.add(update);
+            commit(single);
+        }
+        for (RescheduleBooking reschedule : failed.reschedules) {
+            Batch single = new Batch();
+            single.reschedules.add(reschedule);
+            commit(single);
+        }
+        for (CreateBlock create : failed.blocks) {
+            create.block().setId(null);
+            create.block().setVersion(null);
+            Batch single = new Batch();
+            single.blocks.add(create);
+            commit(single);
+        }
+    }
+
+    /**
+     * Commands accepted by the sequencer but not committed yet, with the nights they reserve.
+     * An update or reschedule keeps its old nights until committed, so a later command of the same
+     * batch cannot take them yet.
+     */
+    private static final class Batch {
+
+        private final List<CreateBooking> creates = new ArrayList<>(); // Accepted new bookings.
+        private final List<UpdateBooking> updates = new ArrayList<>(); // Accepted updates.
+        private final List<RescheduleBooking> reschedules = new ArrayList<>(); // Accepted reschedules.
+        private final List<CreateBlock> blocks = new ArrayList<>(); // New blocks.
+        private final List<Reservation> reservations = new ArrayList<>(); // Nights taken by all of the above.
+
+        void reserve(Long propertyId, LocalDate startDate, LocalDate endDate, Long bookingId) {
+            if (startDate != null && endDate != null) {
+                reservations.add(new Reservation(propertyId, startDate, endDate, bookingId));
+            }
+        }
+
+        boolean overlaps(Long propertyId, LocalDate startDate, LocalDate endDate, Long excludeId) {
+            if (startDate == null || endDate == null) {
+                return false;
+            }
+            for (Reservation reservation : reservations) {
+                if (reservation.propertyId().equals(propertyId)
+                        && reservation.startDate().isBefore(endDate) && startDate.isBefore(reservation.endDate())
+                        && (excludeId == null || !excludeId.equals(reservation.bookingId()))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Nights reserved by a command of the current batch.
+     */
+    private record Reservation(Long propertyId, LocalDate startDate, LocalDate endDate, Long bookingId) {
+    }
+
+    /**
+     * A write waiting in the ring buffer, with the future of its caller.
+     */
+    private sealed interface Command permits CreateBooking, UpdateBooking, RescheduleBooking, CreateBlock, Exclusive {
+
+        CompletableFuture<?> result();
+
+        default void fail(Throwable cause) {
+            result().completeExceptionally(cause);
+        }
+    }
+
+    private record CreateBooking(Booking booking, CompletableFuture<Optional<Booking>> result) implements Command {
+    }
+
+    private record UpdateBooking(Booking booking, Booking previous, Long version, boolean versionGiven,
+                                 CompletableFuture<Optional<Booking>> result) implements Command {
+    }
+
+    private record RescheduleBooking(Booking current, Long version, LocalDate startDate, LocalDate endDate,
+                                     CompletableFuture<Optional<Booking>> result) implements Command {
+    }
+
+    private record CreateBlock(Block block, CompletableFuture<Block> result) implements Command {
+    }
+
+    private record Exclusive<T>(Supplier<T> action, CompletableFuture<T> result) implements Command {
+
+        void run() {
+            try {
+                result.complete(action.get());
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.bookingmanagerservice.pipeline;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded, lock-free ring buffer for many producers and a single consumer.
+ * Producers claim a position with a compare-and-set on the tail, fill its slot and publish it by
+ * advancing the slot's sequence number; the consumer reads slots in position order and recycles
+ * each one by moving its sequence a full lap ahead. No producer ever waits on another one or on
+ * the consumer: when the buffer is full, {@link #offer(Object)} fails instead of blocking.
+ * Only one thread may call {@link #poll()} and {@link #drainTo(List, int)}.
+ *
+ * @param <E> The type of the elements.
+ */
+public class RingBuffer<E> {
+
+    private final Object[] slots; // Elements, indexed by position modulo the capacity.
+    private final AtomicLongArray sequences; // Per slot: position + 1 once published, position + capacity once free again.
+    private final int mask; // Capacity - 1, the capacity being a power of two.
+    private final AtomicLong tail = new AtomicLong(); // Next position to claim, shared by the producers.
+    private volatile long head; // Next position to consume, written by the consumer only.
+
+    /**
+     * Creates an empty ring buffer.
+     *
+     * @param capacity The number of slots, rounded up to a power of two.
+     */
+    public RingBuffer(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30, was " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        size = size < capacity ? size << 1 : size;
+        this.slots = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i); // Slot i is free for position i.
+        }
+    }
+
+    /**
+     * Adds an element at the tail, unless the buffer is full.
+     * Safe to call from any number of threads.
+     *
+     * @param element The element to add, not null.
+     * @return true if the element was added, false if the buffer is full.
+     */
+    public boolean offer(E element) {
+        if (element == null) {
+            throw new NullPointerException("Ring buffer elements cannot be null");
+        }
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long available = sequences.get(index) - position;
+            if (available == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots[index] = element;
+                    sequences.set(index, position + 1); // Publishes the slot to the consumer.
+                    return true;
+                }
+                position = tail.get(); // Another producer claimed it first.
+            } else if (available < 0) {
+                return false; // The slot still holds the element of the previous lap.
+            } else {
+                position = tail.get(); // Stale tail: another producer already moved past it.
+            }
+        }
+    }
+
+    /**
+     * Removes the element at the head, if one has been published.
+     * Only the consumer thread may call this method.
+     *
+     * @return The element, or null if the buffer is empty.
+     */
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long position = head;
+        int index = (int) position & mask;
+        if (sequences.get(index) != position + 1) {
+            return null; // Not claimed yet, or claimed but not yet filled.
+        }
+        E element = (E) slots[index];
+        slots[index] = null;
+        sequences.set(index, position + slots.length); // Frees the slot for the next lap.
+        head = position + 1;
+        return element;
+    }
+
+    /**
+     * Moves the published elements at the head into a list, in order.
+     * Only the consumer thread may call this method.
+     *
+     * @param target      The list receiving the elements.
+     * @param maxElements The most elements to move.
+     * @return The number of elements moved.
+     */
+    public int drainTo(List<? super E> target, int maxElements) {
+        int drained = 0;
+        E element;
+        while (drained < maxElements && (element = poll()) != null) {
+            target.add(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * @return true if no element has been claimed past the head. Producers may be filling claimed slots.
+     */
+    public boolean isEmpty() {
+        return tail.get() == head;
+    }
+
+    /**
+     * @return The number of claimed elements not consumed yet; a snapshot while producers are active.
+     */
+    public int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    /**
+     * @return The number of slots.
+     */
+    public int capacity() {
+        return slots.length;
+    }
+}
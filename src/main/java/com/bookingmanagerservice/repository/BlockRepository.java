@@ -1,11 +1,19 @@
 package com.bookingmanagerservice.repository;
 
+import com.bookingmanagerservice.dto.BlockView;
+import com.bookingmanagerservice.dto.DateRange;
+import com.bookingmanagerservice.dto.OccupiedRange;
 import com.bookingmanagerservice.model.Block;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * JPA Repository for the Block entity.
@@ -21,6 +29,7 @@ public interface BlockRepository extends JpaRepository<Block, Long> {
      * @param startDate The start date of the blocks to be found.
      * @return List of blocks that start on the specified date.
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")) // Loaded for reading: no snapshot, changes are never flushed.
     List<Block> findByStartDate(LocalDate startDate);
 
     /**
@@ -29,27 +38,110 @@ public interface BlockRepository extends JpaRepository<Block, Long> {
      * @param endDate The end date of the blocks to be found.
      * @return List of blocks that end on the specified date.
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")) // Loaded for reading: no snapshot, changes are never flushed.
     List<Block> findByEndDate(LocalDate endDate);
 
     /**
-     * Finds blocks that occur within a date range.
+     * Finds the blocks of a property that occur within a date range.
+     * Ranges are half-open, like bookings: the end date itself is not blocked.
      *
-     * @param startDate The start date of the search range.
-     * @param endDate   The end date of the search range.
+     * @param propertyId The property to search.
+     * @param startDate  The start date of the search range.
+     * @param endDate    The end date of the search range.
      * @return List of blocks within the specified date range.
      */
-    @Query("SELECT b FROM Block b WHERE b.startDate <= :endDate AND b.endDate >= :startDate")
-    List<Block> findBlocksInDateRange(LocalDate startDate, LocalDate endDate);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")) // Loaded for reading: no snapshot, changes are never flushed.
+    @Query("SELECT b FROM Block b WHERE b.propertyId = :propertyId AND b.startDate < :endDate AND b.endDate > :startDate")
+    List<Block> findBlocksInDateRange(Long propertyId, LocalDate startDate, LocalDate endDate);
 
     /**
-     * Finds blocks that overlap with a date range.
+     * Finds the date ranges of the blocks of a property within a date range, ordered by start date.
+     * Same filter as {@link #findBlocksInDateRange(Long, LocalDate, LocalDate)}, but only the dates are read.
+     *
+     * @param propertyId The property to search.
+     * @param startDate  The start date of the search range.
+     * @param endDate    The end date of the search range (exclusive).
+     * @return Date ranges of the blocks within the specified range.
+     */
+    @Query("SELECT new com.bookingmanagerservice.dto.DateRange(b.startDate, b.endDate) FROM Block b "
+            + "WHERE b.propertyId = :propertyId AND b.startDate < :endDate AND b.endDate > :startDate ORDER BY b.startDate")
+    List<DateRange> findRangesInDateRange(Long propertyId, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Finds the IDs and dates of the blocks of a property overlapping a given date range, ordered by start date.
+     * Same filter as {@link #findBlocksInDateRange(Long, LocalDate, LocalDate)}, read as projections.
+     *
+     * @param propertyId The property to search.
+     * @param startDate  The start date of the search range.
+     * @param endDate    The end date of the search range (exclusive).
+     * @return IDs and date ranges of the overlapping blocks.
+     */
+    @Query("SELECT new com.bookingmanagerservice.dto.OccupiedRange(b.id, b.startDate, b.endDate) FROM Block b "
+            + "WHERE b.propertyId = :propertyId AND b.startDate < :endDate AND b.endDate > :startDate ORDER BY b.startDate, b.id")
+    List<OccupiedRange> findOccupiedRanges(Long propertyId, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Finds the blocks of a property that overlap with a date range.
      * This includes blocks that start before and end within the range,
      * start within and end after, or are entirely within the range.
      *
-     * @param startDate The start date of the search range.
-     * @param endDate   The end date of the search range.
+     * @param propertyId The property to search.
+     * @param startDate  The start date of the search range.
+     * @param endDate    The end date of the search range.
      * @return List of blocks that overlap with the specified range.
      */
-    @Query("SELECT b FROM Block b WHERE b.startDate < :endDate AND b.endDate > :startDate")
-    List<Block> findOverlappingBlocks(LocalDate startDate, LocalDate endDate);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")) // Loaded for reading: no snapshot, changes are never flushed.
+    @Query("SELECT b FROM Block b WHERE b.propertyId = :propertyId AND b.startDate < :endDate AND b.endDate > :startDate")
+    List<Block> findOverlappingBlocks(Long propertyId, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Checks whether any block of a property overlaps a date range.
+     * Nothing is loaded: the database answers with a single probe of the
+     * (property_id, end_date, start_date) index and stops at the first match.
+     *
+     * @param propertyId The property to check.
+     * @param startDate  The start date of the range.
+     * @param endDate    The end date of the range (exclusive).
+     * @return true if at least one block overlaps the range.
+     */
+    default boolean existsOverlapping(Long propertyId, LocalDate startDate, LocalDate endDate) {
+        return existsByPropertyIdAndStartDateBeforeAndEndDateAfter(propertyId, endDate, startDate);
+    }
+
+    /**
+     * Derived exists query behind {@link #existsOverlapping(Long, LocalDate, LocalDate)}:
+     * a block overlaps when it starts before the range ends and ends after the range starts.
+     */
+    boolean existsByPropertyIdAndStartDateBeforeAndEndDateAfter(Long propertyId, LocalDate endDate, LocalDate startDate);
+
+    /**
+     * Lists all blocks as read-only views, ordered by ID.
+     * Unlike {@link #findAll()}, no entity is hydrated, snapshotted or tracked.
+     *
+     * @return Views of all blocks.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.bookingmanagerservice.dto.BlockView(b.id, b.version, b.propertyId, b.startDate, b.endDate, b.reason) FROM Block b ORDER BY b.id")
+    List<BlockView> findAllViews();
+
+    /**
+     * Finds the next page of blocks after a given ID, ordered by ID (keyset pagination), as read-only views.
+     *
+     * @param afterId The last ID of the previous page; use 0 for the first page.
+     * @param limit   The maximum number of blocks to return.
+     * @return Views of the blocks with an ID greater than {@code afterId}.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.bookingmanagerservice.dto.BlockView(b.id, b.version, b.propertyId, b.startDate, b.endDate, b.reason) FROM Block b WHERE b.id > :afterId ORDER BY b.id")
+    List<BlockView> findPageAfter(Long afterId, Limit limit);
+
+    /**
+     * Streams all blocks from a database cursor as read-only views, ordered by ID.
+     * Must be consumed inside a transaction and closed afterwards.
+     *
+     * @return A stream over views of all blocks.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.bookingmanagerservice.dto.BlockView(b.id, b.version, b.propertyId, b.startDate, b.endDate, b.reason) FROM Block b ORDER BY b.id")
+    Stream<BlockView> streamAll();
 }
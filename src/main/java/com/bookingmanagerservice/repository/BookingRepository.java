@@ -1,10 +1,20 @@
 package com.bookingmanagerservice.repository;
 
+import com.bookingmanagerservice.dto.BookingView;
+import com.bookingmanagerservice.dto.DateRange;
+import com.bookingmanagerservice.dto.OccupiedRange;
 import com.bookingmanagerservice.model.Booking;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * JPA Repository for the Booking entity.
@@ -13,32 +23,216 @@ import java.util.List;
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
     /**
-     * Finds bookings that overlap with a given date range.
+     * Finds the bookings of a property that overlap with a given date range.
      * Uses the JPQL (Java Persistence Query Language) to select bookings with overlapping dates.
+     * Ranges are half-open: the end date is the check-out day and is not occupied.
+     * The (property_id, end_date, start_date) index keeps the scan within the property's bookings
+     * ending after the range starts.
      *
-     * @param startDate The start date of the search range.
-     * @param endDate   The end date of the search range.
+     * @param propertyId The property to search.
+     * @param startDate  The start date of the search range.
+     * @param endDate    The end date of the search range.
      * @return List of bookings that overlap with the specified range.
      */
-    @Query("SELECT b FROM Booking b WHERE b.startDate <= :endDate AND b.endDate >= :startDate")
-    List<Booking> findOverlappingBookings(LocalDate startDate, LocalDate endDate);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")) // Loaded for reading: no snapshot, changes are never flushed.
+    @Query("SELECT b FROM Booking b WHERE b.propertyId = :propertyId AND b.startDate < :endDate AND b.endDate > :startDate")
+    List<Booking> findOverlappingBookings(Long propertyId, LocalDate startDate, LocalDate endDate);
 
     /**
-     * Finds bookings by guest details.
-     * This method leverages Spring Data JPA's ability to generate queries from method names.
+     * Checks whether any booking of a property overlaps a date range, ignoring one booking.
+     * Unlike {@link #findOverlappingBookings(Long, LocalDate, LocalDate)}, nothing is loaded: the
+     * database answers with a single probe of the (property_id, end_date, start_date) index and
+     * stops at the first match.
+     *
+     * @param propertyId The property to check.
+     * @param startDate  The start date of the range.
+     * @param endDate    The end date of the range (exclusive).
+     * @param excludeId  ID of a booking to ignore (e.g. the one being rescheduled), or null.
+     * @return true if at least one other booking overlaps the range.
+     */
+    default boolean existsOverlapping(Long propertyId, LocalDate startDate, LocalDate endDate, Long excludeId) {
+        return excludeId == null
+                ? existsByPropertyIdAndStartDateBeforeAndEndDateAfter(propertyId, endDate, startDate)
+                : existsByPropertyIdAndStartDateBeforeAndEndDateAfterAndIdNot(propertyId, endDate, startDate, excludeId);
+    }
+
+    /**
+     * Derived exists query behind {@link #existsOverlapping(Long, LocalDate, LocalDate, Long)}:
+     * a booking overlaps when it starts before the range ends and ends after the range starts.
+     */
+    boolean existsByPropertyIdAndStartDateBeforeAndEndDateAfter(Long propertyId, LocalDate endDate, LocalDate startDate);
+
+    /**
+     * Same as {@link #existsByPropertyIdAndStartDateBeforeAndEndDateAfter(Long, LocalDate, LocalDate)},
+     * ignoring one booking.
+     */
+    boolean existsByPropertyIdAndStartDateBeforeAndEndDateAfterAndIdNot(Long propertyId, LocalDate endDate, LocalDate startDate, Long id);
+
+    /**
+     * Finds the date ranges of the bookings of a property overlapping a given date range, ordered by start date.
+     * Same filter as {@link #findOverlappingBookings(Long, LocalDate, LocalDate)}, but only the dates are
+     * read, so no entity is hydrated or tracked.
+     *
+     * @param propertyId The property to search.
+     * @param startDate  The start date of the search range.
+     * @param endDate    The end date of the search range (exclusive).
+     * @return Date ranges of the overlapping bookings.
+     */
+    @Query("SELECT new com.bookingmanagerservice.dto.DateRange(b.startDate, b.endDate) FROM Booking b "
+            + "WHERE b.propertyId = :propertyId AND b.startDate < :endDate AND b.endDate > :startDate ORDER BY b.startDate")
+    List<DateRange> findOverlappingRanges(Long propertyId, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Finds the IDs and dates of the bookings of a property overlapping a given date range, ordered by start date.
+     * Same filter as {@link #findOverlappingBookings(Long, LocalDate, LocalDate)}, read as projections.
+     *
+     * @param propertyId The property to search.
+     * @param startDate  The start date of the search range.
+     * @param endDate    The end date of the search range (exclusive).
+     * @return IDs and date ranges of the overlapping bookings.
+     */
+    @Query("SELECT new com.bookingmanagerservice.dto.OccupiedRange(b.id, b.startDate, b.endDate) FROM Booking b "
+            + "WHERE b.propertyId = :propertyId AND b.startDate < :endDate AND b.endDate > :startDate ORDER BY b.startDate, b.id")
+    List<OccupiedRange> findOccupiedRanges(Long propertyId, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Finds bookings by exact guest details, as read-only views ordered by ID.
+     * The lookup goes through the indexed guest key, then keeps the exact matches.
      *
      * @param guestDetails The guest details.
-     * @return List of bookings associated with the specified guest.
+     * @return Views of the bookings associated with the specified guest.
+     */
+    default List<BookingView> findByGuestDetails(String guestDetails) {
+        return findByGuestKeyAndGuestDetails(Booking.guestKey(guestDetails), guestDetails);
+    }
+
+    /**
+     * Query behind {@link #findByGuestDetails(String)}.
+     */
+    @Query("SELECT new com.bookingmanagerservice.dto.BookingView(b.id, b.version, b.propertyId, b.startDate, b.endDate, b.guestDetails) "
+            + "FROM Booking b WHERE b.guestKey = :guestKey AND b.guestDetails = :guestDetails ORDER BY b.id")
+    List<BookingView> findByGuestKeyAndGuestDetails(String guestKey, String guestDetails);
+
+    /**
+     * Finds the bookings whose guest details start with a prefix, ignoring case, accents and extra
+     * spaces, ordered by guest key then ID, resuming after the last row of the previous page.
+     * Every page is a single range scan of the (guest_key, id) index.
+     *
+     * @param guestPrefix The start of the guest details.
+     * @param afterGuest  The guest key of the last row of the previous page, or null for the first page.
+     * @param afterId     The ID of the last row of the previous page, or null for the first page.
+     * @param limit       The maximum number of bookings to return.
+     * @return Views of the matching bookings.
+     */
+    default List<BookingView> findByGuestPrefix(String guestPrefix, String afterGuest, Long afterId, Limit limit) {
+        String prefix = Booking.guestKey(guestPrefix);
+        String afterKey = afterGuest == null || afterId == null ? "" : afterGuest;
+        String from = afterKey.compareTo(prefix) > 0 ? afterKey : prefix;
+        return findByGuestKeyRange(from, prefix + Character.MAX_VALUE, afterKey, afterKey.isEmpty() ? 0L : afterId, limit);
+    }
+
+    /**
+     * Finds the bookings whose guest key lies in {@code [from, to)}, ordered by guest key then ID,
+     * resuming after a (guest key, ID) position (keyset pagination).
+     * The (guest_key, id) index serves both the range and the order, so a page reads only its own rows.
+     *
+     * @param from     The lower bound of the guest key: the search prefix, or the key of the last row of the previous page.
+     * @param to       The exclusive upper bound of the guest key, just past every key starting with the prefix.
+     * @param afterKey The guest key of the last row of the previous page; use "" for the first page.
+     * @param afterId  The ID of the last row of the previous page; use 0 for the first page.
+     * @param limit    The maximum number of bookings to return.
+     * @return Views of the matching bookings.
+     */
+    @Query("SELECT new com.bookingmanagerservice.dto.BookingView(b.id, b.version, b.propertyId, b.startDate, b.endDate, b.guestDetails) FROM Booking b "
+            + "WHERE b.guestKey >= :from AND b.guestKey < :to AND (b.guestKey > :afterKey OR b.id > :afterId) "
+            + "ORDER BY b.guestKey, b.id")
+    List<BookingView> findByGuestKeyRange(String from, String to, String afterKey, Long afterId, Limit limit);
+
+    /**
+     * Finds the bookings of a property by a specific date, as read-only views.
+     * Returns all bookings occupying the night of the provided date.
+     *
+     * @param propertyId The property to search.
+     * @param date       The specific date for searching bookings.
+     * @return Views of the bookings that include the specified date.
+     */
+    @Query("SELECT new com.bookingmanagerservice.dto.BookingView(b.id, b.version, b.propertyId, b.startDate, b.endDate, b.guestDetails) "
+            + "FROM Booking b WHERE b.propertyId = :propertyId AND b.startDate <= :date AND b.endDate > :date")
+    List<BookingView> findBookingsByDate(Long propertyId, LocalDate date);
+
+    /**
+     * Replaces the details of a booking in a single statement, provided it is still at the expected version.
+     * The version is bumped by the same statement, so a concurrent writer holding the old version
+     * updates nothing instead of overwriting this change.
+     *
+     * @param id           The ID of the booking.
+     * @param version      The version the caller last read.
+     * @param propertyId   The new property.
+     * @param startDate    The new start date.
+     * @param endDate      The new end date.
+     * @param guestDetails The new guest details.
+     * @return 1 if the booking was updated, 0 if it does not exist or has another version.
+     */
+    default int updateIfVersion(Long id, Long version, Long propertyId, LocalDate startDate, LocalDate endDate, String guestDetails) {
+        return updateIfVersion(id, version, propertyId, startDate, endDate, guestDetails, Booking.guestKey(guestDetails));
+    }
+
+    /**
+     * Statement behind {@link #updateIfVersion(Long, Long, Long, LocalDate, LocalDate, String)}, also
+     * replacing the normalized guest key.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Booking b SET b.propertyId = :propertyId, b.startDate = :startDate, b.endDate = :endDate, "
+            + "b.guestDetails = :guestDetails, b.guestKey = :guestKey, b.version = b.version + 1 "
+            + "WHERE b.id = :id AND b.version = :version")
+    int updateIfVersion(Long id, Long version, Long propertyId, LocalDate startDate, LocalDate endDate, String guestDetails, String guestKey);
+
+    /**
+     * Moves the dates of a booking in a single statement, provided it is still at the expected version.
+     *
+     * @param id        The ID of the booking.
+     * @param version   The version the caller last read.
+     * @param startDate The new start date.
+     * @param endDate   The new end date.
+     * @return 1 if the booking was rescheduled, 0 if it does not exist or has another version.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Booking b SET b.startDate = :startDate, b.endDate = :endDate, b.version = b.version + 1 "
+            + "WHERE b.id = :id AND b.version = :version")
+    int rescheduleIfVersion(Long id, Long version, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Lists all bookings as read-only views, ordered by ID.
+     * Unlike {@link #findAll()}, no entity is hydrated, snapshotted or tracked.
+     *
+     * @return Views of all bookings.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.bookingmanagerservice.dto.BookingView(b.id, b.version, b.propertyId, b.startDate, b.endDate, b.guestDetails) FROM Booking b ORDER BY b.id")
+    List<BookingView> findAllViews();
+
+    /**
+     * Finds the next page of bookings after a given ID, ordered by ID (keyset pagination), as read-only views.
+     * Unlike offset pagination, the cost of a page does not grow with its position.
+     *
+     * @param afterId The last ID of the previous page; use 0 for the first page.
+     * @param limit   The maximum number of bookings to return.
+     * @return Views of the bookings with an ID greater than {@code afterId}.
      */
-    List<Booking> findByGuestDetails(String guestDetails);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.bookingmanagerservice.dto.BookingView(b.id, b.version, b.propertyId, b.startDate, b.endDate, b.guestDetails) FROM Booking b WHERE b.id > :afterId ORDER BY b.id")
+    List<BookingView> findPageAfter(Long afterId, Limit limit);
 
     /**
-     * Finds bookings by a specific date.
-     * Returns all bookings that include the provided date.
+     * Streams all bookings from a database cursor as read-only views, ordered by ID.
+     * Must be consumed inside a transaction and closed afterwards. The views are not tracked by
+     * the persistence context, so memory use does not depend on the table size.
      *
-     * @param date The specific date for searching bookings.
-     * @return List of bookings that include the specified date.
+     * @return A stream over views of all bookings.
      */
-    @Query("SELECT b FROM Booking b WHERE b.startDate <= :date AND b.endDate >= :date")
-    List<Booking> findBookingsByDate(LocalDate date);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.bookingmanagerservice.dto.BookingView(b.id, b.version, b.propertyId, b.startDate, b.endDate, b.guestDetails) FROM Booking b ORDER BY b.id")
+    Stream<BookingView> streamAll();
 }
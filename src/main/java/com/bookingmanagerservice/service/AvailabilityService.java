@@ -0,0 +1,247 @@
+package com.bookingmanagerservice.service;
+
+import com.bookingmanagerservice.cache.AvailabilityCache;
+import com.bookingmanagerservice.dto.DateRange;
+import com.bookingmanagerservice.dto.FreeWindow;
+import com.bookingmanagerservice.dto.OccupiedRange;
+import com.bookingmanagerservice.dto.RangeCheck;
+import com.bookingmanagerservice.dto.RangeVerdict;
+import com.bookingmanagerservice.metrics.BookingMetrics;
+import com.bookingmanagerservice.model.Booking;
+import com.bookingmanagerservice.repository.BlockRepository;
+import com.bookingmanagerservice.repository.BookingRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SortedSet;
+
+/**
+ * Service answering availability searches.
+ * This class computes the free windows of the calendar from the booking and block date ranges,
+ * read month by month through the availability cache, and checks batches of candidate stays.
+ */
+@Service // Marks this class as a service component in the Spring framework.
+@Timed("booking.service") // Records a latency histogram for every public operation.
+public class AvailabilityService {
+
+    private final BookingRepository bookingRepository; // Source of booking date ranges.
+    private final BlockRepository blockRepository; // Source of block date ranges.
+    private final BookingMetrics bookingMetrics; // Rows scanned by the searches.
+    private final AvailabilityCache availabilityCache; // Occupied ranges of recently searched months.
+
+    /**
+     * Constructor for dependency injection of the repositories, the metrics and the cache.
+     *
+     * @param bookingRepository Repository that handles booking operations.
+     * @param blockRepository   Repository that handles block operations.
+     * @param bookingMetrics    Metrics of the availability searches.
+     * @param availabilityCache Cache of the occupied ranges of each month.
+     */
+    @Autowired
+    public AvailabilityService(BookingRepository bookingRepository, BlockRepository blockRepository, BookingMetrics bookingMetrics,
+                               AvailabilityCache availabilityCache) {
+        this.bookingRepository = bookingRepository;
+        this.blockRepository = blockRepository;
+        this.bookingMetrics = bookingMetrics;
+        this.availabilityCache = availabilityCache;
+    }
+
+    /**
+     * Finds the gaps with no booking and no block of a property inside a window.
+     * The occupied ranges of every month of the window come from the cache, already merged and
+     * sorted, so the gaps are found with a single sweep; only months missing from the cache are queried.
+     *
+     * @param propertyId The property to search.
+     * @param from       The first night of the window.
+     * @param to         The end of the window (exclusive).
+     * @param minNights  The minimum number of nights a gap must have to be returned.
+     * @return The free windows, in date order, clipped to the search window.
+     */
+    @Transactional(readOnly = true)
+    public List<FreeWindow> findFreeWindows(Long propertyId, LocalDate from, LocalDate to, int minNights) {
+        List<FreeWindow> windows = new ArrayList<>();
+        if (!to.isAfter(from)) {
+            return windows;
+        }
+        List<DateRange> occupied = availabilityCache.occupied(propertyId, YearMonth.from(from), YearMonth.from(to.minusDays(1)), this::loadMonths);
+
+        LocalDate cursor = from; // Every night before the cursor is known to be occupied or already reported.
+        for (DateRange next : occupied) {
+            if (!next.startDate().isBefore(to)) {
+                break; // The rest of the last month is outside the window.
+            }
+            if (next.startDate().isAfter(cursor)) {
+                addWindow(windows, cursor, next.startDate(), minNights);
+            }
+            if (next.endDate().isAfter(cursor)) {
+                cursor = next.endDate();
+            }
+        }
+        if (cursor.isBefore(to)) {
+            addWindow(windows, cursor, to, minNights);
+        }
+        return windows;
+    }
+
+    /**
+     * Checks many candidate stays at once, e.g. the hundreds a channel integration asks about in one go.
+     * The stays of each property are sorted by start date and answered in a single sweep over the
+     * property's bookings and blocks, read with one query each spanning all its stays, instead of one
+     * availability check per stay.
+     *
+     * @param checks The candidate stays, each ending after it starts.
+     * @return One verdict per candidate stay, in the order of the checks.
+     */
+    @Transactional(readOnly = true)
+    public List<RangeVerdict> checkRanges(List<RangeCheck> checks) {
+        Map<Long, List<Integer>> byProperty = new LinkedHashMap<>(); // Positions of the checks of each property.
+        for (int i = 0; i < checks.size(); i++) {
+            Long propertyId = checks.get(i).propertyId() == null ? Booking.DEFAULT_PROPERTY_ID : checks.get(i).propertyId();
+            byProperty.computeIfAbsent(propertyId, id -> new ArrayList<>()).add(i);
+        }
+        RangeVerdict[] verdicts = new RangeVerdict[checks.size()];
+        byProperty.forEach((propertyId, positions) -> {
+            positions.sort(Comparator.comparing(i -> checks.get(i).startDate()));
+            LocalDate from = checks.get(positions.get(0)).startDate();
+            LocalDate to = positions.stream().map(i -> checks.get(i).endDate()).max(Comparator.naturalOrder()).get();
+            List<OccupiedRange> bookings = bookingRepository.findOccupiedRanges(propertyId, from, to);
+            List<OccupiedRange> blocks = blockRepository.findOccupiedRanges(propertyId, from, to);
+            bookingMetrics.rowsScanned("checkRanges", bookings.size() + blocks.size());
+
+            OverlapSweep bookingSweep = new OverlapSweep(bookings);
+            OverlapSweep blockSweep = new OverlapSweep(blocks);
+            for (int i : positions) {
+                RangeCheck check = checks.get(i);
+                List<Long> bookingIds = bookingSweep.overlapping(check.startDate(), check.endDate());
+                List<Long> blockIds = blockSweep.overlapping(check.startDate(), check.endDate());
+                verdicts[i] = new RangeVerdict(propertyId, check.startDate(), check.endDate(),
+                        bookingIds.isEmpty() && blockIds.isEmpty(), bookingIds, blockIds);
+            }
+        });
+        return Arrays.asList(verdicts);
+    }
+
+    /**
+     * Loads the occupied ranges of some months with one booking query and one block query
+     * spanning all of them.
+     * Both queries return dates only, already sorted by start date, so they are merged into
+     * disjoint ranges with a single sweep before being split by month.
+     */
+    private Map<YearMonth, List<DateRange>> loadMonths(Long propertyId, SortedSet<YearMonth> months) {
+        LocalDate from = months.first().atDay(1);
+        LocalDate to = months.last().plusMonths(1).atDay(1);
+        List<DateRange> bookings = bookingRepository.findOverlappingRanges(propertyId, from, to);
+        List<DateRange> blocks = blockRepository.findRangesInDateRange(propertyId, from, to);
+        bookingMetrics.rowsScanned("freeWindows", bookings.size() + blocks.size());
+
+        List<DateRange> merged = new ArrayList<>();
+        LocalDate runStart = null; // Start of the run of occupied nights being merged.
+        LocalDate runEnd = null;
+        int i = 0;
+        int j = 0;
+        while (i < bookings.size() || j < blocks.size()) {
+            DateRange next;
+            if (j >= blocks.size() || (i < bookings.size() && !bookings.get(i).startDate().isAfter(blocks.get(j).startDate()))) {
+                next = bookings.get(i++);
+            } else {
+                next = blocks.get(j++);
+            }
+            if (runEnd != null && !next.startDate().isAfter(runEnd)) {
+                if (next.endDate().isAfter(runEnd)) {
+                    runEnd = next.endDate();
+                }
+            } else {
+                if (runEnd != null) {
+                    merged.add(new DateRange(runStart, runEnd));
+                }
+                runStart = next.startDate();
+                runEnd = next.endDate();
+            }
+        }
+        if (runEnd != null) {
+            merged.add(new DateRange(runStart, runEnd));
+        }
+
+        Map<YearMonth, List<DateRange>> byMonth = new HashMap<>();
+        int first = 0; // First run that may still reach the current month.
+        for (YearMonth month : months) {
+            LocalDate monthStart = month.atDay(1);
+            LocalDate monthEnd = month.plusMonths(1).atDay(1);
+            while (first < merged.size() && !merged.get(first).endDate().isAfter(monthStart)) {
+                first++;
+            }
+            List<DateRange> ranges = new ArrayList<>();
+            for (int k = first; k < merged.size() && merged.get(k).startDate().isBefore(monthEnd); k++) {
+                DateRange run = merged.get(k);
+                ranges.add(new DateRange(run.startDate().isBefore(monthStart) ? monthStart : run.startDate(),
+                        run.endDate().isAfter(monthEnd) ? monthEnd : run.endDate()));
+            }
+            byMonth.put(month, ranges);
+        }
+        return byMonth;
+    }
+
+    /**
+     * Adds a gap to the result if it is long enough.
+     */
+    private void addWindow(List<FreeWindow> windows, LocalDate startDate, LocalDate endDate, int minNights) {
+        long nights = ChronoUnit.DAYS.between(startDate, endDate);
+        if (nights >= minNights) {
+            windows.add(new FreeWindow(startDate, endDate, nights));
+        }
+    }
+
+    /**
+     * Cursor over occupied ranges sorted by start date, answering overlap queries asked in start order.
+     * Ranges that started before the current query wait in a min-heap on their end date, popped once
+     * a query starts at or after it, so whatever is left overlaps; ranges starting inside the query
+     * are read straight from the sorted list. Each query costs its answer plus the ranges it retires,
+     * not the number of ranges started so far.
+     */
+    private static final class OverlapSweep {
+        private final List<OccupiedRange> ranges; // Ranges sorted by start date.
+        private final PriorityQueue<Integer> started; // Positions of ranges started before the current query, by end date.
+        private int next; // First range not started before the current query.
+
+        private OverlapSweep(List<OccupiedRange> ranges) {
+            this.ranges = ranges;
+            this.started = new PriorityQueue<>(Comparator.comparing((Integer i) -> ranges.get(i).endDate()));
+        }
+
+        /**
+         * @return The IDs of the ranges overlapping a query, by start date; queries must not start before the previous one.
+         */
+        private List<Long> overlapping(LocalDate startDate, LocalDate endDate) {
+            while (next < ranges.size() && ranges.get(next).startDate().isBefore(startDate)) {
+                started.add(next++);
+            }
+            while (!started.isEmpty() && !ranges.get(started.peek()).endDate().isAfter(startDate)) {
+                started.poll(); // Ended: later queries start no earlier, so it overlaps none of them.
+            }
+            int[] before = started.stream().mapToInt(Integer::intValue).sorted().toArray(); // All of them overlap.
+            List<Long> ids = new ArrayList<>(before.length);
+            for (int position : before) {
+                ids.add(ranges.get(position).id());
+            }
+            for (int k = next; k < ranges.size() && ranges.get(k).startDate().isBefore(endDate); k++) {
+                if (ranges.get(k).endDate().isAfter(startDate)) { // Starts inside the query, so it overlaps unless empty.
+                    ids.add(ranges.get(k).id());
+                }
+            }
+            return ids;
+        }
+    }
+}
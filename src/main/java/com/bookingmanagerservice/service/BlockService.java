@@ -1,31 +1,68 @@
 package com.bookingmanagerservice.service;
 
+import com.bookingmanagerservice.calendar.DateStripedLocks;
+import com.bookingmanagerservice.calendar.OccupancyCalendar;
+import com.bookingmanagerservice.dto.BlockView;
+import com.bookingmanagerservice.event.BlockChangedEvent;
+import com.bookingmanagerservice.event.OccupancyChangedEvent;
 import com.bookingmanagerservice.model.Block;
 import com.bookingmanagerservice.repository.BlockRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Service that manages operations related to blocks.
  * This service class contains business logic for handling blocks, such as creating, deleting, and retrieving block information.
  */
 @Service // Marks this class as a service in the Spring context.
+@Timed("booking.service") // Records a latency histogram for every public operation.
 public class BlockService {
 
+    /**
+     * Largest page returned by {@link #getBlocksPage(Long, int)}.
+     */
+    public static final int MAX_PAGE_SIZE = 1000;
+
     private final BlockRepository blockRepository; // Dependency on the repository for block operations.
+    private final OccupancyCalendar occupancyCalendar; // In-memory calendar kept in sync with the blocks.
+    private final DateStripedLocks dateLocks; // Keeps new blocks from racing with booking checks on the same dates.
+    private final ApplicationEventPublisher eventPublisher; // Announces every write, e.g. to the availability cache.
 
     /**
-     * Constructor for injecting the BlockRepository.
-     * This setup uses dependency injection to provide the required repository.
+     * Constructor for injecting the BlockRepository, the occupancy calendar, the date locks and the event publisher.
+     * This setup uses dependency injection to provide the required dependencies.
      *
-     * @param blockRepository Repository that manages block operations.
+     * @param blockRepository   Repository that manages block operations.
+     * @param occupancyCalendar In-memory calendar of booked and blocked nights.
+     * @param dateLocks         Striped locks guarding the dates being written.
+     * @param eventPublisher    Publisher of the change events following every write.
      */
-    @Autowired // Autowires the BlockRepository dependency.
-    public BlockService(BlockRepository blockRepository) {
+    @Autowired // Autowires the BlockService dependencies.
+    public BlockService(BlockRepository blockRepository, OccupancyCalendar occupancyCalendar, DateStripedLocks dateLocks,
+                        ApplicationEventPublisher eventPublisher) {
         this.blockRepository = blockRepository;
+        this.occupancyCalendar = occupancyCalendar;
+        this.dateLocks = dateLocks;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Loads every persisted block into the occupancy calendar on startup.
+     */
+    @PostConstruct
+    public void rebuildOccupancyCalendar() {
+        occupancyCalendar.rebuildBlocks(blockRepository.findAll());
     }
 
     /**
@@ -37,7 +74,14 @@ public class BlockService {
      */
     public Block createBlock(Block block) {
         // Here, you can add validations or business logic before saving the block.
-        return blockRepository.save(block);
+        block.setId(null); // New blocks always get a fresh ID, whatever the request carried.
+        try (DateStripedLocks.Held held = dateLocks.lock(block.getPropertyId(), block.getStartDate(), block.getEndDate())) {
+            Block savedBlock = blockRepository.save(block);
+            occupancyCalendar.putBlock(savedBlock);
+            eventPublisher.publishEvent(new BlockChangedEvent(savedBlock, false));
+            eventPublisher.publishEvent(OccupancyChangedEvent.of(savedBlock));
+            return savedBlock;
+        }
     }
 
     /**
@@ -51,6 +95,9 @@ public class BlockService {
         Optional<Block> block = blockRepository.findById(id);
         if (block.isPresent()) {
             blockRepository.delete(block.get());
+            occupancyCalendar.removeBlock(id);
+            eventPublisher.publishEvent(new BlockChangedEvent(block.get(), true));
+            eventPublisher.publishEvent(OccupancyChangedEvent.of(block.get()));
             return true;
         }
         return false;
@@ -58,12 +105,52 @@ public class BlockService {
 
     /**
      * Lists all existing blocks.
-     * Retrieves a list of all blocks from the database.
+     * Retrieves them from the database as read-only views.
+     *
+     * @return Views of all blocks, ordered by ID.
+     */
+    @Transactional(readOnly = true)
+    public List<BlockView> getAllBlocks() {
+        return blockRepository.findAllViews();
+    }
+
+    /**
+     * Retrieves one page of blocks as read-only views, using keyset pagination.
+     *
+     * @param afterId The last ID of the previous page, or null for the first page.
+     * @param limit   The requested page size, capped at {@link #MAX_PAGE_SIZE}.
+     * @return Up to {@code limit} block views ordered by ID.
+     */
+    @Transactional(readOnly = true)
+    public List<BlockView> getBlocksPage(Long afterId, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return blockRepository.findPageAfter(afterId == null ? 0L : afterId, Limit.of(pageSize));
+    }
+
+    /**
+     * Passes every block to an action, reading them from a database cursor as views.
+     * Views are not tracked by the persistence context, so memory use does not depend on the table size.
+     *
+     * @param action The action receiving each block, in ID order.
+     */
+    @Transactional(readOnly = true)
+    public void forEachBlock(Consumer<BlockView> action) {
+        try (Stream<BlockView> blocks = blockRepository.streamAll()) {
+            blocks.forEach(action);
+        }
+    }
+
+    /**
+     * Checks if any night of a date range is blocked at a property.
+     * The lookup is served by the property's partition of the in-memory calendar.
      *
-     * @return A list of blocks.
+     * @param propertyId The property to check.
+     * @param startDate  The first night of the range.
+     * @param endDate    The end of the range (exclusive).
+     * @return true if at least one block of the property overlaps the range, false otherwise.
      */
-    public List<Block> getAllBlocks() {
-        return blockRepository.findAll();
+    public boolean isRangeBlocked(Long propertyId, LocalDate startDate, LocalDate endDate) {
+        return occupancyCalendar.isBlocked(propertyId, startDate, endDate);
     }
 
     // Here, add other methods, such as a method to update a block.
@@ -1,33 +1,104 @@
 package com.bookingmanagerservice.service;
 
+import com.bookingmanagerservice.calendar.DateStripedLocks;
+import com.bookingmanagerservice.calendar.OccupancyCalendar;
+import com.bookingmanagerservice.dto.BatchImportResult;
+import com.bookingmanagerservice.dto.BookingView;
+import com.bookingmanagerservice.event.BookingChangedEvent;
+import com.bookingmanagerservice.event.OccupancyChangedEvent;
+import com.bookingmanagerservice.metrics.BookingMetrics;
 import com.bookingmanagerservice.model.Booking;
+import com.bookingmanagerservice.repository.BlockRepository;
 import com.bookingmanagerservice.repository.BookingRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Service class that manages operations related to bookings.
  * This class contains the business logic for handling bookings, such as creation, updating, cancellation, and rescheduling.
  */
 @Service // Marks this class as a service component in the Spring framework.
+@Timed("booking.service") // Records a latency histogram for every public operation.
 public class BookingService {
 
+    /**
+     * Largest page returned by {@link #getBookingsPage(Long, int)}.
+     */
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    /**
+     * Rows of a streamed upload checked and saved together by {@link #importBookings(List, int)}.
+     */
+    public static final int IMPORT_CHUNK = 500;
+
+    /**
+     * Where write conflicts are detected, selected with the {@code booking.conflict-check} property.
+     */
+    public enum ConflictCheck {
+        /**
+         * Bitmap lookup on the in-memory occupancy calendar (default).
+         */
+        MEMORY,
+        /**
+         * Indexed exists probes on the booking and block tables, for deployments sharing the database.
+         */
+        DATABASE
+    }
+
     private final BookingRepository bookingRepository; // Dependency on the booking repository.
+    private final BlockRepository blockRepository; // Probed for blocks in database conflict-check mode.
+    private final OccupancyCalendar occupancyCalendar; // In-memory calendar used for conflict checks.
+    private final DateStripedLocks dateLocks; // Serializes check-then-save on overlapping dates only.
+    private final BookingMetrics bookingMetrics; // Conflict-check latency and outcome counters.
+    private final ApplicationEventPublisher eventPublisher; // Announces every write, e.g. to the availability cache.
+
+    @Value("${booking.conflict-check:memory}")
+    private ConflictCheck conflictCheck = ConflictCheck.MEMORY; // Where conflicts are detected.
 
     /**
-     * Constructor for dependency injection of the BookingRepository.
+     * Constructor for dependency injection of the repositories, the occupancy calendar, the date locks,
+     * the metrics and the event publisher.
      *
      * @param bookingRepository Repository that handles booking operations.
+     * @param blockRepository Repository of the blocks, probed in database conflict-check mode.
+     * @param occupancyCalendar In-memory calendar used for conflict checks.
+     * @param dateLocks Striped locks guarding the dates being written.
+     * @param bookingMetrics Metrics of the conflict checks.
+     * @param eventPublisher Publisher of the change events following every write.
      */
     @Autowired
-    public BookingService(BookingRepository bookingRepository) {
+    public BookingService(BookingRepository bookingRepository, BlockRepository blockRepository, OccupancyCalendar occupancyCalendar,
+                          DateStripedLocks dateLocks, BookingMetrics bookingMetrics, ApplicationEventPublisher eventPublisher) {
         this.bookingRepository = bookingRepository;
+        this.blockRepository = blockRepository;
+        this.occupancyCalendar = occupancyCalendar;
+        this.dateLocks = dateLocks;
+        this.bookingMetrics = bookingMetrics;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Loads every persisted booking into the occupancy calendar on startup.
+     */
+    @PostConstruct
+    public void rebuildOccupancyCalendar() {
+        occupancyCalendar.rebuildBookings(bookingRepository.findAll());
     }
 
     /**
@@ -38,60 +109,221 @@ public class BookingService {
      */
     // Returns an Optional of Booking if creation is successful, or an Optional of String if there's an error (dates overlap).
     public Optional<Booking> createBooking(Booking booking) {
-        if (!areDatesAvailable(booking.getStartDate(), booking.getEndDate())) {
-            // Handle the case where dates are unavailable, possibly by throwing an exception or using another approach.
-            return Optional.empty();
+        booking.setId(null); // New bookings always get a fresh ID, whatever the request carried.
+        // Lock the weeks of the stay so no overlapping write can slip in between the check and the save.
+        try (DateStripedLocks.Held held = dateLocks.lock(booking.getPropertyId(), booking.getStartDate(), booking.getEndDate())) {
+            if (!bookingMetrics.checkConflicts("createBooking",
+                    () -> areDatesAvailable(booking.getPropertyId(), booking.getStartDate(), booking.getEndDate()))) {
+                // Handle the case where dates are unavailable, possibly by throwing an exception or using another approach.
+                return Optional.empty();
+            }
+            Booking savedBooking = bookingRepository.save(booking);
+            occupancyCalendar.putBooking(savedBooking);
+            eventPublisher.publishEvent(new BookingChangedEvent(savedBooking, false));
+            eventPublisher.publishEvent(OccupancyChangedEvent.of(savedBooking));
+            return Optional.of(savedBooking);
         }
-        return Optional.of(bookingRepository.save(booking));
     }
 
 
     /**
-     * Checks if the dates of a booking are available.
+     * Imports many bookings at once.
+     * The rows are sorted by property and start date and checked in a single sweep against each other
+     * and against the occupancy calendar; the accepted rows are then saved in one JDBC-batched transaction.
+     * A row is rejected, without affecting the others, if it is malformed, has no nights,
+     * overlaps existing bookings or blocks of its property, or overlaps an earlier accepted row of
+     * the same batch and property.
      *
+     * @param bookings The rows to import. Null entries stand for rows that could not be parsed.
+     * @return The number of accepted and rejected rows, and the outcome of each row.
+     */
+    public BatchImportResult importBookings(List<Booking> bookings) {
+        return importBookings(bookings, 0);
+    }
+
+    /**
+     * Imports one chunk of a larger upload, read and imported chunk by chunk.
+     * Rows are checked against each other within the chunk, and against the rows of earlier chunks
+     * through the occupancy calendar; outcomes are numbered by position in the whole upload.
+     *
+     * @param bookings   The rows of the chunk. Null entries stand for rows that could not be parsed.
+     * @param firstIndex The position of the first row of the chunk in the upload.
+     * @return The number of accepted and rejected rows, and the outcome of each row of the chunk.
+     */
+    public BatchImportResult importBookings(List<Booking> bookings, int firstIndex) {
+        BatchImportResult.Item[] items = new BatchImportResult.Item[bookings.size()];
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < bookings.size(); i++) {
+            String problem = validateImportRow(bookings.get(i));
+            if (problem != null) {
+                items[i] = BatchImportResult.Item.rejected(firstIndex + i, problem);
+                continue;
+            }
+            Booking booking = bookings.get(i);
+            booking.setId(null); // Imported rows always create new bookings.
+            candidates.add(i);
+        }
+        candidates.sort(Comparator.comparing((Integer i) -> bookings.get(i).getPropertyId())
+                .thenComparing(i -> bookings.get(i).getStartDate()));
+
+        try (DateStripedLocks.Held held = dateLocks.lockAll(candidates.stream().map(bookings::get).toList())) {
+            List<Booking> accepted = new ArrayList<>();
+            List<Integer> acceptedIndexes = new ArrayList<>();
+            int lastAcceptedIndex = -1;
+            for (int i : candidates) {
+                Booking booking = bookings.get(i);
+                if (lastAcceptedIndex >= 0 && !bookings.get(lastAcceptedIndex).getPropertyId().equals(booking.getPropertyId())) {
+                    lastAcceptedIndex = -1; // First row of the next property.
+                }
+                // Accepted rows of a property never overlap each other, so only the latest one can reach this row.
+                if (lastAcceptedIndex >= 0 && booking.getStartDate().isBefore(bookings.get(lastAcceptedIndex).getEndDate())) {
+                    items[i] = BatchImportResult.Item.rejected(firstIndex + i, "Overlaps row " + (firstIndex + lastAcceptedIndex) + " of the batch.");
+                } else if (!isFree(booking.getPropertyId(), booking.getStartDate(), booking.getEndDate(), null)) {
+                    items[i] = BatchImportResult.Item.rejected(firstIndex + i, "Booking dates are unavailable.");
+                } else {
+                    accepted.add(booking);
+                    acceptedIndexes.add(i);
+                    lastAcceptedIndex = i;
+                }
+            }
+
+            List<Booking> saved = bookingRepository.saveAll(accepted);
+            for (int k = 0; k < saved.size(); k++) {
+                occupancyCalendar.putBooking(saved.get(k));
+                eventPublisher.publishEvent(new BookingChangedEvent(saved.get(k), false));
+                eventPublisher.publishEvent(OccupancyChangedEvent.of(saved.get(k)));
+                int index = acceptedIndexes.get(k);
+                items[index] = BatchImportResult.Item.accepted(firstIndex + index, saved.get(k).getId());
+            }
+            return new BatchImportResult(saved.size(), items.length - saved.size(), Arrays.asList(items));
+        }
+    }
+
+    /**
+     * Checks an imported row for the problems that would make it fail on its own.
+     *
+     * @param booking The row to check.
+     * @return A description of the problem, or null if the row is well-formed.
+     */
+    private String validateImportRow(Booking booking) {
+        if (booking == null) {
+            return "Malformed row.";
+        }
+        if (booking.getStartDate() == null || booking.getEndDate() == null) {
+            return "Start and end dates are required.";
+        }
+        if (!booking.getEndDate().isAfter(booking.getStartDate())) {
+            return "End date must be after start date.";
+        }
+        if (booking.getGuestDetails() == null || booking.getGuestDetails().isBlank()) {
+            return "Guest details cannot be empty.";
+        }
+        return null;
+    }
+
+    /**
+     * Checks if the dates of a booking are available at a property.
+     *
+     * @param propertyId The property of the booking.
      * @param startDate The start date of the booking.
      * @param endDate The end date of the booking.
      * @return true if the dates are available, false otherwise.
      */
-    public boolean areDatesAvailable(LocalDate startDate, LocalDate endDate) {
-        List<Booking> allBookings = bookingRepository.findAll(); // Retrieve all existing bookings.
+    public boolean areDatesAvailable(Long propertyId, LocalDate startDate, LocalDate endDate) {
+        return areDatesAvailable(propertyId, startDate, endDate, null);
+    }
 
-        for (Booking existingBooking : allBookings) {
-            if (dateRangesOverlap(existingBooking.getStartDate(), existingBooking.getEndDate(), startDate, endDate)) {
-                return false; // The dates are not available as they overlap with an existing booking.
-            }
+    /**
+     * Checks if the dates of a booking are available at a property, ignoring one existing booking.
+     * By default the stay is validated against the property's bookings and blocks in a single
+     * lookup on its partition of the in-memory calendar; in database conflict-check mode it costs
+     * one indexed exists probe per table instead.
+     * The end date is the check-out day, so it does not conflict with a stay starting that day.
+     *
+     * @param propertyId The property of the booking.
+     * @param startDate The start date of the booking.
+     * @param endDate The end date of the booking.
+     * @param excludeId ID of a booking to ignore (e.g. the one being rescheduled), or null.
+     * @return true if the dates are available, false otherwise.
+     */
+    public boolean areDatesAvailable(Long propertyId, LocalDate startDate, LocalDate endDate, Long excludeId) {
+        if (startDate != null && endDate != null && !endDate.isAfter(startDate)) {
+            return false; // A stay must cover at least one night.
         }
-        return true; // The dates are available.
+        return isFree(propertyId, startDate, endDate, excludeId);
     }
 
     /**
-     * Helper method to check if two date ranges overlap.
-     *
-     * @param start1 Start date of the first range.
-     * @param end1 End date of the first range.
-     * @param start2 Start date of the second range.
-     * @param end2 End date of the second range.
-     * @return true if the ranges overlap, false otherwise.
+     * Checks a stay against bookings and blocks, wherever the configured conflict check looks.
      */
-    private boolean dateRangesOverlap(LocalDate start1, LocalDate end1, LocalDate start2, LocalDate end2) {
-        return !start1.isAfter(end2) && !start2.isAfter(end1);
+    private boolean isFree(Long propertyId, LocalDate startDate, LocalDate endDate, Long excludeId) {
+        if (conflictCheck == ConflictCheck.MEMORY || startDate == null || endDate == null) {
+            return occupancyCalendar.isAvailable(propertyId, startDate, endDate, excludeId);
+        }
+        return !bookingRepository.existsOverlapping(propertyId, startDate, endDate, excludeId)
+                && !blockRepository.existsOverlapping(propertyId, startDate, endDate);
     }
 
     /**
-     * Updates an existing booking.
+     * Updates an existing booking, whatever its current version.
      *
      * @param id The ID of the booking to update.
      * @param booking The updated booking details.
      * @return An Optional containing the updated booking, or an empty Optional if the booking is not found.
+     * @throws DatesUnavailableException If the new dates are held by another booking or a block.
      */
     public Optional<Booking> updateBooking(Long id, Booking booking) {
-        if (!bookingRepository.existsById(id)) {
-            return Optional.empty(); // The booking with the provided ID was not found.
+        return updateBooking(id, booking, null);
+    }
+
+    /**
+     * Updates an existing booking with a single conditional statement.
+     * With an expected version the update is one round trip; without one, the current version is
+     * read first. Either way the statement only applies if nobody changed the booking in between.
+     *
+     * @param id The ID of the booking to update.
+     * @param booking The updated booking details.
+     * @param expectedVersion The version the client last read (e.g. from If-Match), or null to update the latest one.
+     * @return An Optional containing the updated booking, or an empty Optional if the booking is not found.
+     * @throws OptimisticLockingFailureException If the booking is not at the expected version,
+     *                                           or was changed concurrently.
+     * @throws DatesUnavailableException If the new dates are held by another booking or a block.
+     */
+    public Optional<Booking> updateBooking(Long id, Booking booking, Long expectedVersion) {
+        Long version = expectedVersion;
+        Booking previous = null; // Only read without an expected version.
+        if (version == null) {
+            Optional<Booking> current = bookingRepository.findById(id);
+            if (!current.isPresent()) {
+                return Optional.empty(); // The booking with the provided ID was not found.
+            }
+            previous = current.get();
+            version = previous.getVersion();
         }
 
         booking.setId(id); // Ensure the booking has the correct ID.
-        Booking updatedBooking = bookingRepository.save(booking);
-        return Optional.of(updatedBooking);
+        try (DateStripedLocks.Held held = dateLocks.lock(booking.getPropertyId(), booking.getStartDate(), booking.getEndDate())) {
+            if (!bookingMetrics.checkConflicts("updateBooking",
+                    () -> areDatesAvailable(booking.getPropertyId(), booking.getStartDate(), booking.getEndDate(), id))) {
+                throw new DatesUnavailableException("Booking dates are unavailable.");
+            }
+            int updated = bookingRepository.updateIfVersion(id, version, booking.getPropertyId(),
+                    booking.getStartDate(), booking.getEndDate(), booking.getGuestDetails());
+            if (updated == 0) {
+                // Only the losing path pays for a second query, to tell a stale version from a missing booking.
+                if (expectedVersion != null && !bookingRepository.existsById(id)) {
+                    return Optional.empty();
+                }
+                throw new OptimisticLockingFailureException("Booking " + id + " is no longer at version " + version + ".");
+            }
+            booking.setVersion(version + 1);
+            occupancyCalendar.putBooking(booking);
+            // Without the previous row, the nights the booking left (maybe at another property) are unknown.
+            eventPublisher.publishEvent(previous != null ? OccupancyChangedEvent.of(previous) : OccupancyChangedEvent.everywhere());
+            eventPublisher.publishEvent(new BookingChangedEvent(booking, false));
+            eventPublisher.publishEvent(OccupancyChangedEvent.of(booking));
+            return Optional.of(booking);
+        }
     }
 
     /**
@@ -101,44 +333,119 @@ public class BookingService {
      * @return true if the booking was successfully canceled, false otherwise.
      */
     public boolean cancelBooking(Long id) {
-        Optional<Booking> bookingOpt = bookingRepository.findById(id);
-        if (bookingOpt.isPresent()) {
-            Booking booking = bookingOpt.get();
-            // Add additional logic if necessary, such as changing the status of the booking to 'canceled'.
-            bookingRepository.delete(booking);
-            return true;
-        }
-        return false; // The booking with the provided ID was not found.
+        // Add additional logic if necessary, such as changing the status of the booking to 'canceled'.
+        return removeBooking(id); // false if the booking with the provided ID was not found.
     }
 
     /**
-     * Reschedules an existing booking.
+     * Reschedules an existing booking, whatever its current version.
      *
      * @param id The ID of the booking to be rescheduled.
      * @param newDates The new booking details for rescheduling.
      * @return An Optional containing the rescheduled booking, or an empty Optional if the booking cannot be rescheduled.
      */
-    // Returns an Optional of Booking if rescheduling is successful, or an Optional of String if there's an error (dates overlap).
     public Optional<Booking> rescheduleBooking(Long id, Booking newDates) {
+        return rescheduleBooking(id, newDates, null);
+    }
+
+    /**
+     * Reschedules an existing booking.
+     * The dates are moved by a single conditional statement, so a concurrent edit of the same
+     * booking makes this call fail instead of being overwritten.
+     *
+     * @param id The ID of the booking to be rescheduled.
+     * @param newDates The new booking details for rescheduling.
+     * @param expectedVersion The version the client last read (e.g. from If-Match), or null for the latest one.
+     * @return An Optional containing the rescheduled booking, or an empty Optional if the booking cannot be rescheduled.
+     * @throws OptimisticLockingFailureException If the booking is not at the expected version,
+     *                                           or was changed concurrently.
+     */
+    public Optional<Booking> rescheduleBooking(Long id, Booking newDates, Long expectedVersion) {
         Optional<Booking> existingBooking = bookingRepository.findById(id);
-        if (!existingBooking.isPresent() || !areDatesAvailable(newDates.getStartDate(), newDates.getEndDate())) {
+        if (!existingBooking.isPresent()) {
             return Optional.empty();
         }
-
         Booking bookingToUpdate = existingBooking.get();
-        bookingToUpdate.setStartDate(newDates.getStartDate());
-        bookingToUpdate.setEndDate(newDates.getEndDate());
-        // Update other necessary details
-        return Optional.of(bookingRepository.save(bookingToUpdate));
+        Long version = bookingToUpdate.getVersion();
+        if (expectedVersion != null && !expectedVersion.equals(version)) {
+            // Stale clients lose before taking any lock.
+            throw new OptimisticLockingFailureException("Booking " + id + " is no longer at version " + expectedVersion + ".");
+        }
+
+        // Only the new dates need locking: releasing the old nights can never cause a double booking.
+        // The booking stays at its property; only its dates move.
+        Long propertyId = bookingToUpdate.getPropertyId();
+        try (DateStripedLocks.Held held = dateLocks.lock(propertyId, newDates.getStartDate(), newDates.getEndDate())) {
+            if (!bookingMetrics.checkConflicts("rescheduleBooking",
+                    () -> areDatesAvailable(propertyId, newDates.getStartDate(), newDates.getEndDate(), id))) {
+                return Optional.empty();
+            }
+
+            if (bookingRepository.rescheduleIfVersion(id, version, newDates.getStartDate(), newDates.getEndDate()) == 0) {
+                throw new OptimisticLockingFailureException("Booking " + id + " was changed while being rescheduled.");
+            }
+            OccupancyChangedEvent released = OccupancyChangedEvent.of(bookingToUpdate);
+            bookingToUpdate.setStartDate(newDates.getStartDate());
+            bookingToUpdate.setEndDate(newDates.getEndDate());
+            bookingToUpdate.setVersion(version + 1);
+            occupancyCalendar.putBooking(bookingToUpdate);
+            eventPublisher.publishEvent(new BookingChangedEvent(bookingToUpdate, false));
+            eventPublisher.publishEvent(released);
+            eventPublisher.publishEvent(OccupancyChangedEvent.of(bookingToUpdate));
+            return Optional.of(bookingToUpdate);
+        }
+    }
+
+    /**
+     * Retrieves all bookings as read-only views.
+     *
+     * @return Views of all bookings, ordered by ID.
+     */
+    @Transactional(readOnly = true)
+    public List<BookingView> getAllBookings() {
+        return bookingRepository.findAllViews();
+    }
+
+    /**
+     * Retrieves one page of bookings as read-only views, using keyset pagination.
+     *
+     * @param afterId The last ID of the previous page, or null for the first page.
+     * @param limit The requested page size, capped at {@link #MAX_PAGE_SIZE}.
+     * @return Up to {@code limit} booking views ordered by ID.
+     */
+    @Transactional(readOnly = true)
+    public List<BookingView> getBookingsPage(Long afterId, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return bookingRepository.findPageAfter(afterId == null ? 0L : afterId, Limit.of(pageSize));
     }
 
     /**
-     * Retrieves all bookings.
+     * Searches bookings by a prefix of the guest details, ignoring case, accents and extra spaces,
+     * one keyset page at a time in (guest, ID) order.
      *
-     * @return A list of all bookings.
+     * @param guestPrefix The start of the guest details.
+     * @param afterGuest  The guest key of the last booking of the previous page, or null for the first page.
+     * @param afterId     The ID of the last booking of the previous page, or null for the first page.
+     * @param limit       The requested page size, capped at {@link #MAX_PAGE_SIZE}.
+     * @return Up to {@code limit} booking views.
      */
-    public List<Booking> getAllBookings() {
-        return bookingRepository.findAll();
+    @Transactional(readOnly = true)
+    public List<BookingView> searchBookingsByGuest(String guestPrefix, String afterGuest, Long afterId, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return bookingRepository.findByGuestPrefix(guestPrefix, afterGuest, afterId, Limit.of(pageSize));
+    }
+
+    /**
+     * Passes every booking to an action, reading them from a database cursor as views.
+     * Views are not tracked by the persistence context, so memory use does not depend on the table size.
+     *
+     * @param action The action receiving each booking, in ID order.
+     */
+    @Transactional(readOnly = true)
+    public void forEachBooking(Consumer<BookingView> action) {
+        try (Stream<BookingView> bookings = bookingRepository.streamAll()) {
+            bookings.forEach(action);
+        }
     }
 
     /**
@@ -148,10 +455,36 @@ public class BookingService {
      * @return true if the booking was successfully deleted, false otherwise.
      */
     public boolean deleteBooking(Long id) {
-        if (bookingRepository.existsById(id)) {
-            bookingRepository.deleteById(id);
-            return true;
+        return removeBooking(id);
+    }
+
+    // Helpers
+
+    /**
+     * Deletes the version of a booking that was read, so the removal announced to listeners (and
+     * journaled) carries the version actually deleted. A write committed in between makes the
+     * delete fail optimistically, and it is retried against the new version.
+     * The booking's dates are locked, as by updates and reschedules, so the calendar drops the
+     * booking after any write that moved it there has put it, never before.
+     */
+    private boolean removeBooking(Long id) {
+        while (true) {
+            Optional<Booking> current = bookingRepository.findById(id);
+            if (!current.isPresent()) {
+                return false;
+            }
+            Booking booking = current.get();
+            try (DateStripedLocks.Held held = dateLocks.lock(booking.getPropertyId(), booking.getStartDate(), booking.getEndDate())) {
+                try {
+                    bookingRepository.delete(booking);
+                } catch (OptimisticLockingFailureException e) {
+                    continue; // Changed since it was read: delete the newer version, under its own dates.
+                }
+                occupancyCalendar.removeBooking(id);
+                eventPublisher.publishEvent(new BookingChangedEvent(booking, true));
+                eventPublisher.publishEvent(OccupancyChangedEvent.of(booking));
+                return true;
+            }
         }
-        return false;
     }
 }
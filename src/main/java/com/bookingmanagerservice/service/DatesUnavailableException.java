@@ -0,0 +1,17 @@
+package com.bookingmanagerservice.service;
+
+/**
+ * Thrown when a booking would be written onto nights already held by another booking or a block.
+ * Controllers answer it with 409 Conflict.
+ */
+public class DatesUnavailableException extends RuntimeException {
+
+    /**
+     * Creates the exception.
+     *
+     * @param message Description of the conflict.
+     */
+    public DatesUnavailableException(String message) {
+        super(message);
+    }
+}
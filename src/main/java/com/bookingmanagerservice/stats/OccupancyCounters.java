@@ -0,0 +1,283 @@
+package com.bookingmanagerservice.stats;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-night occupancy counts of every (property, month), with the booked and blocked night totals
+ * of each month kept up to date as stays are added and removed. A night is booked if a booking
+ * holds it, blocked if only blocks hold it, and free otherwise, so overlapping blocks, or a block
+ * under a booking, are never counted twice. The stay of every booking and block ID is remembered,
+ * so a change is applied from the new state alone: the old nights are released, the new ones taken.
+ * Safe for concurrent writers: each month is updated under its own lock.
+ */
+final class OccupancyCounters {
+
+    private static final int LEAF_STAYS = 4096; // Stays below which a recompute task stops splitting.
+
+    private final ConcurrentMap<Long, Property> properties = new ConcurrentHashMap<>(); // Months of each property.
+    private final ConcurrentMap<Long, Stay> bookings = new ConcurrentHashMap<>(); // Counted stay of each booking ID.
+    private final ConcurrentMap<Long, Stay> blocks = new ConcurrentHashMap<>(); // Counted stay of each block ID.
+
+    /**
+     * Counts a booking or block, replacing the nights it held before, if any.
+     *
+     * @param stay The new nights of the booking or block.
+     */
+    void put(Stay stay) {
+        index(stay.block()).compute(stay.id(), (id, previous) -> {
+            if (previous != null) {
+                count(previous, -1);
+            }
+            count(stay, 1);
+            return stay;
+        });
+    }
+
+    /**
+     * Releases the nights of a booking or block; unknown IDs are ignored.
+     *
+     * @param block true for a block, false for a booking.
+     * @param id    The ID of the removed booking or block.
+     */
+    void remove(boolean block, long id) {
+        index(block).computeIfPresent(id, (key, previous) -> {
+            count(previous, -1);
+            return null;
+        });
+    }
+
+    /**
+     * Rebuilds the counters of a set of stays on a fork/join pool. The stays are sorted by start, and
+     * the months they span are split recursively into ranges of contiguous months until a range holds
+     * few stays; each range then counts, on its own thread, the nights of its stays that fall inside
+     * it. Ranges share no month, so the tasks never contend.
+     *
+     * @param stays The bookings and blocks to count, unique by kind and ID.
+     * @param pool  The pool running the tasks.
+     * @return The counters of the stays.
+     */
+    static OccupancyCounters recompute(Collection<Stay> stays, ForkJoinPool pool) {
+        OccupancyCounters counters = new OccupancyCounters();
+        Stay[] sorted = stays.stream()
+                .sorted((a, b) -> Long.compare(a.startDay(), b.startDay()))
+                .toArray(Stay[]::new);
+        long maxNights = 0;
+        for (Stay stay : sorted) {
+            counters.index(stay.block()).put(stay.id(), stay);
+            counters.property(stay.propertyId()).stays.incrementAndGet();
+            maxNights = Math.max(maxNights, stay.endDay() - stay.startDay());
+        }
+        if (sorted.length > 0) {
+            long[] starts = Arrays.stream(sorted).mapToLong(Stay::startDay).toArray();
+            long lastDay = Math.max(starts[0], Arrays.stream(sorted).mapToLong(Stay::endDay).max().getAsLong() - 1);
+            pool.invoke(counters.new Partition(sorted, starts, maxNights,
+                    monthIndex(LocalDate.ofEpochDay(starts[0])), monthIndex(LocalDate.ofEpochDay(lastDay)) + 1));
+        }
+        return counters;
+    }
+
+    /**
+     * @param propertyId The property to read.
+     * @param month      The month to read.
+     * @return The booked and blocked nights of the property in the month.
+     */
+    long[] nights(long propertyId, YearMonth month) {
+        Property property = properties.get(propertyId);
+        Month counts = property == null ? null : property.months.get(monthIndex(month.atDay(1)));
+        return counts == null ? new long[2] : counts.totals();
+    }
+
+    /**
+     * @return The IDs of the properties currently holding at least one booking or block.
+     */
+    Set<Long> propertyIds() {
+        Set<Long> ids = new HashSet<>();
+        properties.forEach((id, property) -> {
+            if (property.stays.get() > 0) {
+                ids.add(id);
+            }
+        });
+        return ids;
+    }
+
+    /**
+     * @return The number of (property, month) counters.
+     */
+    int months() {
+        return properties.values().stream().mapToInt(property -> property.months.size()).sum();
+    }
+
+    /**
+     * Compares the totals of every (property, month) with another set of counters.
+     *
+     * @param other The counters to compare with.
+     * @return The number of (property, month) pairs whose booked or blocked nights differ.
+     */
+    int mismatches(OccupancyCounters other) {
+        Set<Long> propertyIds = new HashSet<>(properties.keySet());
+        propertyIds.addAll(other.properties.keySet());
+        int mismatches = 0;
+        for (Long propertyId : propertyIds) {
+            Set<Integer> months = new HashSet<>();
+            for (OccupancyCounters counters : List.of(this, other)) {
+                Property property = counters.properties.get(propertyId);
+                if (property != null) {
+                    months.addAll(property.months.keySet());
+                }
+            }
+            for (Integer month : months) {
+                YearMonth yearMonth = YearMonth.of(Math.floorDiv(month, 12), Math.floorMod(month, 12) + 1);
+                if (!Arrays.equals(nights(propertyId, yearMonth), other.nights(propertyId, yearMonth))) {
+                    mismatches++;
+                }
+            }
+        }
+        return mismatches;
+    }
+
+    private ConcurrentMap<Long, Stay> index(boolean block) {
+        return block ? blocks : bookings;
+    }
+
+    private Property property(long propertyId) {
+        return properties.computeIfAbsent(propertyId, id -> new Property());
+    }
+
+    private void count(Stay stay, int delta) {
+        property(stay.propertyId()).stays.addAndGet(delta);
+        count(stay, stay.startDay(), stay.endDay(), delta);
+    }
+
+    /**
+     * Adds or removes the nights of a stay that fall inside a range of days, month by month.
+     */
+    private void count(Stay stay, long fromDay, long toDay, int delta) {
+        Property property = property(stay.propertyId());
+        long day = Math.max(stay.startDay(), fromDay);
+        long end = Math.min(stay.endDay(), toDay);
+        while (day < end) {
+            LocalDate date = LocalDate.ofEpochDay(day);
+            long monthStart = day - date.getDayOfMonth() + 1;
+            long until = Math.min(end, monthStart + date.lengthOfMonth());
+            property.months.computeIfAbsent(monthIndex(date), month -> new Month(date.lengthOfMonth()))
+                    .count(stay.block(), (int) (day - monthStart), (int) (until - monthStart), delta);
+            day = until;
+        }
+    }
+
+    private static int monthIndex(LocalDate date) {
+        return date.getYear() * 12 + date.getMonthValue() - 1;
+    }
+
+    private static long firstDay(int monthIndex) {
+        return LocalDate.of(Math.floorDiv(monthIndex, 12), Math.floorMod(monthIndex, 12) + 1, 1).toEpochDay();
+    }
+
+    /**
+     * Counters of one property: its months, and how many stays it holds.
+     */
+    private static final class Property {
+        private final ConcurrentMap<Integer, Month> months = new ConcurrentHashMap<>(); // Keyed by year * 12 + month - 1.
+        private final AtomicInteger stays = new AtomicInteger(); // Bookings and blocks currently counted.
+    }
+
+    /**
+     * Bookings and blocks holding each night of one month of one property, with the month's totals.
+     */
+    private static final class Month {
+        private final int[] bookings; // Bookings holding each night.
+        private final int[] blocks; // Blocks holding each night.
+        private long booked; // Nights held by a booking.
+        private long blocked; // Nights held only by blocks.
+
+        private Month(int days) {
+            this.bookings = new int[days];
+            this.blocks = new int[days];
+        }
+
+        private synchronized void count(boolean block, int fromNight, int toNight, int delta) {
+            int[] holders = block ? blocks : bookings;
+            for (int night = fromNight; night < toNight; night++) {
+                boolean wasBooked = bookings[night] > 0;
+                boolean wasBlocked = !wasBooked && blocks[night] > 0;
+                holders[night] += delta;
+                boolean isBooked = bookings[night] > 0;
+                boolean isBlocked = !isBooked && blocks[night] > 0;
+                booked += (isBooked ? 1 : 0) - (wasBooked ? 1 : 0);
+                blocked += (isBlocked ? 1 : 0) - (wasBlocked ? 1 : 0);
+            }
+        }
+
+        private synchronized long[] totals() {
+            return new long[] {booked, blocked};
+        }
+    }
+
+    /**
+     * Recompute task counting the nights of a range of months. A stay reaches into the range only if
+     * it starts before the range ends and at most the longest stay before the range starts, which
+     * bounds the slice of sorted stays each task scans.
+     */
+    private final class Partition extends RecursiveAction {
+        private final Stay[] stays; // All stays, sorted by start.
+        private final long[] starts; // Start day of each stay.
+        private final long maxNights; // Length of the longest stay.
+        private final int firstMonth; // First month of the range.
+        private final int endMonth; // End of the range (exclusive).
+
+        private Partition(Stay[] stays, long[] starts, long maxNights, int firstMonth, int endMonth) {
+            this.stays = stays;
+            this.starts = starts;
+            this.maxNights = maxNights;
+            this.firstMonth = firstMonth;
+            this.endMonth = endMonth;
+        }
+
+        @Override
+        protected void compute() {
+            long fromDay = firstDay(firstMonth);
+            long toDay = firstDay(endMonth);
+            int from = lowerBound(fromDay - maxNights);
+            int to = lowerBound(toDay);
+            if (endMonth - firstMonth > 1 && to - from > LEAF_STAYS) {
+                int middle = (firstMonth + endMonth) >>> 1;
+                invokeAll(new Partition(stays, starts, maxNights, firstMonth, middle),
+                        new Partition(stays, starts, maxNights, middle, endMonth));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                if (stays[i].endDay() > fromDay) {
+                    count(stays[i], fromDay, toDay, 1);
+                }
+            }
+        }
+
+        /**
+         * @return The index of the first stay starting on or after a day.
+         */
+        private int lowerBound(long day) {
+            int low = 0;
+            int high = starts.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (starts[middle] < day) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
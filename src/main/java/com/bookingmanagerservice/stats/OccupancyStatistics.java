@@ -0,0 +1,188 @@
+package com.bookingmanagerservice.stats;
+
+import com.bookingmanagerservice.dto.OccupancyFigures;
+import com.bookingmanagerservice.dto.OccupancyReport;
+import com.bookingmanagerservice.dto.RecomputeReport;
+import com.bookingmanagerservice.event.BlockChangedEvent;
+import com.bookingmanagerservice.event.BookingChangedEvent;
+import com.bookingmanagerservice.service.BlockService;
+import com.bookingmanagerservice.service.BookingService;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Year;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Occupancy statistics per property and month: booked nights, blocked nights and occupancy rate.
+ * The counters are updated incrementally by the {@link BookingChangedEvent}s and {@link BlockChangedEvent}s
+ * of every booking and block write, so a report is read from memory without querying the database.
+ * A full recompute rebuilds them from the database on a fork/join pool, to verify the incremental
+ * counts or to reload them after the tables were written directly.
+ */
+@Component // Registers the statistics as a singleton listening to every write.
+public class OccupancyStatistics {
+
+    private final BookingService bookingService; // Source of the bookings on a recompute.
+    private final BlockService blockService; // Source of the blocks on a recompute.
+    private final ForkJoinPool pool = ForkJoinPool.commonPool(); // Runs the recompute partitions.
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock(); // Shared by writes, exclusive to a swap.
+    private volatile OccupancyCounters counters = new OccupancyCounters(); // The live counters.
+    private Queue<Consumer<OccupancyCounters>> recording; // Changes made during a recompute; guarded by swapLock.
+
+    /**
+     * Constructor for dependency injection of the booking and block services.
+     *
+     * @param bookingService Service reading all bookings.
+     * @param blockService   Service reading all blocks.
+     */
+    @Autowired
+    public OccupancyStatistics(BookingService bookingService, BlockService blockService) {
+        this.bookingService = bookingService;
+        this.blockService = blockService;
+    }
+
+    /**
+     * Counts the bookings and blocks already in the database at startup.
+     */
+    @PostConstruct
+    public void initialize() {
+        recompute();
+    }
+
+    /**
+     * Counts the new nights of a saved booking, or releases those of a removed one.
+     *
+     * @param event The change, published by the booking service after the write.
+     */
+    @EventListener
+    public void onBookingChanged(BookingChangedEvent event) {
+        if (event.removed()) {
+            long id = event.booking().getId();
+            apply(counters -> counters.remove(false, id));
+        } else {
+            Stay stay = Stay.of(event.booking());
+            apply(counters -> counters.put(stay));
+        }
+    }
+
+    /**
+     * Counts the nights of a saved block, or releases those of a removed one.
+     *
+     * @param event The change, published by the block service after the write.
+     */
+    @EventListener
+    public void onBlockChanged(BlockChangedEvent event) {
+        if (event.removed()) {
+            long id = event.block().getId();
+            apply(counters -> counters.remove(true, id));
+        } else {
+            Stay stay = Stay.of(event.block());
+            apply(counters -> counters.put(stay));
+        }
+    }
+
+    /**
+     * Reports the occupancy of a year, month by month. Without a property, the nights of every
+     * property holding a booking or block are added up, and the available nights are those of all
+     * these properties.
+     *
+     * @param year       The year to report.
+     * @param propertyId The property to report, or null for all properties.
+     * @return The figures of each month and of the whole year.
+     */
+    public OccupancyReport occupancy(int year, Long propertyId) {
+        OccupancyCounters current = counters;
+        Set<Long> propertyIds = propertyId != null ? Set.of(propertyId) : current.propertyIds();
+        List<OccupancyFigures> months = new ArrayList<>(12);
+        long booked = 0;
+        long blocked = 0;
+        long available = 0;
+        for (int monthValue = 1; monthValue <= 12; monthValue++) {
+            YearMonth month = YearMonth.of(year, monthValue);
+            long monthBooked = 0;
+            long monthBlocked = 0;
+            for (Long id : propertyIds) {
+                long[] nights = current.nights(id, month);
+                monthBooked += nights[0];
+                monthBlocked += nights[1];
+            }
+            long monthAvailable = (long) propertyIds.size() * month.lengthOfMonth() - monthBlocked;
+            months.add(OccupancyFigures.of(month.toString(), monthBooked, monthBlocked, monthAvailable));
+            booked += monthBooked;
+            blocked += monthBlocked;
+            available += monthAvailable;
+        }
+        return new OccupancyReport(propertyId, propertyIds.size(),
+                OccupancyFigures.of(Year.of(year).toString(), booked, blocked, available), months);
+    }
+
+    /**
+     * Rebuilds the counters from all bookings and blocks in the database, then replaces the live
+     * ones. Writes are not held up while the database is read: the changes they make meanwhile are
+     * recorded and replayed onto the rebuilt counters just before the swap, which is idempotent since
+     * a change carries the whole new state of its booking or block.
+     *
+     * @return The size of the rebuild and the number of monthly counters it corrected.
+     */
+    public synchronized RecomputeReport recompute() {
+        long started = System.nanoTime();
+        swapLock.writeLock().lock();
+        try {
+            recording = new ConcurrentLinkedQueue<>();
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        try {
+            List<Stay> stays = new ArrayList<>();
+            bookingService.forEachBooking(booking -> stays.add(Stay.of(booking)));
+            blockService.forEachBlock(block -> stays.add(Stay.of(block)));
+            OccupancyCounters rebuilt = OccupancyCounters.recompute(stays, pool);
+
+            swapLock.writeLock().lock();
+            try {
+                recording.forEach(change -> change.accept(rebuilt));
+                int mismatches = counters.mismatches(rebuilt);
+                counters = rebuilt;
+                return new RecomputeReport(stays.size(), rebuilt.months(), mismatches,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+        } finally {
+            swapLock.writeLock().lock();
+            try {
+                recording = null;
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Applies a change to the live counters, and records it if a recompute is running.
+     */
+    private void apply(Consumer<OccupancyCounters> change) {
+        swapLock.readLock().lock();
+        try {
+            change.accept(counters);
+            if (recording != null) {
+                recording.add(change);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.bookingmanagerservice.stats;
+
+import com.bookingmanagerservice.dto.BlockView;
+import com.bookingmanagerservice.dto.BookingView;
+import com.bookingmanagerservice.model.Block;
+import com.bookingmanagerservice.model.Booking;
+
+/**
+ * The nights held by one booking or block, as counted by the {@link OccupancyStatistics}.
+ * Days are epoch days and, like the entities, the range is half-open: the end day is not held.
+ *
+ * @param block      true for a block, false for a booking.
+ * @param id         The ID of the booking or block.
+ * @param propertyId The property holding the nights.
+ * @param startDay   The first night held.
+ * @param endDay     The end of the range (exclusive).
+ */
+record Stay(boolean block, long id, long propertyId, long startDay, long endDay) {
+
+    static Stay of(Booking booking) {
+        return new Stay(false, booking.getId(), booking.getPropertyId(),
+                booking.getStartDate().toEpochDay(), booking.getEndDate().toEpochDay());
+    }
+
+    static Stay of(Block block) {
+        return new Stay(true, block.getId(), block.getPropertyId(),
+                block.getStartDate().toEpochDay(), block.getEndDate().toEpochDay());
+    }
+
+    static Stay of(BookingView booking) {
+        return new Stay(false, booking.id(), booking.propertyId(), booking.startDate().toEpochDay(), booking.endDate().toEpochDay());
+    }
+
+    static Stay of(BlockView block) {
+        return new Stay(true, block.id(), block.propertyId(), block.startDate().toEpochDay(), block.endDate().toEpochDay());
+    }
+}
@@ -0,0 +1,222 @@
+package com.bookingmanagerservice;
+
+import com.bookingmanagerservice.controller.BlockController;
+import com.bookingmanagerservice.controller.BookingController;
+import com.bookingmanagerservice.controller.ReactiveBlockController;
+import com.bookingmanagerservice.controller.ReactiveBookingController;
+import com.bookingmanagerservice.dto.BatchImportResult;
+import com.bookingmanagerservice.dto.BlockView;
+import com.bookingmanagerservice.dto.BookingView;
+import com.bookingmanagerservice.model.Booking;
+import com.bookingmanagerservice.service.BookingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.boot.web.embedded.netty.NettyWebServer;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the reactive build: the whole application served by WebFlux, with the reactive
+ * controllers reading through R2DBC the database the services write through JPA.
+ * Each test works on its own property, since they share the application and its database.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("reactive") // Switches the application to WebFlux on Netty.
+public class ReactiveControllersTest {
+
+    private static final LocalDate START = LocalDate.of(2031, 5, 1);
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @Autowired
+    private WebTestClient client; // Client of the running server.
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Test
+    public void onlyTheReactiveControllersAreServed() {
+        assertInstanceOf(NettyWebServer.class, ((WebServerApplicationContext) context).getWebServer());
+        assertEquals(1, context.getBeanNamesForType(ReactiveBookingController.class).length);
+        assertEquals(1, context.getBeanNamesForType(ReactiveBlockController.class).length);
+        assertEquals(0, context.getBeanNamesForType(BookingController.class).length);
+        assertEquals(0, context.getBeanNamesForType(BlockController.class).length);
+    }
+
+    @Test
+    public void bookingsAreWrittenThroughTheServiceAndReadBackThroughR2dbc() {
+        BookingView created = client.post().uri("/bookings")
+                .bodyValue(booking(101L, START, START.plusDays(3), "Ada Lovelace"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"0\"")
+                .expectBody(BookingView.class).returnResult().getResponseBody();
+        client.post().uri("/bookings")
+                .bodyValue(booking(101L, START.plusDays(2), START.plusDays(4), "Late guest"))
+                .exchange()
+                .expectStatus().isEqualTo(409);
+        client.post().uri("/bookings")
+                .bodyValue(booking(101L, START.plusDays(3), START.plusDays(5), "Ada Byron"))
+                .exchange()
+                .expectStatus().isCreated();
+
+        String etag = client.get().uri("/bookings").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$[?(@.id == " + created.id() + ")].guestDetails").isEqualTo("Ada Lovelace")
+                .returnResult().getResponseHeaders().getETag();
+        client.get().uri("/bookings").header(HttpHeaders.IF_NONE_MATCH, etag).exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+
+        client.get().uri("/bookings?limit=1").exchange()
+                .expectStatus().isOk()
+                .expectHeader().value(HttpHeaders.LINK, link -> assertTrue(link.contains("afterId=") && link.endsWith("rel=\"next\"")))
+                .expectBodyList(BookingView.class).hasSize(1);
+
+        List<BookingView> streamed = client.get().uri("/bookings").accept(MediaType.APPLICATION_NDJSON).exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(BookingView.class).getResponseBody().collectList().block();
+        assertTrue(streamed.contains(created));
+
+        client.get().uri("/bookings/search?guest=ADA&limit=1").exchange()
+                .expectStatus().isOk()
+                .expectHeader().value(HttpHeaders.LINK, link -> assertTrue(link.contains("afterGuest=ada%20byron")))
+                .expectBody().jsonPath("$[0].guestDetails").isEqualTo("Ada Byron");
+        client.get().uri("/bookings/search?guest= ").exchange().expectStatus().isBadRequest();
+
+        client.get().uri("/bookings?limit=1").accept(SMILE).exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(SMILE);
+    }
+
+    @Test
+    public void conditionalWritesKeepTheirStatuses() {
+        BookingView created = client.post().uri("/bookings")
+                .bodyValue(booking(102L, START, START.plusDays(2), "Grace Hopper"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(BookingView.class).returnResult().getResponseBody();
+
+        client.put().uri("/bookings/{id}", created.id()).header(HttpHeaders.IF_MATCH, "\"7\"")
+                .bodyValue(booking(102L, START, START.plusDays(3), "Grace Hopper"))
+                .exchange()
+                .expectStatus().isEqualTo(412);
+        client.post().uri("/bookings")
+                .bodyValue(booking(102L, START.plusDays(10), START.plusDays(12), "Next guest"))
+                .exchange()
+                .expectStatus().isCreated();
+        client.put().uri("/bookings/{id}", created.id())
+                .bodyValue(booking(102L, START.plusDays(9), START.plusDays(11), "Grace Hopper"))
+                .exchange()
+                .expectStatus().isEqualTo(409);
+        client.patch().uri("/bookings/{id}/reschedule", created.id()).header(HttpHeaders.IF_MATCH, "\"0\"")
+                .bodyValue(booking(102L, START.plusDays(5), START.plusDays(6), null))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"")
+                .expectBody().jsonPath("$.startDate").isEqualTo(START.plusDays(5).toString());
+        client.patch().uri("/bookings/{id}/reschedule", created.id()).header(HttpHeaders.IF_MATCH, "\"0\"")
+                .bodyValue(booking(102L, START.plusDays(8), START.plusDays(9), null))
+                .exchange()
+                .expectStatus().isEqualTo(412);
+
+        client.patch().uri("/bookings/{id}/cancel", created.id()).exchange().expectStatus().isOk();
+        client.delete().uri("/bookings/{id}", created.id()).exchange().expectStatus().isNotFound();
+        client.patch().uri("/bookings/{id}/cancel", created.id()).exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    public void streamedImportReportsEveryRowAtItsPositionInTheUpload() {
+        int rows = 2 * BookingService.IMPORT_CHUNK + 100;
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            LocalDate start = START.plusDays(2L * i);
+            if (i == 3) {
+                body.append("{not json\n");
+            } else if (i == BookingService.IMPORT_CHUNK + 7) {
+                // Overlaps row 0, saved by the first chunk.
+                body.append(json(103L, START, START.plusDays(1), "Chunked guest " + i)).append('\n');
+            } else if (i == rows - 1) {
+                // Overlaps the row before it, in the same chunk.
+                body.append(json(103L, start.minusDays(2), start.plusDays(1), "Chunked guest " + i)).append('\n');
+            } else {
+                body.append(json(103L, start, start.plusDays(1), "Chunked guest " + i)).append('\n');
+            }
+        }
+
+        BatchImportResult result = client.post().uri("/bookings/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue(body.toString())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(BatchImportResult.class).returnResult().getResponseBody();
+
+        assertEquals(rows - 3, result.accepted());
+        assertEquals(3, result.rejected());
+        assertEquals(rows, result.items().size());
+        for (int i = 0; i < rows; i++) {
+            assertEquals(i, result.items().get(i).index());
+        }
+        assertEquals("Malformed row.", result.items().get(3).reason());
+        assertEquals("Booking dates are unavailable.", result.items().get(BookingService.IMPORT_CHUNK + 7).reason());
+        assertEquals("Overlaps row " + (rows - 2) + " of the batch.", result.items().get(rows - 1).reason());
+
+        BatchImportResult array = client.post().uri("/bookings/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(booking(103L, START.minusDays(10), START.minusDays(9), "Array guest"),
+                        booking(103L, START, START.plusDays(1), "Array guest")))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(BatchImportResult.class).returnResult().getResponseBody();
+        assertEquals(1, array.accepted());
+        assertFalse(array.items().get(1).accepted());
+    }
+
+    @Test
+    public void blocksAreServedReactively() {
+        BlockView created = client.post().uri("/blocks")
+                .bodyValue(Map.of("propertyId", 104, "startDate", START.toString(), "endDate", START.plusDays(4).toString(),
+                        "reason", "Maintenance"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(BlockView.class).returnResult().getResponseBody();
+        client.post().uri("/blocks").bodyValue(Map.of("reason", "No dates")).exchange().expectStatus().isBadRequest();
+
+        client.get().uri("/blocks").exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(HttpHeaders.ETAG)
+                .expectBody().jsonPath("$[?(@.id == " + created.id() + ")].reason").isEqualTo("Maintenance");
+        List<BlockView> streamed = client.get().uri("/blocks").accept(MediaType.APPLICATION_NDJSON).exchange()
+                .returnResult(BlockView.class).getResponseBody().collectList().block();
+        assertTrue(streamed.contains(created));
+
+        client.post().uri("/bookings")
+                .bodyValue(booking(104L, START.plusDays(1), START.plusDays(2), "Blocked guest"))
+                .exchange()
+                .expectStatus().isEqualTo(409);
+        client.delete().uri("/blocks/{id}", created.id()).exchange().expectStatus().isOk();
+        client.delete().uri("/blocks/{id}", created.id()).exchange().expectStatus().isNotFound();
+    }
+
+    private static Booking booking(Long propertyId, LocalDate start, LocalDate end, String guestDetails) {
+        Booking booking = new Booking(start, end, guestDetails);
+        booking.setPropertyId(propertyId);
+        return booking;
+    }
+
+    private static String json(Long propertyId, LocalDate start, LocalDate end, String guestDetails) {
+        return "{\"propertyId\":" + propertyId + ",\"startDate\":\"" + start + "\",\"endDate\":\"" + end
+                + "\",\"guestDetails\":\"" + guestDetails + "\"}";
+    }
+}
@@ -0,0 +1,119 @@
+package com.bookingmanagerservice.controller;
+
+import com.bookingmanagerservice.cache.DataVersion;
+import com.bookingmanagerservice.dto.BlockView;
+import com.bookingmanagerservice.model.Block;
+import com.bookingmanagerservice.pipeline.BookingPipeline;
+import com.bookingmanagerservice.repository.ReactiveBlockRepository;
+import com.bookingmanagerservice.service.BlockService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import jakarta.validation.Valid;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+
+/**
+ * Reactive REST controller for managing property blocks.
+ * This controller serves the endpoints of {@link BlockController} when the application runs as a
+ * reactive web application: listings are read through R2DBC, writes through the block service.
+ */
+@RestController // Marks this class as a REST controller, handling WebFlux requests.
+@RequestMapping("/blocks") // Maps HTTP requests to handler methods of this controller.
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE) // Replaces BlockController in a reactive web application.
+public class ReactiveBlockController {
+
+    private final BlockService blockService; // Service layer dependency for block operations.
+    private final ReactiveBlockRepository blockRepository; // Non-blocking reads of the block table.
+    private final DataVersion dataVersion; // ETag source of the block list.
+    private final BookingPipeline pipeline; // Sequenced write path, or null in the default locked mode.
+
+    /**
+     * Constructor for dependency injection of block service and reactive repository.
+     *
+     * @param blockService    Service that manages block operations.
+     * @param blockRepository Non-blocking reads of the block table.
+     * @param dataVersion     Version of the data, used as the ETag of the list.
+     * @param pipeline        Single-writer pipeline applying new blocks, present with booking.write-mode=sequenced.
+     */
+    @Autowired // Automatically injects the dependencies created by Spring.
+    public ReactiveBlockController(BlockService blockService, ReactiveBlockRepository blockRepository,
+                                   DataVersion dataVersion, Optional<BookingPipeline> pipeline) {
+        this.blockService = blockService;
+        this.blockRepository = blockRepository;
+        this.dataVersion = dataVersion;
+        this.pipeline = pipeline.orElse(null);
+    }
+
+    /**
+     * Creates a new block.
+     * This method will handle the POST request on "/blocks" endpoint.
+     *
+     * @param block Object Block containing information about the block.
+     * @return Mono of the response with the created block and HTTP status CREATED.
+     */
+    @PostMapping
+    public Mono<ResponseEntity<Block>> createBlock(@Valid @RequestBody Block block) {
+        // Saves the block off the event loop, or on the sequencer in sequenced write mode.
+        Mono<Block> savedBlock = pipeline != null
+                ? Mono.fromFuture(() -> pipeline.createBlock(block))
+                : ReactiveResponses.offload(() -> blockService.createBlock(block));
+        return savedBlock.map(saved -> ResponseEntity.status(HttpStatus.CREATED).body(saved));
+    }
+
+    /**
+     * Deletes an existing block.
+     * This method will handle the DELETE request on "/blocks/{id}" endpoint.
+     *
+     * @param id The ID of the block being deleted.
+     * @return Mono of the response indicating the result of the operation.
+     */
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteBlock(@PathVariable Long id) {
+        return ReactiveResponses.offload(() -> blockService.deleteBlock(id))
+                .map(isDeleted -> isDeleted ? ResponseEntity.ok().<Void>build() : ResponseEntity.notFound().<Void>build());
+    }
+
+    /**
+     * Lists blocks.
+     * This method will handle the GET request on "/blocks" endpoint.
+     * With a "limit" parameter one keyset page is returned, with a Link header to the next page;
+     * otherwise the full list is streamed as a JSON array. Polls repeating the ETag in
+     * If-None-Match get 304 Not Modified until a booking or block changes.
+     *
+     * @param afterId  The last ID of the previous page, used with "limit".
+     * @param limit    The page size.
+     * @param exchange The current exchange, for If-None-Match and the Link header.
+     * @return Mono of the response with the blocks, or an empty Mono once a 304 has been set.
+     */
+    @GetMapping
+    public Mono<ResponseEntity<Flux<BlockView>>> getAllBlocks(@RequestParam(required = false) Long afterId,
+                                                              @RequestParam(required = false) Integer limit,
+                                                              ServerWebExchange exchange) {
+        return ReactiveResponses.unlessNotModified(exchange, dataVersion.etag(), () -> { // Unchanged data is answered 304.
+            if (limit != null) {
+                int pageSize = Math.max(1, Math.min(limit, BlockService.MAX_PAGE_SIZE));
+                return ReactiveResponses.page(blockRepository.findPage(afterId != null ? afterId : 0L, pageSize),
+                        pageSize, BlockView::id, exchange); // Returns one keyset page.
+            }
+            return Mono.just(ResponseEntity.ok(blockRepository.streamAll())); // Streams every block.
+        });
+    }
+
+    /**
+     * Streams all blocks as newline-delimited JSON.
+     * This method will handle the GET request on "/blocks" with "Accept: application/x-ndjson".
+     *
+     * @return Flux of the blocks, read from the database as the client consumes them.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE) // Selected only when the client asks for NDJSON.
+    public Flux<BlockView> streamBlocks() {
+        return blockRepository.streamAll();
+    }
+}
@@ -0,0 +1,306 @@
+package com.bookingmanagerservice.controller;
+
+import com.bookingmanagerservice.cache.DataVersion;
+import com.bookingmanagerservice.dto.BatchImportResult;
+import com.bookingmanagerservice.dto.BookingView;
+import com.bookingmanagerservice.model.Booking;
+import com.bookingmanagerservice.pipeline.BookingPipeline;
+import com.bookingmanagerservice.repository.ReactiveBookingRepository;
+import com.bookingmanagerservice.service.BookingService;
+import com.bookingmanagerservice.service.DatesUnavailableException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import jakarta.validation.Valid;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Reactive REST controller for managing bookings, serving the same endpoints and responses as
+ * {@link BookingController} when the application runs as a reactive web application.
+ * Listings are streamed from R2DBC, row by row as the client reads them. Writes still go through
+ * the booking service, offloaded from the event loop, so they keep the occupancy calendar, the
+ * change events and the write modes of the MVC build.
+ */
+@RestController
+@RequestMapping("/bookings")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveBookingController {
+
+    private final BookingService bookingService;
+    private final ReactiveBookingRepository bookingRepository;
+    private final ObjectMapper objectMapper;
+    private final DataVersion dataVersion;
+    private final BookingPipeline pipeline; // Sequenced write path, or null in the default locked mode.
+
+    /**
+     * Constructor to inject the BookingService and reactive repository dependencies.
+     *
+     * @param bookingService Service handling business logic related to bookings.
+     * @param bookingRepository Non-blocking reads of the booking table.
+     * @param objectMapper JSON mapper used to parse NDJSON imports row by row.
+     * @param dataVersion Version of the data, used as the ETag of the booking list.
+     * @param pipeline Single-writer pipeline applying creations, reschedules and imports, present with booking.write-mode=sequenced.
+     */
+    @Autowired
+    public ReactiveBookingController(BookingService bookingService, ReactiveBookingRepository bookingRepository,
+                                     ObjectMapper objectMapper, DataVersion dataVersion, Optional<BookingPipeline> pipeline) {
+        this.bookingService = bookingService;
+        this.bookingRepository = bookingRepository;
+        this.objectMapper = objectMapper;
+        this.dataVersion = dataVersion;
+        this.pipeline = pipeline.orElse(null);
+    }
+
+    /**
+     * Endpoint to add a new booking.
+     * Handles POST request to add a new booking.
+     *
+     * @param booking The booking object to be added.
+     * @return Mono of the response containing the saved booking, a conflict status, or 400 if the booking is invalid.
+     */
+    @PostMapping
+    public Mono<ResponseEntity<?>> addBooking(@Valid @RequestBody Booking booking) {
+        Mono<Optional<Booking>> savedBooking = pipeline != null
+                ? Mono.fromFuture(() -> pipeline.createBooking(booking))
+                : ReactiveResponses.offload(() -> bookingService.createBooking(booking));
+        return savedBooking.map(saved -> saved.<ResponseEntity<?>>map(
+                        created -> VersionTags.tag(ResponseEntity.status(HttpStatus.CREATED), created.getVersion()).body(created))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).body("Booking dates are unavailable.")));
+    }
+
+    /**
+     * Endpoint to import many bookings at once from a JSON array.
+     * Handles POST request on "/bookings/batch". The array is decoded element by element and
+     * imported chunk by chunk, so a large upload is never held in memory as a whole.
+     *
+     * @param bookings The bookings to import, as they are decoded.
+     * @return Mono of the response with the accepted and rejected rows.
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<BatchImportResult>> importBookings(@RequestBody Flux<Booking> bookings) {
+        return importChunks(bookings.buffer(BookingService.IMPORT_CHUNK)).map(ResponseEntity::ok);
+    }
+
+    /**
+     * Endpoint to import many bookings at once from newline-delimited JSON, one booking per line.
+     * Lines that cannot be parsed are reported as rejected rows instead of failing the whole import.
+     * The body is read as fast as chunks are saved: while one chunk is being imported, at most one
+     * more is read, and the client waits on the connection's flow control for the rest.
+     *
+     * @param lines The lines of the NDJSON request body.
+     * @return Mono of the response with the accepted and rejected rows.
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public Mono<ResponseEntity<BatchImportResult>> importBookingsNdjson(@RequestBody Flux<String> lines) {
+        return importChunks(lines.filter(line -> !line.isBlank()).buffer(BookingService.IMPORT_CHUNK).map(this::parseLines))
+                .map(ResponseEntity::ok);
+    }
+
+    /**
+     * Parses a chunk of NDJSON lines; lines that cannot be parsed become null rows.
+     */
+    private List<Booking> parseLines(List<String> lines) {
+        List<Booking> bookings = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            try {
+                bookings.add(objectMapper.readValue(line, Booking.class));
+            } catch (JsonProcessingException e) {
+                bookings.add(null); // Reported as a malformed row by the service.
+            }
+        }
+        return bookings;
+    }
+
+    /**
+     * Imports chunks one after the other through the service, on the sequencer in sequenced
+     * write mode so an import cannot interleave with pipelined creations, and adds up their
+     * outcomes. Every chunk but the last is full, so a chunk's first row is at its index times
+     * the chunk size.
+     */
+    private Mono<BatchImportResult> importChunks(Flux<List<Booking>> chunks) {
+        return chunks.index()
+                .concatMap(chunk -> importChunk(chunk.getT2(), (int) (chunk.getT1() * BookingService.IMPORT_CHUNK)), 1)
+                .collectList()
+                .map(results -> {
+                    int accepted = 0;
+                    List<BatchImportResult.Item> items = new ArrayList<>();
+                    for (BatchImportResult result : results) {
+                        accepted += result.accepted();
+                        items.addAll(result.items());
+                    }
+                    return new BatchImportResult(accepted, items.size() - accepted, items);
+                });
+    }
+
+    private Mono<BatchImportResult> importChunk(List<Booking> bookings, int firstIndex) {
+        if (pipeline != null) {
+            return Mono.fromFuture(() -> pipeline.runExclusively(() -> bookingService.importBookings(bookings, firstIndex)));
+        }
+        return ReactiveResponses.offload(() -> bookingService.importBookings(bookings, firstIndex));
+    }
+
+    /**
+     * Endpoint to update an existing booking.
+     * Handles PUT request to update a booking by its ID. With an If-Match header carrying the
+     * booking's ETag, the update only applies if nobody changed the booking since it was read.
+     * In sequenced write mode it runs on the sequencer, like every write that can take nights.
+     *
+     * @param id The ID of the booking to update.
+     * @param booking Updated booking details.
+     * @param ifMatch The ETag the client last saw, or null.
+     * @return Mono of the response containing the updated booking and its new ETag, a not found status,
+     * 412 if the If-Match version is stale, or 409 if a concurrent update won or the dates are unavailable.
+     */
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<?>> updateBooking(@PathVariable Long id, @Valid @RequestBody Booking booking,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = VersionTags.parseIfMatch(ifMatch);
+        // The pipeline may read the booking on the calling thread, so it is called off the event loop too.
+        Mono<Optional<Booking>> updatedBooking = pipeline != null
+                ? ReactiveResponses.offload(() -> pipeline.updateBooking(id, booking, expectedVersion)).flatMap(Mono::fromFuture)
+                : ReactiveResponses.offload(() -> bookingService.updateBooking(id, booking, expectedVersion));
+        return updatedBooking
+                .<ResponseEntity<?>>map(updatedBookingOpt -> updatedBookingOpt.<ResponseEntity<?>>map(
+                                updated -> VersionTags.tag(ResponseEntity.ok(), updated.getVersion()).body(updated))
+                        .orElseGet(() -> ResponseEntity.notFound().build()))
+                .onErrorResume(OptimisticLockingFailureException.class, e -> Mono.just(VersionTags.lost(ifMatch, e)))
+                .onErrorResume(DatesUnavailableException.class,
+                        e -> Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage())));
+    }
+
+    /**
+     * Endpoint to cancel a booking.
+     * Handles PATCH request to cancel a booking by its ID.
+     *
+     * @param id ID of the booking to cancel.
+     * @return Mono of the response indicating success or not found.
+     */
+    @PatchMapping("/{id}/cancel")
+    public Mono<ResponseEntity<Void>> cancelBooking(@PathVariable Long id) {
+        return ReactiveResponses.offload(() -> bookingService.cancelBooking(id))
+                .map(isCancelled -> isCancelled ? ResponseEntity.ok().<Void>build() : ResponseEntity.notFound().<Void>build());
+    }
+
+    /**
+     * Endpoint to reschedule an existing booking.
+     * Like the update, it honours If-Match so concurrent edits are never silently overwritten.
+     *
+     * @param id The ID of the booking to reschedule.
+     * @param newDates The new booking details.
+     * @param ifMatch The ETag the client last saw, or null.
+     * @return Mono of the response containing the updated booking and its new ETag, or an error message.
+     */
+    @PatchMapping("/{id}/reschedule")
+    public Mono<ResponseEntity<?>> rescheduleBooking(@PathVariable Long id, @RequestBody Booking newDates,
+                                                     @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (newDates.getStartDate() == null || newDates.getEndDate() == null) {
+            return Mono.just(ResponseEntity.badRequest().body("Start and end dates are required."));
+        }
+        Long expectedVersion = VersionTags.parseIfMatch(ifMatch);
+        // The pipeline reads the booking on the calling thread, so it is called off the event loop too.
+        Mono<Optional<Booking>> rescheduled = pipeline != null
+                ? ReactiveResponses.offload(() -> pipeline.rescheduleBooking(id, newDates, expectedVersion)).flatMap(Mono::fromFuture)
+                : ReactiveResponses.offload(() -> bookingService.rescheduleBooking(id, newDates, expectedVersion));
+        return rescheduled
+                .<ResponseEntity<?>>map(rescheduledBookingOpt -> rescheduledBookingOpt.<ResponseEntity<?>>map(
+                                booking -> VersionTags.tag(ResponseEntity.ok(), booking.getVersion()).body(booking))
+                        .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).body(
+                                "Unable to reschedule the booking. Either the booking does not exist or the new dates are not available.")))
+                .onErrorResume(OptimisticLockingFailureException.class, e -> Mono.just(VersionTags.lost(ifMatch, e)));
+    }
+
+    /**
+     * Endpoint to retrieve bookings.
+     * Handles GET request for a list of bookings. With a "limit" parameter one keyset page is
+     * returned, with a Link header to the next page; otherwise the full list is streamed as a
+     * JSON array straight from the database. Polls repeating the ETag in If-None-Match get
+     * 304 Not Modified, without any database read, until a booking or block changes.
+     *
+     * @param afterId The last ID of the previous page, used with "limit".
+     * @param limit The page size.
+     * @param exchange The current exchange, for If-None-Match and the Link header.
+     * @return Mono of the response with the bookings, or an empty Mono once a 304 has been set.
+     */
+    @GetMapping
+    public Mono<ResponseEntity<Flux<BookingView>>> getAllBookings(@RequestParam(required = false) Long afterId,
+                                                                  @RequestParam(required = false) Integer limit,
+                                                                  ServerWebExchange exchange) {
+        return ReactiveResponses.unlessNotModified(exchange, dataVersion.etag(), () -> {
+            if (limit != null) {
+                int pageSize = Math.max(1, Math.min(limit, BookingService.MAX_PAGE_SIZE));
+                return ReactiveResponses.page(bookingRepository.findPage(afterId != null ? afterId : 0L, pageSize),
+                        pageSize, BookingView::id, exchange);
+            }
+            return Mono.just(ResponseEntity.ok(bookingRepository.streamAll()));
+        });
+    }
+
+    /**
+     * Endpoint for guest type-ahead.
+     * Handles GET request to find the bookings whose guest details start with a prefix, ignoring
+     * case, accents and extra spaces, in pages ordered by guest, then ID, like {@link BookingController#searchBookings}.
+     *
+     * @param guest      The start of the guest details.
+     * @param afterGuest The guest key of the last booking of the previous page, from the Link header.
+     * @param afterId    The ID of the last booking of the previous page, from the Link header.
+     * @param limit      The page size (default 20).
+     * @param exchange   The current exchange, for If-None-Match and the Link header.
+     * @return Mono of the response with the bookings, 400 for a blank prefix, or an empty Mono once a 304 has been set.
+     */
+    @GetMapping("/search")
+    public Mono<ResponseEntity<?>> searchBookings(@RequestParam String guest,
+                                                  @RequestParam(required = false) String afterGuest,
+                                                  @RequestParam(required = false) Long afterId,
+                                                  @RequestParam(defaultValue = "20") int limit,
+                                                  ServerWebExchange exchange) {
+        if (Booking.guestKey(guest).isEmpty()) {
+            return Mono.just(ResponseEntity.badRequest().body("'guest' must not be blank."));
+        }
+        if (exchange.checkNotModified(dataVersion.etag())) {
+            return Mono.empty(); // The 304 and its ETag are already set on the response.
+        }
+        int pageSize = Math.max(1, Math.min(limit, BookingService.MAX_PAGE_SIZE));
+        return ReactiveResponses.searchPage(bookingRepository.findByGuestPrefix(guest, afterGuest, afterId, pageSize),
+                pageSize, Map.of("guest", guest),
+                booking -> Map.of("afterGuest", Booking.guestKey(booking.guestDetails()), "afterId", booking.id()), exchange);
+    }
+
+    /**
+     * Endpoint to stream all bookings as newline-delimited JSON.
+     * Handles GET request with "Accept: application/x-ndjson"; each row is written as soon as the
+     * database produces it, and no faster than the client reads.
+     *
+     * @return Flux of the bookings.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BookingView> streamBookings() {
+        return bookingRepository.streamAll();
+    }
+
+    /**
+     * Endpoint to delete a booking.
+     * Handles DELETE request to delete a booking by its ID.
+     *
+     * @param id ID of the booking to delete.
+     * @return Mono of the response indicating success or not found.
+     */
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteBooking(@PathVariable Long id) {
+        return ReactiveResponses.offload(() -> bookingService.deleteBooking(id))
+                .map(isDeleted -> isDeleted ? ResponseEntity.ok().<Void>build() : ResponseEntity.notFound().<Void>build());
+    }
+}
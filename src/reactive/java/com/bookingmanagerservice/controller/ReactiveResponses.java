@@ -0,0 +1,107 @@
+package com.bookingmanagerservice.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Helpers shared by the reactive controllers: conditional GETs, keyset pages, and calls into the
+ * blocking services. The reactive counterpart of {@link ListingResponses}, producing the same
+ * headers and bodies.
+ */
+final class ReactiveResponses {
+
+    private ReactiveResponses() {
+    }
+
+    /**
+     * Runs a blocking call (a JPA write through a service) on Reactor's bounded elastic
+     * scheduler, so it never holds up an event-loop thread.
+     *
+     * @param call The blocking call.
+     * @return A Mono of its result, empty if it returns null.
+     */
+    static <T> Mono<T> offload(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Answers a list request with 304 Not Modified, without reading the list, if the client's
+     * If-None-Match already holds the current ETag; otherwise reads the list, tagged with the ETag.
+     *
+     * @param exchange The current exchange.
+     * @param etag     The ETag of the current data, read before the data itself.
+     * @param listing  Reads the full response when the client's copy is stale.
+     * @return A Mono of the response with the list, or an empty Mono once the 304 has been set.
+     */
+    static <T> Mono<ResponseEntity<Flux<T>>> unlessNotModified(ServerWebExchange exchange, String etag,
+                                                               Supplier<Mono<ResponseEntity<Flux<T>>>> listing) {
+        if (exchange.checkNotModified(etag)) {
+            return Mono.empty(); // The 304 and its ETag are already set on the response.
+        }
+        return listing.get(); // The ETag header is already set on the response too.
+    }
+
+    /**
+     * Builds the response for one keyset page, with a {@code Link: rel="next"} header when the page is full.
+     * The page is read in full before the response starts, since the link depends on its last row.
+     *
+     * @param items    The rows of the page.
+     * @param pageSize The effective page size.
+     * @param idOf     Extracts the keyset ID of a row.
+     * @param exchange The current exchange, whose URI the link is built from.
+     * @return A Mono of the response with the page.
+     */
+    static <T> Mono<ResponseEntity<Flux<T>>> page(Flux<T> items, int pageSize, Function<T, Long> idOf,
+                                                  ServerWebExchange exchange) {
+        return items.collectList().map(rows -> {
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (!rows.isEmpty() && rows.size() >= pageSize) {
+                String next = UriComponentsBuilder.fromUri(exchange.getRequest().getURI())
+                        .replaceQueryParam("afterId", idOf.apply(rows.get(rows.size() - 1)))
+                        .replaceQueryParam("limit", pageSize)
+                        .toUriString();
+                response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+            }
+            return response.body(Flux.fromIterable(rows));
+        });
+    }
+
+    /**
+     * Builds the response for one keyset page of a search, with a {@code Link: rel="next"} header
+     * when the page is full, encoded like {@link ListingResponses#searchPage}.
+     *
+     * @param items    The rows of the page.
+     * @param pageSize The effective page size.
+     * @param search   The search parameters to repeat in the link.
+     * @param cursorOf Extracts the cursor parameters of a row.
+     * @param exchange The current exchange, whose path the link is built from.
+     * @return A Mono of the response with the page.
+     */
+    static <T> Mono<ResponseEntity<?>> searchPage(Flux<T> items, int pageSize, Map<String, Object> search,
+                                                  Function<T, Map<String, Object>> cursorOf,
+                                                  ServerWebExchange exchange) {
+        return items.collectList().<ResponseEntity<?>>map(rows -> {
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (!rows.isEmpty() && rows.size() >= pageSize) {
+                Map<String, Object> parameters = new TreeMap<>(search); // In name order, so the link of a page never varies.
+                parameters.putAll(cursorOf.apply(rows.get(rows.size() - 1)));
+                parameters.put("limit", pageSize);
+                UriComponentsBuilder next = UriComponentsBuilder.fromUri(exchange.getRequest().getURI()).replaceQuery(null);
+                parameters.keySet().forEach(name -> next.queryParam(name, "{" + name + "}"));
+                response.header(HttpHeaders.LINK, "<" + next.encode().buildAndExpand(parameters).toUriString() + ">; rel=\"next\"");
+            }
+            return response.body(rows);
+        });
+    }
+}
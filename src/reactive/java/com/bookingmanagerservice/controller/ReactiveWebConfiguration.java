@@ -0,0 +1,68 @@
+package com.bookingmanagerservice.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.util.MimeType;
+import org.springframework.web.reactive.config.BlockingExecutionConfigurer;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * WebFlux configuration of the reactive build, served by Reactor Netty.
+ * Controllers written for Spring MVC, such as the availability and statistics ones, return plain
+ * values computed by blocking services; WebFlux runs them on Reactor's bounded elastic scheduler,
+ * like the writes of the reactive controllers, instead of on the event loop. Smile payloads use
+ * the same mapper as in the MVC build; CBOR is left to the MVC build, as WebFlux's CBOR codec
+ * cannot stream the listings.
+ */
+@Configuration // Declares the WebFlux configuration.
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveWebConfiguration implements WebFluxConfigurer {
+
+    private static final MimeType[] SMILE_TYPES = { // Given explicitly: without them the Smile codecs take the JSON types.
+            new MimeType("application", "x-jackson-smile"), new MimeType("application", "*+x-jackson-smile")};
+    private final Jackson2ObjectMapperBuilder builder; // Boot's mapper builder, for the Smile mapper.
+
+    /**
+     * Constructor to inject the mapper builder.
+     *
+     * @param builder Boot's mapper builder, carrying the same modules and settings as the JSON mapper.
+     */
+    @Autowired
+    public ReactiveWebConfiguration(Jackson2ObjectMapperBuilder builder) {
+        this.builder = builder;
+    }
+
+    /**
+     * Serves the application on Reactor Netty. Tomcat, which Spring MVC brings along, would
+     * otherwise be picked and run WebFlux through the Servlet API.
+     *
+     * @return The server factory, customized by the usual server.* settings.
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Override
+    public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+        ObjectMapper smileMapper = PayloadFormats.binaryMapper(builder, new SmileFactory());
+        configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder(smileMapper, SMILE_TYPES));
+        configurer.defaultCodecs().jackson2SmileEncoder(new Jackson2SmileEncoder(smileMapper, SMILE_TYPES));
+    }
+
+    @Override
+    public void configureBlockingExecution(BlockingExecutionConfigurer configurer) {
+        configurer.setExecutor(new TaskExecutorAdapter(task -> Schedulers.boundedElastic().schedule(task)));
+    }
+}
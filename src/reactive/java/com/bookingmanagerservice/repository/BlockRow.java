@@ -0,0 +1,21 @@
+package com.bookingmanagerservice.repository;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDate;
+
+/**
+ * A row of the block table, as mapped by R2DBC in the reactive build.
+ * Only reads go through it: writes stay on the JPA entity and the block service.
+ *
+ * @param id         The ID of the block.
+ * @param version    The version of the block.
+ * @param propertyId The property the block closes.
+ * @param startDate  The first blocked night.
+ * @param endDate    The end of the block (exclusive).
+ * @param reason     The reason for the block.
+ */
+@Table("block")
+public record BlockRow(@Id Long id, Long version, Long propertyId, LocalDate startDate, LocalDate endDate, String reason) {
+}
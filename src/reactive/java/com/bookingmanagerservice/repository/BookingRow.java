@@ -0,0 +1,21 @@
+package com.bookingmanagerservice.repository;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDate;
+
+/**
+ * A row of the booking table, as mapped by R2DBC in the reactive build.
+ * Only reads go through it: writes stay on the JPA entity and the booking service.
+ *
+ * @param id           The ID of the booking.
+ * @param version      The version of the booking.
+ * @param propertyId   The property the booking is for.
+ * @param startDate    The first night of the stay.
+ * @param endDate      The check-out date (exclusive).
+ * @param guestDetails Details about the guest.
+ */
+@Table("booking")
+public record BookingRow(@Id Long id, Long version, Long propertyId, LocalDate startDate, LocalDate endDate, String guestDetails) {
+}
@@ -0,0 +1,31 @@
+package com.bookingmanagerservice.repository;
+
+import com.bookingmanagerservice.dto.BlockView;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Non-blocking reads of the block table for the reactive build.
+ */
+public interface ReactiveBlockRepository extends R2dbcRepository<BlockRow, Long> {
+
+    /**
+     * Streams every block, ordered by ID.
+     *
+     * @return The blocks.
+     */
+    @Query("SELECT id, version, property_id, start_date, end_date, reason FROM block ORDER BY id")
+    Flux<BlockView> streamAll();
+
+    /**
+     * Reads one keyset page of blocks, ordered by ID.
+     *
+     * @param afterId The last ID of the previous page, or 0 for the first page.
+     * @param limit   The page size.
+     * @return The blocks of the page.
+     */
+    @Query("SELECT id, version, property_id, start_date, end_date, reason FROM block "
+            + "WHERE id > :afterId ORDER BY id LIMIT :limit")
+    Flux<BlockView> findPage(long afterId, int limit);
+}
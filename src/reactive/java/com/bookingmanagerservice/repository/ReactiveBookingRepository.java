@@ -0,0 +1,59 @@
+package com.bookingmanagerservice.repository;
+
+import com.bookingmanagerservice.dto.BookingView;
+import com.bookingmanagerservice.model.Booking;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Non-blocking reads of the booking table for the reactive build.
+ * Rows are emitted as the driver produces them, at the pace the subscriber requests, and map
+ * to the same {@link BookingView} projections as the JPA queries.
+ */
+public interface ReactiveBookingRepository extends R2dbcRepository<BookingRow, Long> {
+
+    /**
+     * Streams every booking, ordered by ID.
+     *
+     * @return The bookings.
+     */
+    @Query("SELECT id, version, property_id, start_date, end_date, guest_details FROM booking ORDER BY id")
+    Flux<BookingView> streamAll();
+
+    /**
+     * Reads one keyset page of bookings, ordered by ID.
+     *
+     * @param afterId The last ID of the previous page, or 0 for the first page.
+     * @param limit   The page size.
+     * @return The bookings of the page.
+     */
+    @Query("SELECT id, version, property_id, start_date, end_date, guest_details FROM booking "
+            + "WHERE id > :afterId ORDER BY id LIMIT :limit")
+    Flux<BookingView> findPage(long afterId, int limit);
+
+    /**
+     * Finds the bookings whose guest details start with a prefix, like
+     * {@link BookingRepository#findByGuestPrefix}.
+     *
+     * @param guestPrefix The start of the guest details.
+     * @param afterGuest  The guest key of the last row of the previous page, or null for the first page.
+     * @param afterId     The ID of the last row of the previous page, or null for the first page.
+     * @param limit       The page size.
+     * @return The bookings of the page.
+     */
+    default Flux<BookingView> findByGuestPrefix(String guestPrefix, String afterGuest, Long afterId, int limit) {
+        String prefix = Booking.guestKey(guestPrefix);
+        String afterKey = afterGuest == null || afterId == null ? "" : afterGuest;
+        String from = afterKey.compareTo(prefix) > 0 ? afterKey : prefix;
+        return findByGuestKeyRange(from, prefix + Character.MAX_VALUE, afterKey, afterKey.isEmpty() ? 0L : afterId, limit);
+    }
+
+    /**
+     * Query behind {@link #findByGuestPrefix}: one range scan of the (guest_key, id) index.
+     */
+    @Query("SELECT id, version, property_id, start_date, end_date, guest_details FROM booking "
+            + "WHERE guest_key >= :from AND guest_key < :to AND (guest_key > :afterKey OR id > :afterId) "
+            + "ORDER BY guest_key, id LIMIT :limit")
+    Flux<BookingView> findByGuestKeyRange(String from, String to, String afterKey, long afterId, int limit);
+}
@@ -0,0 +1,81 @@
+package com.bookingmanagerservice.repository;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.h2.H2ConnectionConfiguration;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactory;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionManager;
+
+/**
+ * Data access of the reactive build: R2DBC connections to the H2 database written through JPA,
+ * next to the JDBC data source and JPA transaction manager the services keep using. Boot backs off
+ * from both JDBC beans once R2DBC is configured, so they are declared here as Boot would.
+ */
+@Configuration // Only compiled into the build with the "reactive" Maven profile.
+@EnableConfigurationProperties(DataSourceProperties.class) // The spring.datasource.* settings.
+public class ReactiveDataConfiguration {
+
+    private static final String H2_PREFIX = "jdbc:h2:"; // Added back by the R2DBC driver.
+
+    /**
+     * The JDBC data source of JPA, configured by spring.datasource.* and spring.datasource.hikari.*.
+     *
+     * @param properties The data source settings.
+     * @return The pooled data source.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * R2DBC connections to the very database of the JDBC data source, so reactive reads see every
+     * row written by the services. Boot would otherwise open its own, empty in-memory database.
+     *
+     * @param properties The data source settings, with the generated URL of the embedded database.
+     * @return The connection factory of the reactive repositories.
+     */
+    @Bean
+    public ConnectionFactory connectionFactory(DataSourceProperties properties) {
+        String url = properties.determineUrl();
+        if (url == null || !url.startsWith(H2_PREFIX)) {
+            throw new IllegalStateException("The reactive build reads through the H2 R2DBC driver, which cannot open " + url);
+        }
+        return new H2ConnectionFactory(H2ConnectionConfiguration.builder()
+                .url(url.substring(H2_PREFIX.length()))
+                .username(properties.determineUsername())
+                .password(properties.determinePassword())
+                .build());
+    }
+
+    /**
+     * The JPA transaction manager, as Boot would declare it. With R2DBC present, Boot also
+     * registers a reactive transaction manager, which would otherwise keep this one from being
+     * created and make {@code @Transactional} ambiguous; being primary, this one keeps serving
+     * every transactional service method.
+     *
+     * @param entityManagerFactory The JPA entity manager factory.
+     * @param customizers          Boot's transaction settings (e.g. spring.transaction.default-timeout).
+     * @return The transaction manager.
+     */
+    @Bean
+    @Primary
+    public PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory,
+                                                         ObjectProvider<TransactionManagerCustomizers> customizers) {
+        JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+        customizers.ifAvailable(customizer -> customizer.customize((TransactionManager) transactionManager));
+        return transactionManager;
+    }
+}
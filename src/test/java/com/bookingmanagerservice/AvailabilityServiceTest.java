@@ -0,0 +1,224 @@
+package com.bookingmanagerservice;
+
+import com.bookingmanagerservice.cache.AvailabilityCache;
+import com.bookingmanagerservice.dto.DateRange;
+import com.bookingmanagerservice.dto.FreeWindow;
+import com.bookingmanagerservice.dto.OccupiedRange;
+import com.bookingmanagerservice.dto.RangeCheck;
+import com.bookingmanagerservice.dto.RangeVerdict;
+import com.bookingmanagerservice.event.OccupancyChangedEvent;
+import com.bookingmanagerservice.repository.BlockRepository;
+import com.bookingmanagerservice.metrics.BookingMetrics;
+import com.bookingmanagerservice.repository.BookingRepository;
+import com.bookingmanagerservice.service.AvailabilityService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class AvailabilityServiceTest {
+
+    private static final Long PROPERTY = 7L;
+    private static final LocalDate FROM = LocalDate.of(2024, 7, 1);
+    private static final LocalDate TO = LocalDate.of(2024, 8, 1);
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private BlockRepository blockRepository;
+
+    @Spy
+    private BookingMetrics bookingMetrics = new BookingMetrics(new SimpleMeterRegistry());
+
+    @Spy
+    private AvailabilityCache availabilityCache = new AvailabilityCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(10));
+
+    @InjectMocks
+    private AvailabilityService availabilityService;
+
+    @Test
+    public void emptyCalendarIsOneWindow() {
+        when(bookingRepository.findOverlappingRanges(PROPERTY, FROM, TO)).thenReturn(Collections.emptyList());
+        when(blockRepository.findRangesInDateRange(PROPERTY, FROM, TO)).thenReturn(Collections.emptyList());
+
+        List<FreeWindow> windows = availabilityService.findFreeWindows(PROPERTY, FROM, TO, 1);
+
+        assertEquals(List.of(new FreeWindow(FROM, TO, 31)), windows);
+    }
+
+    @Test
+    public void gapsBetweenBookingsAndBlocksAreMergedAndFiltered() {
+        // Booking sticking out before the window, back-to-back stays, and a block overlapping a booking
+        when(bookingRepository.findOverlappingRanges(PROPERTY, FROM, TO)).thenReturn(Arrays.asList(
+                range(2024, 6, 28, 2024, 7, 3),
+                range(2024, 7, 10, 2024, 7, 12),
+                range(2024, 7, 12, 2024, 7, 15),
+                range(2024, 7, 20, 2024, 7, 25)));
+        when(blockRepository.findRangesInDateRange(PROPERTY, FROM, TO)).thenReturn(Arrays.asList(
+                range(2024, 7, 5, 2024, 7, 6),
+                range(2024, 7, 22, 2024, 7, 30)));
+
+        List<FreeWindow> windows = availabilityService.findFreeWindows(PROPERTY, FROM, TO, 2);
+
+        assertEquals(Arrays.asList(
+                new FreeWindow(LocalDate.of(2024, 7, 3), LocalDate.of(2024, 7, 5), 2),
+                new FreeWindow(LocalDate.of(2024, 7, 6), LocalDate.of(2024, 7, 10), 4),
+                new FreeWindow(LocalDate.of(2024, 7, 15), LocalDate.of(2024, 7, 20), 5),
+                new FreeWindow(LocalDate.of(2024, 7, 30), TO, 2)), windows);
+    }
+
+    @Test
+    public void shortGapsAreDropped() {
+        when(bookingRepository.findOverlappingRanges(PROPERTY, FROM, TO)).thenReturn(Arrays.asList(
+                range(2024, 7, 1, 2024, 7, 15),
+                range(2024, 7, 16, 2024, 8, 1)));
+        when(blockRepository.findRangesInDateRange(PROPERTY, FROM, TO)).thenReturn(Collections.emptyList());
+
+        assertTrue(availabilityService.findFreeWindows(PROPERTY, FROM, TO, 2).isEmpty());
+        assertEquals(1, availabilityService.findFreeWindows(PROPERTY, FROM, TO, 1).size());
+    }
+
+    @Test
+    public void monthsAreServedFromTheCacheUntilAWriteTouchesThem() {
+        when(bookingRepository.findOverlappingRanges(PROPERTY, FROM, LocalDate.of(2024, 9, 1))).thenReturn(List.of(
+                range(2024, 7, 28, 2024, 8, 3)));
+        when(blockRepository.findRangesInDateRange(PROPERTY, FROM, LocalDate.of(2024, 9, 1))).thenReturn(Collections.emptyList());
+
+        // Both missing months are loaded by one pair of queries, and the stay spanning them stays whole
+        List<FreeWindow> expected = List.of(
+                new FreeWindow(LocalDate.of(2024, 7, 15), LocalDate.of(2024, 7, 28), 13),
+                new FreeWindow(LocalDate.of(2024, 8, 3), LocalDate.of(2024, 8, 20), 17));
+        assertEquals(expected, availabilityService.findFreeWindows(PROPERTY, LocalDate.of(2024, 7, 15), LocalDate.of(2024, 8, 20), 1));
+        assertEquals(expected, availabilityService.findFreeWindows(PROPERTY, LocalDate.of(2024, 7, 15), LocalDate.of(2024, 8, 20), 1));
+        verify(bookingRepository, times(1)).findOverlappingRanges(any(), any(), any());
+        assertEquals(2, availabilityCache.stats().hitCount());
+
+        // A booking in August only reloads August
+        when(bookingRepository.findOverlappingRanges(PROPERTY, LocalDate.of(2024, 8, 1), LocalDate.of(2024, 9, 1))).thenReturn(List.of(
+                range(2024, 7, 28, 2024, 8, 3), range(2024, 8, 10, 2024, 8, 12)));
+        when(blockRepository.findRangesInDateRange(PROPERTY, LocalDate.of(2024, 8, 1), LocalDate.of(2024, 9, 1))).thenReturn(Collections.emptyList());
+        availabilityCache.onOccupancyChanged(new OccupancyChangedEvent(PROPERTY, LocalDate.of(2024, 8, 10), LocalDate.of(2024, 8, 12)));
+
+        assertEquals(3, availabilityService.findFreeWindows(PROPERTY, LocalDate.of(2024, 7, 15), LocalDate.of(2024, 8, 20), 1).size());
+        verify(bookingRepository, times(2)).findOverlappingRanges(any(), any(), any());
+        verify(bookingRepository, never()).findOverlappingRanges(PROPERTY, FROM, TO);
+
+        // Other properties keep their own entries
+        availabilityCache.onOccupancyChanged(new OccupancyChangedEvent(8L, FROM, TO));
+        availabilityService.findFreeWindows(PROPERTY, LocalDate.of(2024, 7, 15), LocalDate.of(2024, 8, 20), 1);
+        verify(bookingRepository, times(2)).findOverlappingRanges(any(), any(), any());
+    }
+
+    @Test
+    public void writeDuringALoadIsNotOverwrittenByTheStaleLoad() {
+        YearMonth july = YearMonth.of(2024, 7);
+        AtomicInteger loads = new AtomicInteger();
+        AvailabilityCache.MonthLoader staleLoader = (propertyId, months) -> {
+            loads.incrementAndGet();
+            // A booking commits and invalidates July after the loader read it.
+            availabilityCache.onOccupancyChanged(new OccupancyChangedEvent(PROPERTY, FROM.plusDays(3), FROM.plusDays(5)));
+            return Map.of(july, List.of());
+        };
+
+        assertEquals(List.of(), availabilityCache.occupied(PROPERTY, july, july, staleLoader));
+        AvailabilityCache.MonthLoader freshLoader = (propertyId, months) -> {
+            loads.incrementAndGet();
+            return Map.of(july, List.of(new DateRange(FROM.plusDays(3), FROM.plusDays(5))));
+        };
+        assertEquals(1, availabilityCache.occupied(PROPERTY, july, july, freshLoader).size());
+        assertEquals(2, loads.get(), "The stale load must not have been cached");
+
+        // Once loaded without interference, July is served from the cache
+        assertEquals(1, availabilityCache.occupied(PROPERTY, july, july, freshLoader).size());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void batchCheckAnswersEveryStayInOneSweepPerProperty() {
+        LocalDate to = LocalDate.of(2024, 7, 20);
+        when(bookingRepository.findOccupiedRanges(PROPERTY, FROM, to)).thenReturn(List.of(
+                occupied(1L, 2024, 7, 2, 2024, 7, 5),
+                occupied(2L, 2024, 7, 5, 2024, 7, 8),
+                occupied(3L, 2024, 7, 12, 2024, 7, 14)));
+        when(blockRepository.findOccupiedRanges(PROPERTY, FROM, to)).thenReturn(List.of(
+                occupied(10L, 2024, 7, 1, 2024, 7, 20), // Overlapped by a shorter block.
+                occupied(11L, 2024, 7, 6, 2024, 7, 7)));
+        when(bookingRepository.findOccupiedRanges(8L, FROM, LocalDate.of(2024, 7, 3))).thenReturn(Collections.emptyList());
+        when(blockRepository.findOccupiedRanges(8L, FROM, LocalDate.of(2024, 7, 3))).thenReturn(Collections.emptyList());
+
+        // Unsorted, with a long stay spanning later ones and another property in between
+        List<RangeVerdict> verdicts = availabilityService.checkRanges(List.of(
+                new RangeCheck(PROPERTY, LocalDate.of(2024, 7, 6), LocalDate.of(2024, 7, 13)),
+                new RangeCheck(8L, FROM, LocalDate.of(2024, 7, 3)),
+                new RangeCheck(PROPERTY, FROM, to),
+                new RangeCheck(PROPERTY, LocalDate.of(2024, 7, 8), LocalDate.of(2024, 7, 12)),
+                new RangeCheck(PROPERTY, LocalDate.of(2024, 7, 8), LocalDate.of(2024, 7, 10))));
+
+        assertEquals(List.of(
+                new RangeVerdict(PROPERTY, LocalDate.of(2024, 7, 6), LocalDate.of(2024, 7, 13), false, List.of(2L, 3L), List.of(10L, 11L)),
+                new RangeVerdict(8L, FROM, LocalDate.of(2024, 7, 3), true, List.of(), List.of()),
+                new RangeVerdict(PROPERTY, FROM, to, false, List.of(1L, 2L, 3L), List.of(10L, 11L)),
+                new RangeVerdict(PROPERTY, LocalDate.of(2024, 7, 8), LocalDate.of(2024, 7, 12), false, List.of(), List.of(10L)),
+                new RangeVerdict(PROPERTY, LocalDate.of(2024, 7, 8), LocalDate.of(2024, 7, 10), false, List.of(), List.of(10L))), verdicts);
+        verify(bookingRepository, times(2)).findOccupiedRanges(any(), any(), any());
+    }
+
+    @Test
+    public void batchCheckMatchesOneCheckPerStay() {
+        // Many overlapping stays of mixed lengths, so ranges retire while long ones stay active
+        Random random = new Random(42);
+        List<OccupiedRange> bookings = new ArrayList<>();
+        for (long id = 1; id <= 300; id++) {
+            LocalDate start = FROM.plusDays(random.nextInt(365));
+            bookings.add(new OccupiedRange(id, start, start.plusDays(1 + random.nextInt(random.nextBoolean() ? 3 : 60))));
+        }
+        bookings.sort(Comparator.comparing(OccupiedRange::startDate));
+        List<RangeCheck> checks = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            LocalDate start = FROM.plusDays(random.nextInt(365));
+            checks.add(new RangeCheck(PROPERTY, start, start.plusDays(1 + random.nextInt(random.nextBoolean() ? 5 : 90))));
+        }
+        when(bookingRepository.findOccupiedRanges(any(), any(), any())).thenReturn(bookings);
+        when(blockRepository.findOccupiedRanges(any(), any(), any())).thenReturn(Collections.emptyList());
+
+        List<RangeVerdict> verdicts = availabilityService.checkRanges(checks);
+
+        for (int i = 0; i < checks.size(); i++) {
+            RangeCheck check = checks.get(i);
+            List<Long> expected = bookings.stream()
+                    .filter(range -> range.startDate().isBefore(check.endDate()) && range.endDate().isAfter(check.startDate()))
+                    .map(OccupiedRange::id).toList();
+            assertEquals(expected, verdicts.get(i).bookingIds(), "Stay " + check);
+        }
+    }
+
+    private static OccupiedRange occupied(long id, int y1, int m1, int d1, int y2, int m2, int d2) {
+        return new OccupiedRange(id, LocalDate.of(y1, m1, d1), LocalDate.of(y2, m2, d2));
+    }
+
+    private static DateRange range(int y1, int m1, int d1, int y2, int m2, int d2) {
+        return new DateRange(LocalDate.of(y1, m1, d1), LocalDate.of(y2, m2, d2));
+    }
+}
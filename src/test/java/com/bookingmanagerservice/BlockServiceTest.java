@@ -1,6 +1,9 @@
 package com.bookingmanagerservice;
 
+import com.bookingmanagerservice.calendar.DateStripedLocks;
+import com.bookingmanagerservice.calendar.OccupancyCalendar;
 import com.bookingmanagerservice.model.Block;
+import com.bookingmanagerservice.model.Booking;
 import com.bookingmanagerservice.repository.BlockRepository;
 import com.bookingmanagerservice.service.BlockService;
 import org.junit.jupiter.api.BeforeEach;
@@ -8,7 +11,9 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import java.time.LocalDate;
 import java.util.Collections;
 import java.util.Optional;
@@ -21,6 +26,15 @@ public class BlockServiceTest {
     @Mock
     private BlockRepository blockRepository;
 
+    @Spy
+    private OccupancyCalendar occupancyCalendar = new OccupancyCalendar();
+
+    @Spy
+    private DateStripedLocks dateLocks = new DateStripedLocks();
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private BlockService blockService;
 
@@ -47,5 +61,22 @@ public class BlockServiceTest {
         verify(blockRepository, never()).delete(any(Block.class));
     }
 
+    @Test
+    public void createAndDeleteBlock_UpdatesCalendar() {
+        when(blockRepository.save(any(Block.class))).thenAnswer(invocation -> {
+            Block saved = invocation.getArgument(0);
+            saved.setId(1L); // Assigned by the database.
+            return saved;
+        });
+        when(blockRepository.findById(1L)).thenReturn(Optional.of(block));
+
+        blockService.createBlock(block);
+        assertTrue(blockService.isRangeBlocked(Booking.DEFAULT_PROPERTY_ID, LocalDate.now().plusDays(9), LocalDate.now().plusDays(12)));
+        assertFalse(blockService.isRangeBlocked(Booking.DEFAULT_PROPERTY_ID, LocalDate.now().plusDays(10), LocalDate.now().plusDays(12)));
+
+        assertTrue(blockService.deleteBlock(1L));
+        assertFalse(blockService.isRangeBlocked(Booking.DEFAULT_PROPERTY_ID, LocalDate.now(), LocalDate.now().plusDays(10)));
+    }
+
     // More tests can be added here
 }
\ No newline at end of file
@@ -0,0 +1,98 @@
+package com.bookingmanagerservice;
+
+import com.bookingmanagerservice.calendar.DateStripedLocks;
+import com.bookingmanagerservice.calendar.OccupancyCalendar;
+import com.bookingmanagerservice.metrics.BookingMetrics;
+import com.bookingmanagerservice.model.Booking;
+import com.bookingmanagerservice.repository.BookingRepository;
+import com.bookingmanagerservice.service.BookingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Stress test for concurrent booking creation.
+ * Many threads race to book random stays; afterwards no two saved bookings may overlap.
+ * Throughput is measured by {@code WriteModeBenchmark} in the benchmark profile, e.g. per thread count with
+ * {@code mvn -Pbenchmark verify -DskipTests -Djmh.args="WriteModeBenchmark -p mode=locked -t 1"}.
+ */
+public class BookingConcurrencyStressTest {
+
+    private static final LocalDate ORIGIN = LocalDate.of(2025, 1, 1);
+    private static final long SAVE_LATENCY_NANOS = 200_000; // Simulated database round trip.
+    private static final int THREADS = 8;
+
+    @Test
+    public void concurrentCreatesNeverDoubleBook() throws Exception {
+        run(2_000, 730); // Stays spread over two years.
+        run(2_000, 30); // Everyone fights for the same month.
+    }
+
+    private void run(int attempts, int horizonDays) throws Exception {
+        Queue<Booking> saved = new ConcurrentLinkedQueue<>();
+        // Blocks are only read from the repository in database conflict-check mode, so none is needed here.
+        BookingService bookingService = new BookingService(savingRepository(saved), null, new OccupancyCalendar(), new DateStripedLocks(),
+                new BookingMetrics(new SimpleMeterRegistry()), event -> { });
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < THREADS; t++) {
+            executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < attempts / THREADS; i++) {
+                    LocalDate startDate = ORIGIN.plusDays(random.nextInt(horizonDays));
+                    bookingService.createBooking(new Booking(startDate, startDate.plusDays(1 + random.nextInt(5)), "Guest"));
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+        assertFalse(saved.isEmpty());
+        assertNoOverlap(new ArrayList<>(saved));
+    }
+
+    private static void assertNoOverlap(List<Booking> bookings) {
+        bookings.sort(Comparator.comparing(Booking::getStartDate));
+        for (int i = 1; i < bookings.size(); i++) {
+            Booking previous = bookings.get(i - 1);
+            Booking current = bookings.get(i);
+            assertFalse(current.getStartDate().isBefore(previous.getEndDate()),
+                    "Double booking: " + previous.getStartDate() + ".." + previous.getEndDate()
+                            + " and " + current.getStartDate() + ".." + current.getEndDate());
+        }
+    }
+
+    private static BookingRepository savingRepository(Queue<Booking> saved) {
+        AtomicLong ids = new AtomicLong();
+        BookingRepository repository = mock(BookingRepository.class, withSettings().stubOnly());
+        when(repository.save(any(Booking.class))).thenAnswer(invocation -> {
+            Booking booking = invocation.getArgument(0);
+            LockSupport.parkNanos(SAVE_LATENCY_NANOS);
+            booking.setId(ids.incrementAndGet());
+            saved.add(booking);
+            return booking;
+        });
+        return repository;
+    }
+}
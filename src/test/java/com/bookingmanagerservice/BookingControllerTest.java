@@ -1,29 +1,63 @@
 package com.bookingmanagerservice;
 
+import com.bookingmanagerservice.cache.DataVersion;
 import com.bookingmanagerservice.controller.BookingController;
+import com.bookingmanagerservice.controller.PayloadFormats;
+import com.bookingmanagerservice.dto.BatchImportResult;
+import com.bookingmanagerservice.dto.BookingView;
+import com.bookingmanagerservice.event.OccupancyChangedEvent;
 import com.bookingmanagerservice.model.Booking;
 import com.bookingmanagerservice.service.BookingService;
+import com.bookingmanagerservice.service.DatesUnavailableException;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 import java.time.LocalDate;
+import java.util.function.Consumer;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 /**
  * Test class for BookingController.
  * It tests the REST API endpoints defined in the BookingController.
  */
 @WebMvcTest(BookingController.class) // Specifies that WebMvcTest is to be used for testing the BookingController class.
+@Import({DataVersion.class, PayloadFormats.class}) // The real data version, so ETags behave as in production, and the binary formats.
 public class BookingControllerTest {
 
     @Autowired
@@ -32,6 +66,21 @@ public class BookingControllerTest {
     @MockBean
     private BookingService bookingService; // Mock version of BookingService.
 
+    @Autowired
+    private DataVersion dataVersion; // Source of the list ETags.
+
+    /**
+     * Test for the GET request to retrieve all bookings.
+     */
+    @Test
+    public void testGetAllBookingsWithGenericAccept() throws Exception {
+        mockMvc.perform(get("/bookings").accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+        mockMvc.perform(get("/bookings").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+    }
+
     /**
      * Test for the GET request to retrieve all bookings.
      */
@@ -41,6 +90,28 @@ public class BookingControllerTest {
                 .andExpect(status().isOk()); // Expect HTTP 200 OK status.
     }
 
+    /**
+     * Test that polling the list with the current ETag is answered 304 without reading bookings,
+     * until a write bumps the data version.
+     */
+    @Test
+    public void testUnchangedListIsNotModified() throws Exception {
+        String etag = mockMvc.perform(get("/bookings"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/bookings").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag));
+        verify(bookingService, times(1)).getAllBookings();
+
+        dataVersion.onOccupancyChanged(OccupancyChangedEvent.everywhere());
+        mockMvc.perform(get("/bookings").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)));
+        verify(bookingService, times(2)).getAllBookings();
+    }
+
     /**
      * Test for the POST request to create a new booking.
      */
@@ -65,6 +136,52 @@ public class BookingControllerTest {
                 .andExpect(status().isCreated());
     }
 
+    /**
+     * Test that bookings missing their dates are refused before reaching the write path.
+     */
+    @Test
+    public void testBookingWithoutDatesIsBadRequest() throws Exception {
+        mockMvc.perform(post("/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"startDate\":\"2024-01-25\",\"guestDetails\":\"John Doe\"}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/bookings/1/reschedule")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"endDate\":\"2024-01-26\"}"))
+                .andExpect(status().isBadRequest());
+        verify(bookingService, never()).createBooking(any());
+        verify(bookingService, never()).rescheduleBooking(any(), any(), any());
+    }
+
+    /**
+     * Test that bookings are read and written as CBOR or Smile when the client asks for them.
+     */
+    @Test
+    public void testCreateAndListBookingsInBinaryFormats() throws Exception {
+        Booking saved = new Booking(LocalDate.of(2024, 1, 25), LocalDate.of(2024, 1, 27), "John Doe");
+        saved.setId(7L);
+        saved.setVersion(0L);
+        when(bookingService.createBooking(any(Booking.class))).thenReturn(Optional.of(saved));
+        when(bookingService.getAllBookings()).thenReturn(List.of(BookingView.of(saved)));
+        ObjectMapper cbor = PayloadFormats.binaryMapper(Jackson2ObjectMapperBuilder.json(), new CBORFactory());
+        MediaType cborType = MediaType.parseMediaType("application/cbor");
+
+        MvcResult created = mockMvc.perform(post("/bookings")
+                        .contentType(cborType)
+                        .accept(cborType)
+                        .content(cbor.writeValueAsBytes(new Booking(saved.getStartDate(), saved.getEndDate(), "John Doe"))))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(cborType))
+                .andReturn();
+        Booking answer = cbor.readValue(created.getResponse().getContentAsByteArray(), Booking.class);
+        assertEquals(saved.getEndDate(), answer.getEndDate());
+        verify(bookingService).createBooking(argThat(booking -> "John Doe".equals(booking.getGuestDetails())));
+
+        mockMvc.perform(get("/bookings").accept(MediaType.parseMediaType("application/x-jackson-smile")))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"));
+    }
+
     /**
      * Test for the PUT request to update a booking.
      */
@@ -75,9 +192,10 @@ public class BookingControllerTest {
         mockBookingToUpdate.setStartDate(LocalDate.of(2024, 1, 25));
         mockBookingToUpdate.setEndDate(LocalDate.of(2024, 1, 26));
         mockBookingToUpdate.setGuestDetails("Jane Doe");
+        mockBookingToUpdate.setVersion(4L);
 
         // Mock the service to return the updated object encapsulated in an Optional.
-        doReturn(Optional.of(mockBookingToUpdate)).when(bookingService).updateBooking(any(Long.class), any());
+        doReturn(Optional.of(mockBookingToUpdate)).when(bookingService).updateBooking(any(Long.class), any(), any());
 
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule());
@@ -87,7 +205,47 @@ public class BookingControllerTest {
         mockMvc.perform(put("/bookings/1")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(bookingJson))
-                .andExpect(status().isOk()); // Expect HTTP 200 OK status.
+                .andExpect(status().isOk()) // Expect HTTP 200 OK status.
+                .andExpect(header().string("ETag", "\"4\"")); // The new version, for the next If-Match.
+    }
+
+    /**
+     * Test that a stale If-Match fails the precondition, and a race lost without one is a conflict.
+     */
+    @Test
+    public void testUpdateBookingWithStaleIfMatch() throws Exception {
+        String bookingJson = "{\"startDate\":\"2024-01-25\",\"endDate\":\"2024-01-26\",\"guestDetails\":\"Jane Doe\"}";
+        doThrow(new OptimisticLockingFailureException("Booking 1 is no longer at version 3."))
+                .when(bookingService).updateBooking(eq(1L), any(), eq(3L));
+        doThrow(new OptimisticLockingFailureException("Booking 1 is no longer at version 5."))
+                .when(bookingService).updateBooking(eq(1L), any(), isNull());
+
+        mockMvc.perform(put("/bookings/1")
+                        .header("If-Match", "W/\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(bookingJson))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(put("/bookings/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(bookingJson))
+                .andExpect(status().isConflict());
+    }
+
+    /**
+     * Test that an update onto unavailable dates is a conflict.
+     */
+    @Test
+    public void testUpdateBookingOntoUnavailableDates() throws Exception {
+        String bookingJson = "{\"startDate\":\"2024-01-25\",\"endDate\":\"2024-01-26\",\"guestDetails\":\"Jane Doe\"}";
+        doThrow(new DatesUnavailableException("Booking dates are unavailable."))
+                .when(bookingService).updateBooking(eq(1L), any(), any());
+
+        mockMvc.perform(put("/bookings/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(bookingJson))
+                .andExpect(status().isConflict())
+                .andExpect(content().string("Booking dates are unavailable."));
     }
 
     /**
@@ -114,5 +272,162 @@ public class BookingControllerTest {
                 .andExpect(status().isOk()); // Expect HTTP 200 OK or another expected status.
     }
 
+    /**
+     * Test for the POST request importing bookings from NDJSON, including a malformed line.
+     */
+    @Test
+    public void testImportBookingsNdjson() throws Exception {
+        BatchImportResult result = new BatchImportResult(1, 1, Arrays.asList(
+                BatchImportResult.Item.accepted(0, 10L),
+                BatchImportResult.Item.rejected(1, "Malformed row.")));
+        // The malformed second line reaches the service as a null row.
+        when(bookingService.importBookings(argThat((List<Booking> rows) -> rows.size() == 2 && rows.get(1) == null), eq(0)))
+                .thenReturn(result);
+
+        String body = "{\"startDate\":\"2024-01-25\",\"endDate\":\"2024-01-26\",\"guestDetails\":\"John Doe\"}\n"
+                + "not json\n";
+
+        mockMvc.perform(post("/bookings/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted").value(1))
+                .andExpect(jsonPath("$.items[1].reason").value("Malformed row."));
+    }
+
+    /**
+     * Test that a JSON array import is read and imported chunk by chunk, with rows numbered across chunks.
+     */
+    @Test
+    public void testImportBookingsJsonArrayInChunks() throws Exception {
+        int rows = BookingService.IMPORT_CHUNK + 2;
+        // The service accepts every well-formed row of a chunk and numbers it from the chunk's offset.
+        doAnswer(invocation -> {
+            List<Booking> chunk = invocation.getArgument(0);
+            int firstIndex = invocation.getArgument(1);
+            List<BatchImportResult.Item> items = new ArrayList<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                items.add(chunk.get(i) != null
+                        ? BatchImportResult.Item.accepted(firstIndex + i, (long) (firstIndex + i))
+                        : BatchImportResult.Item.rejected(firstIndex + i, "Malformed row."));
+            }
+            int accepted = (int) items.stream().filter(BatchImportResult.Item::accepted).count();
+            return new BatchImportResult(accepted, items.size() - accepted, items);
+        }).when(bookingService).importBookings(anyList(), anyInt());
+
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < rows; i++) {
+            body.append(i > 0 ? "," : "");
+            body.append(i == rows - 1
+                    ? "{\"startDate\":\"not a date\",\"endDate\":\"2024-01-26\",\"guestDetails\":\"Guest\"}"
+                    : "{\"startDate\":\"2024-01-25\",\"endDate\":\"2024-01-26\",\"guestDetails\":\"Guest " + i + "\"}");
+        }
+        body.append("]");
+
+        mockMvc.perform(post("/bookings/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted").value(rows - 1))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.items[" + (rows - 1) + "].index").value(rows - 1))
+                .andExpect(jsonPath("$.items[" + (rows - 1) + "].reason").value("Malformed row."));
+        verify(bookingService).importBookings(argThat((List<Booking> chunk) -> chunk.size() == BookingService.IMPORT_CHUNK), eq(0));
+        verify(bookingService).importBookings(argThat((List<Booking> chunk) -> chunk.size() == 2 && chunk.get(1) == null),
+                eq(BookingService.IMPORT_CHUNK));
+
+        mockMvc.perform(post("/bookings/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"startDate\":\"2024-01-25\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Test for the GET request returning one keyset page with a link to the next one.
+     */
+    @Test
+    public void testGetBookingsPage() throws Exception {
+        Booking first = new Booking(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 2), "John Doe");
+        first.setId(11L);
+        Booking second = new Booking(LocalDate.of(2024, 1, 3), LocalDate.of(2024, 1, 4), "Jane Doe");
+        second.setId(12L);
+        when(bookingService.getBookingsPage(10L, 2)).thenReturn(Arrays.asList(BookingView.of(first), BookingView.of(second)));
+
+        mockMvc.perform(get("/bookings").param("afterId", "10").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(header().string("Link", containsString("afterId=12")));
+    }
+
+    /**
+     * Test for the guest search: a full page links to the next one, with its cursor encoded.
+     */
+    @Test
+    public void testSearchBookingsByGuest() throws Exception {
+        Booking first = new Booking(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 2), "José & Ana");
+        first.setId(11L);
+        Booking second = new Booking(LocalDate.of(2024, 1, 3), LocalDate.of(2024, 1, 4), "Josef");
+        second.setId(12L);
+        when(bookingService.searchBookingsByGuest("jos", null, null, 2)).thenReturn(List.of(BookingView.of(first), BookingView.of(second)));
+        when(bookingService.searchBookingsByGuest("jos", null, null, 1)).thenReturn(List.of(BookingView.of(first)));
+        when(bookingService.searchBookingsByGuest("jos", "jose & ana", 11L, 1)).thenReturn(List.of(BookingView.of(second)));
+
+        mockMvc.perform(get("/bookings/search").param("guest", "jos").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].guestDetails").value("José & Ana"))
+                .andExpect(jsonPath("$[0].guestKey").doesNotExist())
+                .andExpect(header().string("Link", "<http://localhost/bookings/search?afterGuest=josef&afterId=12&guest=jos&limit=2>; rel=\"next\""));
+        mockMvc.perform(get("/bookings/search").param("guest", "jos").param("limit", "1"))
+                .andExpect(header().string("Link", containsString("afterGuest=jose%20%26%20ana&afterId=11&")));
+        mockMvc.perform(get("/bookings/search").param("guest", "jos").param("afterGuest", "jose & ana").param("afterId", "11").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(12));
+        mockMvc.perform(get("/bookings/search").param("guest", "jos").param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Link"));
+        mockMvc.perform(get("/bookings/search").param("guest", "  "))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Test for the GET request streaming bookings as NDJSON.
+     */
+    @Test
+    public void testStreamBookingsNdjson() throws Exception {
+        Booking booking = new Booking(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 2), "John Doe");
+        booking.setId(1L);
+        doAnswer(invocation -> {
+            Consumer<BookingView> action = invocation.getArgument(0);
+            action.accept(BookingView.of(booking));
+            action.accept(BookingView.of(booking));
+            return null;
+        }).when(bookingService).forEachBooking(any());
+
+        MvcResult result = mockMvc.perform(get("/bookings").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(containsString("\"guestDetails\":\"John Doe\"}\n{")))
+                .andExpect(content().string(endsWith("}\n")));
+    }
+
+    /**
+     * Test that streaming an empty table as NDJSON gives an empty body.
+     */
+    @Test
+    public void testStreamNoBookingsNdjson() throws Exception {
+        MvcResult result = mockMvc.perform(get("/bookings").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(""));
+    }
+
     // Additional tests for other endpoints can be added as necessary.
 }
@@ -0,0 +1,251 @@
+package com.bookingmanagerservice;
+
+import com.bookingmanagerservice.calendar.OccupancyCalendar;
+import com.bookingmanagerservice.metrics.BookingMetrics;
+import com.bookingmanagerservice.model.Block;
+import com.bookingmanagerservice.model.Booking;
+import com.bookingmanagerservice.pipeline.BookingPipeline;
+import com.bookingmanagerservice.repository.BlockRepository;
+import com.bookingmanagerservice.repository.BookingRepository;
+import com.bookingmanagerservice.service.BookingService;
+import com.bookingmanagerservice.service.DatesUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class BookingPipelineTest {
+
+    private static final LocalDate START = LocalDate.of(2031, 3, 1);
+
+    @Mock
+    private BookingService bookingService;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private BlockRepository blockRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final OccupancyCalendar occupancyCalendar = new OccupancyCalendar();
+    private final AtomicLong ids = new AtomicLong();
+    private BookingPipeline pipeline;
+
+    @BeforeEach
+    public void setup() {
+        // The service answers conflict checks from the calendar, like the default memory check.
+        when(bookingService.areDatesAvailable(any(), any(), any(), any())).thenAnswer(invocation ->
+                occupancyCalendar.isAvailable(invocation.getArgument(0), invocation.getArgument(1),
+                        invocation.getArgument(2), invocation.getArgument(3)));
+        when(bookingRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Booking> bookings = invocation.getArgument(0);
+            bookings.forEach(booking -> {
+                booking.setId(ids.incrementAndGet());
+                booking.setVersion(0L);
+            });
+            return bookings;
+        });
+        when(blockRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Block> blocks = invocation.getArgument(0);
+            blocks.forEach(block -> block.setId(ids.incrementAndGet()));
+            return blocks;
+        });
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        pipeline = new BookingPipeline(bookingService, bookingRepository, blockRepository, occupancyCalendar,
+                new BookingMetrics(registry), eventPublisher, transactionManager, registry, 64, 16);
+        pipeline.start();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        pipeline.destroy();
+    }
+
+    @Test
+    public void concurrentCreatesOfTheSameNightsAcceptExactlyOne() {
+        List<CompletableFuture<Optional<Booking>>> results = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            results.add(pipeline.createBooking(new Booking(START, START.plusDays(3), "Guest " + i)));
+        }
+
+        long accepted = results.stream().map(BookingPipeline::await).filter(Optional::isPresent).count();
+        assertEquals(1, accepted);
+        assertEquals(1, occupancyCalendar.size());
+        assertTrue(occupancyCalendar.isAvailable(Booking.DEFAULT_PROPERTY_ID, START.plusDays(3), START.plusDays(5), null));
+    }
+
+    @Test
+    public void createdBookingIsCommittedBeforeTheCallerSeesIt() {
+        Optional<Booking> saved = BookingPipeline.await(pipeline.createBooking(new Booking(START, START.plusDays(2), "Guest")));
+
+        assertTrue(saved.isPresent());
+        assertNotNull(saved.get().getId());
+        verify(transactionManager).commit(any());
+        assertFalse(occupancyCalendar.isAvailable(Booking.DEFAULT_PROPERTY_ID, START, START.plusDays(1), null));
+    }
+
+    @Test
+    public void blockClosesItsNightsToLaterBookings() {
+        Block block = BookingPipeline.await(pipeline.createBlock(new Block(START, START.plusDays(5), "Maintenance")));
+        assertNotNull(block.getId());
+
+        assertFalse(BookingPipeline.await(pipeline.createBooking(new Booking(START.plusDays(4), START.plusDays(6), "Guest"))).isPresent());
+        assertTrue(BookingPipeline.await(pipeline.createBooking(new Booking(START.plusDays(5), START.plusDays(6), "Guest"))).isPresent());
+    }
+
+    @Test
+    public void rescheduleMovesTheBookingAndReleasesItsOldNights() {
+        Booking existing = BookingPipeline.await(pipeline.createBooking(new Booking(START, START.plusDays(3), "Guest"))).get();
+        when(bookingRepository.findById(existing.getId())).thenReturn(Optional.of(existing));
+        when(bookingRepository.rescheduleIfVersion(existing.getId(), 0L, START.plusDays(1), START.plusDays(4))).thenReturn(1);
+
+        Optional<Booking> moved = BookingPipeline.await(
+                pipeline.rescheduleBooking(existing.getId(), new Booking(START.plusDays(1), START.plusDays(4), null), 0L));
+
+        assertTrue(moved.isPresent());
+        assertEquals(1L, moved.get().getVersion());
+        assertTrue(occupancyCalendar.isAvailable(Booking.DEFAULT_PROPERTY_ID, START, START.plusDays(1), null));
+        assertFalse(occupancyCalendar.isAvailable(Booking.DEFAULT_PROPERTY_ID, START.plusDays(3), START.plusDays(4), null));
+    }
+
+    @Test
+    public void staleOrRacingReschedulesFail() {
+        Booking existing = BookingPipeline.await(pipeline.createBooking(new Booking(START, START.plusDays(3), "Guest"))).get();
+        when(bookingRepository.findById(existing.getId())).thenReturn(Optional.of(existing));
+        Booking newDates = new Booking(START.plusDays(10), START.plusDays(12), null);
+
+        // A stale If-Match fails before reaching the sequencer.
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> BookingPipeline.await(pipeline.rescheduleBooking(existing.getId(), newDates, 7L)));
+        // A concurrent edit makes the conditional statement miss.
+        when(bookingRepository.rescheduleIfVersion(any(), any(), any(), any())).thenReturn(0);
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> BookingPipeline.await(pipeline.rescheduleBooking(existing.getId(), newDates, null)));
+        assertTrue(occupancyCalendar.isAvailable(Booking.DEFAULT_PROPERTY_ID, START.plusDays(10), START.plusDays(12), null));
+    }
+
+    @Test
+    public void updateRacingACreateOntoTheSameNightsAcceptsExactlyOne() {
+        Booking existing = BookingPipeline.await(pipeline.createBooking(new Booking(START, START.plusDays(2), "Guest"))).get();
+        when(bookingRepository.updateIfVersion(eq(existing.getId()), eq(0L), any(), any(), any(), any())).thenReturn(1);
+        when(bookingRepository.existsById(existing.getId())).thenReturn(true);
+        // Holds the sequencer so the update and the create are checked in the same batch.
+        CountDownLatch release = new CountDownLatch(1);
+        pipeline.runExclusively(() -> {
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        CompletableFuture<Optional<Booking>> update = pipeline.updateBooking(existing.getId(),
+                new Booking(START.plusDays(10), START.plusDays(12), "Guest"), 0L);
+        CompletableFuture<Optional<Booking>> create = pipeline.createBooking(new Booking(START.plusDays(11), START.plusDays(13), "Other guest"));
+        release.countDown();
+
+        Optional<Booking> updated = BookingPipeline.await(update);
+        assertTrue(updated.isPresent());
+        assertEquals(1L, updated.get().getVersion());
+        assertFalse(BookingPipeline.await(create).isPresent(), "The create came second and must lose");
+        assertFalse(occupancyCalendar.isAvailable(Booking.DEFAULT_PROPERTY_ID, START.plusDays(10), START.plusDays(11), null));
+        assertTrue(occupancyCalendar.isAvailable(Booking.DEFAULT_PROPERTY_ID, START, START.plusDays(2), null));
+
+        // Now the other way round: an update onto nights a create just took is a conflict.
+        assertTrue(BookingPipeline.await(pipeline.createBooking(new Booking(START.plusDays(20), START.plusDays(22), "Other guest"))).isPresent());
+        assertThrows(DatesUnavailableException.class, () -> BookingPipeline.await(
+                pipeline.updateBooking(existing.getId(), new Booking(START.plusDays(21), START.plusDays(23), "Guest"), 1L)));
+        verify(bookingRepository, times(1)).updateIfVersion(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void failedCommitFailsTheBatchWithoutTouchingTheCalendar() {
+        when(bookingRepository.saveAll(anyList())).thenThrow(new DataAccessResourceFailureException("Database is down"));
+
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> BookingPipeline.await(pipeline.createBooking(new Booking(START, START.plusDays(2), "Guest"))));
+        assertEquals(0, occupancyCalendar.size());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    public void faultyCommandFailsAloneAndDatelessOnesNeverQueue() {
+        when(bookingRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Booking> bookings = invocation.getArgument(0);
+            if (bookings.stream().anyMatch(booking -> "Faulty guest".equals(booking.getGuestDetails()))) {
+                bookings.forEach(booking -> booking.setId(ids.incrementAndGet())); // Left behind by the rolled back inserts.
+                throw new DataIntegrityViolationException("Value too long for column GUEST_DETAILS");
+            }
+            bookings.forEach(booking -> {
+                booking.setId(ids.incrementAndGet());
+                booking.setVersion(0L);
+            });
+            return bookings;
+        });
+        // Holds the sequencer so the next three commands are drained as one batch.
+        CountDownLatch release = new CountDownLatch(1);
+        pipeline.runExclusively(() -> {
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        CompletableFuture<Optional<Booking>> first = pipeline.createBooking(new Booking(START, START.plusDays(2), "Guest 1"));
+        CompletableFuture<Optional<Booking>> faulty = pipeline.createBooking(new Booking(START.plusDays(2), START.plusDays(4), "Faulty guest"));
+        CompletableFuture<Optional<Booking>> last = pipeline.createBooking(new Booking(START.plusDays(4), START.plusDays(6), "Guest 3"));
+        release.countDown();
+
+        assertTrue(BookingPipeline.await(first).isPresent());
+        assertTrue(BookingPipeline.await(last).isPresent());
+        assertThrows(DataIntegrityViolationException.class, () -> BookingPipeline.await(faulty));
+        assertEquals(2, occupancyCalendar.size());
+        assertTrue(occupancyCalendar.isAvailable(Booking.DEFAULT_PROPERTY_ID, START.plusDays(2), START.plusDays(4), null));
+
+        // A booking without dates is refused before taking a slot.
+        assertThrows(IllegalArgumentException.class,
+                () -> BookingPipeline.await(pipeline.createBooking(new Booking(START, null, "Guest"))));
+        assertThrows(IllegalArgumentException.class,
+                () -> BookingPipeline.await(pipeline.rescheduleBooking(1L, new Booking(null, START, null), null)));
+        verify(bookingRepository, never()).findById(any());
+    }
+
+    @Test
+    public void exclusiveActionsRunInSubmissionOrder() {
+        CompletableFuture<Optional<Booking>> before = pipeline.createBooking(new Booking(START, START.plusDays(2), "Guest"));
+        CompletableFuture<Integer> exclusive = pipeline.runExclusively(occupancyCalendar::size);
+
+        assertEquals(1, BookingPipeline.await(exclusive)); // The earlier creation was committed first.
+        assertTrue(before.isDone());
+    }
+}
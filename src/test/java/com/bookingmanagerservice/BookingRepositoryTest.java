@@ -1,12 +1,21 @@
 package com.bookingmanagerservice;
 
+import com.bookingmanagerservice.dto.BookingView;
+import com.bookingmanagerservice.dto.DateRange;
+import com.bookingmanagerservice.dto.OccupiedRange;
 import com.bookingmanagerservice.model.Booking;
 import com.bookingmanagerservice.repository.BookingRepository;
+import org.hibernate.Session;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import static org.junit.jupiter.api.Assertions.*;
 
 @DataJpaTest
@@ -15,6 +24,12 @@ public class BookingRepositoryTest {
     @Autowired
     private BookingRepository bookingRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
     @Test
     public void findOverlappingBookings() {
         // Properly initializing the Booking object with required details
@@ -27,10 +42,166 @@ public class BookingRepositoryTest {
         bookingRepository.save(booking);
 
         // Testing the findOverlappingBookings method
-        List<Booking> results = bookingRepository.findOverlappingBookings(
+        List<Booking> results = bookingRepository.findOverlappingBookings(Booking.DEFAULT_PROPERTY_ID,
                 LocalDate.now(), LocalDate.now().plusDays(1));
         assertFalse(results.isEmpty());
     }
 
+    @Test
+    public void checkOutDayDoesNotOverlap() {
+        Booking booking = new Booking(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 5), "Test Guest");
+        bookingRepository.save(booking);
+
+        // Ranges are half-open: a stay starting on the check-out day is not an overlap
+        assertTrue(bookingRepository.findOverlappingBookings(Booking.DEFAULT_PROPERTY_ID, LocalDate.of(2024, 1, 5), LocalDate.of(2024, 1, 8)).isEmpty());
+        assertFalse(bookingRepository.findOverlappingBookings(Booking.DEFAULT_PROPERTY_ID, LocalDate.of(2024, 1, 4), LocalDate.of(2024, 1, 8)).isEmpty());
+        assertTrue(bookingRepository.findBookingsByDate(Booking.DEFAULT_PROPERTY_ID, LocalDate.of(2024, 1, 5)).isEmpty());
+    }
+
+    @Test
+    public void keysetPagesAndCursorStreamWalkAllBookingsInIdOrder() {
+        for (int i = 0; i < 5; i++) {
+            bookingRepository.save(new Booking(LocalDate.of(2024, 2, 1 + 2 * i), LocalDate.of(2024, 2, 2 + 2 * i), "Guest " + i));
+        }
+
+        List<BookingView> firstPage = bookingRepository.findPageAfter(0L, Limit.of(3));
+        List<BookingView> secondPage = bookingRepository.findPageAfter(firstPage.get(2).id(), Limit.of(3));
+        assertEquals(3, firstPage.size());
+        assertEquals(2, secondPage.size());
+
+        try (Stream<BookingView> stream = bookingRepository.streamAll()) {
+            List<Long> streamedIds = stream.map(BookingView::id).collect(Collectors.toList());
+            assertEquals(5, streamedIds.size());
+            assertEquals(secondPage.get(1).id(), streamedIds.get(4));
+        }
+    }
+
+    @Test
+    public void overlappingRangesAreProjectedInStartOrder() {
+        Booking second = bookingRepository.save(new Booking(LocalDate.of(2024, 3, 10), LocalDate.of(2024, 3, 12), "Second"));
+        Booking first = bookingRepository.save(new Booking(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 4), "First"));
+
+        List<DateRange> ranges = bookingRepository.findOverlappingRanges(Booking.DEFAULT_PROPERTY_ID, LocalDate.of(2024, 3, 1), LocalDate.of(2024, 4, 1));
+
+        assertEquals(List.of(
+                new DateRange(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 4)),
+                new DateRange(LocalDate.of(2024, 3, 10), LocalDate.of(2024, 3, 12))), ranges);
+        assertEquals(List.of(
+                new OccupiedRange(first.getId(), LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 4)),
+                new OccupiedRange(second.getId(), LocalDate.of(2024, 3, 10), LocalDate.of(2024, 3, 12))),
+                bookingRepository.findOccupiedRanges(Booking.DEFAULT_PROPERTY_ID, LocalDate.of(2024, 3, 1), LocalDate.of(2024, 4, 1)));
+    }
+
+    @Test
+    public void overlapQueriesAreScopedToTheProperty() {
+        Booking first = new Booking(LocalDate.of(2024, 5, 1), LocalDate.of(2024, 5, 4), "Unit 1");
+        Booking second = new Booking(LocalDate.of(2024, 5, 1), LocalDate.of(2024, 5, 4), "Unit 2");
+        second.setPropertyId(2L);
+        bookingRepository.save(first);
+        bookingRepository.save(second);
+
+        List<Booking> results = bookingRepository.findOverlappingBookings(2L, LocalDate.of(2024, 5, 2), LocalDate.of(2024, 5, 3));
+        assertEquals(1, results.size());
+        assertEquals("Unit 2", results.get(0).getGuestDetails());
+        assertTrue(bookingRepository.findOverlappingRanges(3L, LocalDate.of(2024, 5, 1), LocalDate.of(2024, 6, 1)).isEmpty());
+    }
+
+    @Test
+    public void listAndSearchQueriesReturnUntrackedViewsAndReadOnlyEntities() {
+        Booking booking = bookingRepository.saveAndFlush(new Booking(LocalDate.of(2024, 6, 1), LocalDate.of(2024, 6, 4), "View Guest"));
+        entityManager.clear();
+
+        assertEquals(List.of(BookingView.of(booking)), bookingRepository.findAllViews());
+        assertEquals(List.of(BookingView.of(booking)), bookingRepository.findByGuestDetails("View Guest"));
+        assertEquals(1, bookingRepository.findBookingsByDate(Booking.DEFAULT_PROPERTY_ID, LocalDate.of(2024, 6, 3)).size());
+        assertEquals(0, entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount()); // Nothing is tracked.
+
+        // Overlap lookups still load entities, but read-only: no snapshot, and edits are never flushed
+        Booking loaded = bookingRepository.findOverlappingBookings(Booking.DEFAULT_PROPERTY_ID, LocalDate.of(2024, 6, 2), LocalDate.of(2024, 6, 3)).get(0);
+        assertTrue(entityManager.getEntityManager().unwrap(Session.class).isReadOnly(loaded));
+        loaded.setGuestDetails("Changed");
+        entityManager.flush();
+        assertEquals("View Guest", jdbcTemplate.queryForObject("SELECT guest_details FROM booking WHERE id = ?", String.class, booking.getId()));
+    }
+
+    @Test
+    public void guestPrefixSearchIgnoresCaseAndAccentsAndPagesInGuestOrder() {
+        Booking first = bookingRepository.save(new Booking(LocalDate.of(2024, 9, 1), LocalDate.of(2024, 9, 2), "José Álvarez"));
+        Booking second = bookingRepository.save(new Booking(LocalDate.of(2024, 9, 3), LocalDate.of(2024, 9, 4), "jose  alvarez"));
+        Booking other = bookingRepository.save(new Booking(LocalDate.of(2024, 9, 5), LocalDate.of(2024, 9, 6), "Joseph Smith"));
+        Booking third = bookingRepository.save(new Booking(LocalDate.of(2024, 9, 7), LocalDate.of(2024, 9, 8), "JOSÉ ALVAREZ"));
+        bookingRepository.save(new Booking(LocalDate.of(2024, 9, 9), LocalDate.of(2024, 9, 10), "Maria Jose"));
+
+        // Ordered by guest key, then ID; each page resumes after the last row of the previous one
+        List<BookingView> firstPage = bookingRepository.findByGuestPrefix("Jose", null, null, Limit.of(2));
+        assertEquals(List.of(first.getId(), second.getId()), firstPage.stream().map(BookingView::id).toList());
+        List<BookingView> secondPage = bookingRepository.findByGuestPrefix("Jose", "jose alvarez", second.getId(), Limit.of(2));
+        assertEquals(List.of(third.getId(), other.getId()), secondPage.stream().map(BookingView::id).toList());
+        assertTrue(bookingRepository.findByGuestPrefix("Jose", "joseph smith", other.getId(), Limit.of(2)).isEmpty());
+
+        assertEquals(3, bookingRepository.findByGuestPrefix("  JOSÉ  al", null, null, Limit.of(10)).size());
+        assertEquals(1, bookingRepository.findByGuestDetails("José Álvarez").size());
+
+        // The conditional update keeps the key in sync with the details
+        bookingRepository.flush();
+        assertEquals(1, bookingRepository.updateIfVersion(other.getId(), 0L, 1L, other.getStartDate(), other.getEndDate(), "Zoë Smith"));
+        assertEquals(1, bookingRepository.findByGuestPrefix("zoe", null, null, Limit.of(10)).size());
+        assertTrue(bookingRepository.findByGuestPrefix("joseph", null, null, Limit.of(10)).isEmpty());
+    }
+
+    @Test
+    public void guestPrefixSearchUsesTheGuestKeyIndex() {
+        // Same predicate as the keyset search query, run through H2's planner
+        String plan = jdbcTemplate.queryForObject("EXPLAIN SELECT b.id FROM booking b WHERE b.guest_key >= 'jo' AND b.guest_key < 'jo\uffff' "
+                + "AND (b.guest_key > 'jo a' OR b.id > 7) ORDER BY b.guest_key, b.id FETCH FIRST 20 ROWS ONLY", String.class);
+
+        assertTrue(plan.contains("IDX_BOOKING_GUEST_KEY"), plan);
+        assertTrue(plan.contains("index sorted"), plan); // No sort: the scan stops after the page.
+    }
+
+    @Test
+    public void propertyDatesIndexExists() {
+        List<String> columns = jdbcTemplate.queryForList(
+                "SELECT COLUMN_NAME FROM INFORMATION_SCHEMA.INDEX_COLUMNS WHERE INDEX_NAME = 'IDX_BOOKING_PROPERTY_DATES' ORDER BY ORDINAL_POSITION",
+                String.class);
+        assertEquals(List.of("PROPERTY_ID", "END_DATE", "START_DATE"), columns);
+    }
+
+    @Test
+    public void existsOverlappingIsHalfOpenAndHonoursExclusion() {
+        Booking booking = bookingRepository.save(new Booking(LocalDate.of(2024, 7, 1), LocalDate.of(2024, 7, 5), "Test Guest"));
+
+        assertTrue(bookingRepository.existsOverlapping(Booking.DEFAULT_PROPERTY_ID, LocalDate.of(2024, 7, 4), LocalDate.of(2024, 7, 6), null));
+        assertFalse(bookingRepository.existsOverlapping(Booking.DEFAULT_PROPERTY_ID, LocalDate.of(2024, 7, 5), LocalDate.of(2024, 7, 6), null));
+        assertFalse(bookingRepository.existsOverlapping(Booking.DEFAULT_PROPERTY_ID, LocalDate.of(2024, 7, 2), LocalDate.of(2024, 7, 3), booking.getId()));
+        assertFalse(bookingRepository.existsOverlapping(2L, LocalDate.of(2024, 7, 2), LocalDate.of(2024, 7, 3), null));
+    }
+
+    @Test
+    public void overlapProbesUseThePropertyDatesIndex() {
+        // Same predicate as the derived exists queries, run through H2's planner.
+        String bookingPlan = jdbcTemplate.queryForObject("EXPLAIN SELECT b.id FROM booking b WHERE b.property_id = 1 "
+                + "AND b.start_date < DATE '2024-07-06' AND b.end_date > DATE '2024-07-04' FETCH FIRST 1 ROWS ONLY", String.class);
+        String blockPlan = jdbcTemplate.queryForObject("EXPLAIN SELECT b.id FROM block b WHERE b.property_id = 1 "
+                + "AND b.start_date < DATE '2024-07-06' AND b.end_date > DATE '2024-07-04' FETCH FIRST 1 ROWS ONLY", String.class);
+
+        assertTrue(bookingPlan.contains("IDX_BOOKING_PROPERTY_DATES"), bookingPlan);
+        assertTrue(blockPlan.contains("IDX_BLOCK_PROPERTY_DATES"), blockPlan);
+    }
+
+    @Test
+    public void conditionalUpdatesOnlyApplyAtTheExpectedVersion() {
+        Booking booking = bookingRepository.saveAndFlush(new Booking(LocalDate.of(2024, 8, 1), LocalDate.of(2024, 8, 5), "Test Guest"));
+        assertEquals(0L, booking.getVersion());
+
+        // The first writer moves the booking to version 1; the second, still holding version 0, loses
+        assertEquals(1, bookingRepository.rescheduleIfVersion(booking.getId(), 0L, LocalDate.of(2024, 8, 2), LocalDate.of(2024, 8, 6)));
+        assertEquals(0, bookingRepository.updateIfVersion(booking.getId(), 0L, 1L, LocalDate.of(2024, 8, 1), LocalDate.of(2024, 8, 3), "Other"));
+        assertEquals(1, bookingRepository.updateIfVersion(booking.getId(), 1L, 1L, LocalDate.of(2024, 8, 1), LocalDate.of(2024, 8, 3), "Other"));
+
+        Long version = jdbcTemplate.queryForObject("SELECT version FROM booking WHERE id = ?", Long.class, booking.getId());
+        assertEquals(2L, version);
+    }
+
     // More tests can be added here
 }
@@ -1,18 +1,36 @@
 package com.bookingmanagerservice;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import com.bookingmanagerservice.calendar.DateStripedLocks;
+import com.bookingmanagerservice.calendar.OccupancyCalendar;
+import com.bookingmanagerservice.dto.BatchImportResult;
+import com.bookingmanagerservice.event.BookingChangedEvent;
+import com.bookingmanagerservice.event.OccupancyChangedEvent;
+import com.bookingmanagerservice.model.Block;
 import com.bookingmanagerservice.model.Booking;
+import com.bookingmanagerservice.metrics.BookingMetrics;
+import com.bookingmanagerservice.repository.BlockRepository;
 import com.bookingmanagerservice.repository.BookingRepository;
 import com.bookingmanagerservice.service.BookingService;
+import com.bookingmanagerservice.service.DatesUnavailableException;
 import java.time.LocalDate;
 import java.util.Optional;
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 @ExtendWith(MockitoExtension.class)
 public class BookingServiceTest {
@@ -20,6 +38,21 @@ public class BookingServiceTest {
     @Mock
     private BookingRepository bookingRepository;
 
+    @Mock
+    private BlockRepository blockRepository;
+
+    @Spy
+    private OccupancyCalendar occupancyCalendar = new OccupancyCalendar();
+
+    @Spy
+    private DateStripedLocks dateLocks = new DateStripedLocks();
+
+    @Spy
+    private BookingMetrics bookingMetrics = new BookingMetrics(new SimpleMeterRegistry());
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private BookingService bookingService;
 
@@ -53,6 +86,7 @@ public class BookingServiceTest {
         existingBooking.setStartDate(LocalDate.of(2024, 1, 1));
         existingBooking.setEndDate(LocalDate.of(2024, 1, 5));
         existingBooking.setGuestDetails("John Doe");
+        existingBooking.setVersion(2L);
 
         // Dados para atualização
         Booking updatedDetails = new Booking();
@@ -61,8 +95,9 @@ public class BookingServiceTest {
         updatedDetails.setGuestDetails("Jane Doe");
 
         // Configurando o comportamento do mock
-        when(bookingRepository.existsById(bookingId)).thenReturn(true);
-        when(bookingRepository.save(any(Booking.class))).thenReturn(updatedDetails);
+        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(existingBooking));
+        when(bookingRepository.updateIfVersion(bookingId, 2L, Booking.DEFAULT_PROPERTY_ID,
+                updatedDetails.getStartDate(), updatedDetails.getEndDate(), "Jane Doe")).thenReturn(1);
 
         // Executando o método de atualização
         Optional<Booking> updatedBooking = bookingService.updateBooking(bookingId, updatedDetails);
@@ -74,9 +109,28 @@ public class BookingServiceTest {
         assertEquals(updatedDetails.getStartDate(), updatedBooking.get().getStartDate(), "A data de início deve ser atualizada");
         assertEquals(updatedDetails.getEndDate(), updatedBooking.get().getEndDate(), "A data de término deve ser atualizada");
 
+        assertEquals(3L, updatedBooking.get().getVersion(), "A versão deve ser incrementada");
+
         // Verificar se os métodos do repository foram chamados corretamente
-        verify(bookingRepository, times(1)).existsById(bookingId);
-        verify(bookingRepository, times(1)).save(updatedDetails);
+        verify(bookingRepository, times(1)).findById(bookingId);
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
+    @Test
+    public void testUpdateWithStaleVersionFails() {
+        Booking details = new Booking(LocalDate.of(2024, 1, 3), LocalDate.of(2024, 1, 8), "Jane Doe");
+        when(bookingRepository.updateIfVersion(eq(1L), eq(4L), any(), any(), any(), any())).thenReturn(0);
+        when(bookingRepository.existsById(1L)).thenReturn(true);
+
+        // The client's If-Match version is checked by the update statement itself: no read beforehand
+        assertThrows(OptimisticLockingFailureException.class, () -> bookingService.updateBooking(1L, details, 4L));
+        verify(bookingRepository, never()).findById(any());
+        assertTrue(bookingService.areDatesAvailable(Booking.DEFAULT_PROPERTY_ID, LocalDate.of(2024, 1, 3), LocalDate.of(2024, 1, 8)),
+                "A lost update must not reach the calendar");
+
+        // A missing booking is still a not-found, not a conflict
+        when(bookingRepository.existsById(2L)).thenReturn(false);
+        assertFalse(bookingService.updateBooking(2L, details, 4L).isPresent());
     }
     @Test
     public void testCancelBooking() {
@@ -124,6 +178,7 @@ public class BookingServiceTest {
         existingBooking.setStartDate(LocalDate.of(2024, 1, 1));
         existingBooking.setEndDate(LocalDate.of(2024, 1, 5));
         existingBooking.setGuestDetails("John Doe");
+        existingBooking.setVersion(0L);
 
         Booking newBookingDetails = new Booking();
         newBookingDetails.setStartDate(newStartDate);
@@ -131,17 +186,96 @@ public class BookingServiceTest {
         newBookingDetails.setGuestDetails("Jane Doe");
 
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(existingBooking));
-        when(bookingRepository.save(any(Booking.class))).thenReturn(newBookingDetails);
+        when(bookingRepository.rescheduleIfVersion(bookingId, 0L, newStartDate, newEndDate)).thenReturn(1);
 
         Optional<Booking> rescheduledBooking = bookingService.rescheduleBooking(bookingId, newBookingDetails);
 
         assertTrue(rescheduledBooking.isPresent(), "The booking should be successfully rescheduled");
         assertEquals(newStartDate, rescheduledBooking.get().getStartDate(), "The start date should be updated");
         assertEquals(newEndDate, rescheduledBooking.get().getEndDate(), "The end date should be updated");
-        assertEquals("Jane Doe", rescheduledBooking.get().getGuestDetails(), "The guest details should be updated");
+        assertEquals("John Doe", rescheduledBooking.get().getGuestDetails(), "Only the dates are rescheduled");
+        assertEquals(1L, rescheduledBooking.get().getVersion(), "The version should be incremented");
 
         verify(bookingRepository).findById(bookingId);
-        verify(bookingRepository).save(any(Booking.class));
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
+    @Test
+    public void testWritesAnnounceTheNightsTheyTouch() {
+        Booking existingBooking = new Booking(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 5), "John Doe");
+        existingBooking.setId(1L);
+        existingBooking.setVersion(0L);
+        when(bookingRepository.findById(1L)).thenReturn(Optional.of(existingBooking));
+        when(bookingRepository.rescheduleIfVersion(eq(1L), eq(0L), any(), any())).thenReturn(1);
+
+        bookingService.rescheduleBooking(1L, new Booking(LocalDate.of(2024, 3, 10), LocalDate.of(2024, 3, 15), null));
+
+        // Both the released and the newly occupied nights, so cached availability of both months is dropped
+        verify(eventPublisher).publishEvent(new OccupancyChangedEvent(Booking.DEFAULT_PROPERTY_ID, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 5)));
+        verify(eventPublisher).publishEvent(new OccupancyChangedEvent(Booking.DEFAULT_PROPERTY_ID, LocalDate.of(2024, 3, 10), LocalDate.of(2024, 3, 15)));
+
+        assertTrue(bookingService.deleteBooking(1L));
+        verify(eventPublisher, times(2)).publishEvent(new OccupancyChangedEvent(Booking.DEFAULT_PROPERTY_ID, LocalDate.of(2024, 3, 10), LocalDate.of(2024, 3, 15)));
+    }
+
+    @Test
+    public void testDeleteRemovesTheVersionItRead() {
+        Booking stale = new Booking(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 5), "John Doe");
+        stale.setId(1L);
+        stale.setVersion(0L);
+        Booking rescheduled = new Booking(LocalDate.of(2024, 3, 10), LocalDate.of(2024, 3, 15), "John Doe");
+        rescheduled.setId(1L);
+        rescheduled.setVersion(1L);
+        when(bookingRepository.findById(1L)).thenReturn(Optional.of(stale), Optional.of(rescheduled));
+        // A reschedule commits between the read and the delete
+        doThrow(new OptimisticLockingFailureException("stale")).doNothing().when(bookingRepository).delete(any(Booking.class));
+
+        assertTrue(bookingService.deleteBooking(1L));
+
+        verify(bookingRepository, times(2)).delete(any(Booking.class));
+        verify(bookingRepository, never()).deleteById(any());
+        // The removal carries the version actually deleted, so a journal replay cannot resurrect it
+        ArgumentCaptor<BookingChangedEvent> removed = ArgumentCaptor.forClass(BookingChangedEvent.class);
+        verify(eventPublisher).publishEvent(removed.capture());
+        assertTrue(removed.getValue().removed());
+        assertEquals(1L, removed.getValue().booking().getVersion());
+    }
+
+    @Test
+    public void testCancelLocksTheBookingsDates() {
+        Booking booking = new Booking(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 5), "John Doe");
+        booking.setId(1L);
+        booking.setVersion(0L);
+        occupancyCalendar.putBooking(booking);
+        when(bookingRepository.findById(1L)).thenReturn(Optional.of(booking));
+
+        assertTrue(bookingService.cancelBooking(1L));
+
+        // Same stripes as a reschedule onto these nights, taken before the row and the calendar entry go
+        InOrder order = inOrder(dateLocks, bookingRepository);
+        order.verify(dateLocks).lock(Booking.DEFAULT_PROPERTY_ID, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 5));
+        order.verify(bookingRepository).delete(booking);
+        assertTrue(bookingService.areDatesAvailable(Booking.DEFAULT_PROPERTY_ID, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 5)));
+    }
+
+    @Test
+    public void testRescheduleLosingARaceFails() {
+        Booking existingBooking = new Booking(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 5), "John Doe");
+        existingBooking.setId(1L);
+        existingBooking.setVersion(3L);
+        occupancyCalendar.putBooking(existingBooking);
+        when(bookingRepository.findById(1L)).thenReturn(Optional.of(existingBooking));
+        Booking newDates = new Booking(LocalDate.of(2024, 1, 10), LocalDate.of(2024, 1, 15), null);
+
+        // A stale If-Match loses before any lock or write
+        assertThrows(OptimisticLockingFailureException.class, () -> bookingService.rescheduleBooking(1L, newDates, 2L));
+        verify(bookingRepository, never()).rescheduleIfVersion(any(), any(), any(), any());
+
+        // A concurrent writer bumping the version between the read and the update also wins
+        when(bookingRepository.rescheduleIfVersion(1L, 3L, newDates.getStartDate(), newDates.getEndDate())).thenReturn(0);
+        assertThrows(OptimisticLockingFailureException.class, () -> bookingService.rescheduleBooking(1L, newDates, 3L));
+        assertEquals(LocalDate.of(2024, 1, 1), existingBooking.getStartDate());
+        assertFalse(bookingService.areDatesAvailable(Booking.DEFAULT_PROPERTY_ID, LocalDate.of(2024, 1, 2), LocalDate.of(2024, 1, 3)));
     }
     @Test
     public void testCancellationAndRebooking() {
@@ -174,8 +308,9 @@ public class BookingServiceTest {
         existingBooking.setStartDate(LocalDate.of(2024, 1, 5));
         existingBooking.setEndDate(LocalDate.of(2024, 1, 10));
 
-        // Mock the findAll method to return a list with an existing booking
+        // Mock the findAll method to return a list with an existing booking and load it into the calendar
         when(bookingRepository.findAll()).thenReturn(Arrays.asList(existingBooking));
+        bookingService.rebuildOccupancyCalendar();
 
         Booking newBooking = new Booking();
         newBooking.setStartDate(LocalDate.of(2024, 1, 7)); // These dates overlap with the existing booking
@@ -189,4 +324,175 @@ public class BookingServiceTest {
         // Verify that save method was never called since dates overlap
         verify(bookingRepository, never()).save(newBooking);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testAvailabilityCheckDoesNotScanRepository() {
+        Booking existingBooking = new Booking(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 5), "John Doe");
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> {
+            Booking saved = invocation.getArgument(0);
+            saved.setId(1L); // Assigned by the database.
+            return saved;
+        });
+        bookingService.createBooking(existingBooking);
+
+        assertFalse(bookingService.areDatesAvailable(Booking.DEFAULT_PROPERTY_ID, LocalDate.of(2024, 2, 4), LocalDate.of(2024, 2, 8)), "The last night must conflict");
+        assertTrue(bookingService.areDatesAvailable(Booking.DEFAULT_PROPERTY_ID, LocalDate.of(2024, 2, 5), LocalDate.of(2024, 2, 8)), "Check-in on the check-out day must be available");
+
+        // Conflict checks are served by the calendar, never by a full table read
+        verify(bookingRepository, never()).findAll();
+    }
+
+    @Test
+    public void testRescheduleIgnoresOwnDatesAndReleasesOldOnes() {
+        Long bookingId = 1L;
+        Booking existingBooking = new Booking(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 5), "John Doe");
+        existingBooking.setId(bookingId);
+        existingBooking.setVersion(0L);
+        occupancyCalendar.putBooking(existingBooking);
+
+        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(existingBooking));
+        when(bookingRepository.rescheduleIfVersion(eq(bookingId), eq(0L), any(), any())).thenReturn(1);
+
+        // Shifting a booking over its own dates must succeed
+        Booking newDates = new Booking(LocalDate.of(2024, 3, 3), LocalDate.of(2024, 3, 8), "John Doe");
+        assertTrue(bookingService.rescheduleBooking(bookingId, newDates).isPresent());
+
+        // The old nights are released and the new ones are occupied
+        assertTrue(bookingService.areDatesAvailable(Booking.DEFAULT_PROPERTY_ID, LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 2)));
+        assertFalse(bookingService.areDatesAvailable(Booking.DEFAULT_PROPERTY_ID, LocalDate.of(2024, 3, 7), LocalDate.of(2024, 3, 9)));
+    }
+
+    @Test
+    public void testBookingOverlappingBlockIsRejected() {
+        Block block = new Block(LocalDate.of(2024, 4, 10), LocalDate.of(2024, 4, 15), "Maintenance");
+        block.setId(1L);
+        occupancyCalendar.putBlock(block);
+
+        Booking newBooking = new Booking(LocalDate.of(2024, 4, 14), LocalDate.of(2024, 4, 16), "John Doe");
+        assertFalse(bookingService.createBooking(newBooking).isPresent(), "Blocked nights must not be bookable");
+        verify(bookingRepository, never()).save(newBooking);
+
+        // The block's end date is not blocked
+        assertTrue(bookingService.areDatesAvailable(Booking.DEFAULT_PROPERTY_ID, LocalDate.of(2024, 4, 15), LocalDate.of(2024, 4, 16)));
+    }
+
+    @Test
+    public void testUpdateOntoTakenNightsIsRejected() {
+        Booking own = new Booking(LocalDate.of(2024, 4, 1), LocalDate.of(2024, 4, 4), "John Doe");
+        own.setId(1L);
+        occupancyCalendar.putBooking(own);
+        Booking other = new Booking(LocalDate.of(2024, 4, 6), LocalDate.of(2024, 4, 8), "Jane Doe");
+        other.setId(2L);
+        occupancyCalendar.putBooking(other);
+        Block block = new Block(LocalDate.of(2024, 4, 10), LocalDate.of(2024, 4, 15), "Maintenance");
+        block.setId(1L);
+        occupancyCalendar.putBlock(block);
+
+        // Onto another booking's nights, then onto blocked nights: the row is never written
+        Booking ontoBooking = new Booking(LocalDate.of(2024, 4, 3), LocalDate.of(2024, 4, 7), "John Doe");
+        assertThrows(DatesUnavailableException.class, () -> bookingService.updateBooking(1L, ontoBooking, 0L));
+        Booking ontoBlock = new Booking(LocalDate.of(2024, 4, 12), LocalDate.of(2024, 4, 13), "John Doe");
+        assertThrows(DatesUnavailableException.class, () -> bookingService.updateBooking(1L, ontoBlock, 0L));
+        verify(bookingRepository, never()).updateIfVersion(any(), any(), any(), any(), any(), any());
+        assertFalse(bookingService.areDatesAvailable(Booking.DEFAULT_PROPERTY_ID, LocalDate.of(2024, 4, 1), LocalDate.of(2024, 4, 2)),
+                "A rejected update must keep the booking's nights");
+
+        // Overlapping only its own nights is fine
+        Booking extended = new Booking(LocalDate.of(2024, 4, 2), LocalDate.of(2024, 4, 6), "John Doe");
+        when(bookingRepository.updateIfVersion(1L, 0L, Booking.DEFAULT_PROPERTY_ID,
+                extended.getStartDate(), extended.getEndDate(), "John Doe")).thenReturn(1);
+        assertTrue(bookingService.updateBooking(1L, extended, 0L).isPresent());
+    }
+
+    @Test
+    public void testEmptyStayIsRejected() {
+        assertFalse(bookingService.areDatesAvailable(Booking.DEFAULT_PROPERTY_ID, LocalDate.of(2024, 5, 1), LocalDate.of(2024, 5, 1)));
+        assertFalse(bookingService.areDatesAvailable(Booking.DEFAULT_PROPERTY_ID, LocalDate.of(2024, 5, 2), LocalDate.of(2024, 5, 1)));
+    }
+
+    @Test
+    public void testImportBookingsSweepsBatchAndCalendar() {
+        Booking existingBooking = new Booking(LocalDate.of(2024, 6, 1), LocalDate.of(2024, 6, 5), "Existing");
+        existingBooking.setId(1L);
+        occupancyCalendar.putBooking(existingBooking);
+
+        AtomicLong ids = new AtomicLong(100);
+        when(bookingRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Booking> rows = invocation.getArgument(0);
+            rows.forEach(row -> row.setId(ids.incrementAndGet()));
+            return rows;
+        });
+
+        List<Booking> rows = Arrays.asList(
+                new Booking(LocalDate.of(2024, 6, 12), LocalDate.of(2024, 6, 15), "Late"), // Accepted.
+                new Booking(LocalDate.of(2024, 6, 4), LocalDate.of(2024, 6, 6), "Clash"), // Overlaps the existing booking.
+                new Booking(LocalDate.of(2024, 6, 5), LocalDate.of(2024, 6, 10), "Early"), // Accepted, check-in on check-out day.
+                new Booking(LocalDate.of(2024, 6, 9), LocalDate.of(2024, 6, 11), "Twin"), // Overlaps "Early" in the batch.
+                null, // Malformed row.
+                new Booking(LocalDate.of(2024, 6, 20), LocalDate.of(2024, 6, 20), "Empty")); // No nights.
+
+        BatchImportResult result = bookingService.importBookings(rows);
+
+        assertEquals(2, result.accepted());
+        assertEquals(4, result.rejected());
+        assertTrue(result.items().get(0).accepted());
+        assertFalse(result.items().get(1).accepted());
+        assertTrue(result.items().get(2).accepted());
+        assertEquals("Overlaps row 2 of the batch.", result.items().get(3).reason());
+        assertEquals("Malformed row.", result.items().get(4).reason());
+        assertFalse(result.items().get(5).accepted());
+
+        // One batched save, and the calendar now knows the imported stays
+        verify(bookingRepository, times(1)).saveAll(anyList());
+        assertFalse(bookingService.areDatesAvailable(Booking.DEFAULT_PROPERTY_ID, LocalDate.of(2024, 6, 13), LocalDate.of(2024, 6, 14)));
+    }
+
+    @Test
+    public void testPropertiesHaveSeparateCalendars() {
+        Booking existingBooking = new Booking(LocalDate.of(2024, 8, 1), LocalDate.of(2024, 8, 5), "Unit 1");
+        existingBooking.setId(1L);
+        occupancyCalendar.putBooking(existingBooking);
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // The same nights are free at another property
+        Booking otherUnit = new Booking(LocalDate.of(2024, 8, 2), LocalDate.of(2024, 8, 4), "Unit 2");
+        otherUnit.setPropertyId(2L);
+        assertTrue(bookingService.createBooking(otherUnit).isPresent());
+        assertFalse(bookingService.areDatesAvailable(Booking.DEFAULT_PROPERTY_ID, LocalDate.of(2024, 8, 2), LocalDate.of(2024, 8, 3)));
+
+        // Moving a booking to another property releases its nights at the first one
+        Booking moved = new Booking(LocalDate.of(2024, 8, 1), LocalDate.of(2024, 8, 5), "Unit 1");
+        moved.setId(1L);
+        moved.setPropertyId(3L);
+        when(bookingRepository.updateIfVersion(1L, 0L, 3L, moved.getStartDate(), moved.getEndDate(), "Unit 1")).thenReturn(1);
+        bookingService.updateBooking(1L, moved, 0L);
+        assertTrue(bookingService.areDatesAvailable(Booking.DEFAULT_PROPERTY_ID, LocalDate.of(2024, 8, 2), LocalDate.of(2024, 8, 3)));
+        assertFalse(bookingService.areDatesAvailable(3L, LocalDate.of(2024, 8, 2), LocalDate.of(2024, 8, 3)));
+    }
+
+    @Test
+    public void testImportSweepsEachPropertySeparately() {
+        when(bookingRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        Booking first = new Booking(LocalDate.of(2024, 9, 1), LocalDate.of(2024, 9, 5), "Unit 1");
+        Booking second = new Booking(LocalDate.of(2024, 9, 2), LocalDate.of(2024, 9, 4), "Unit 2");
+        second.setPropertyId(2L);
+        Booking clash = new Booking(LocalDate.of(2024, 9, 3), LocalDate.of(2024, 9, 6), "Unit 1 again");
+
+        BatchImportResult result = bookingService.importBookings(Arrays.asList(first, second, clash));
+
+        assertEquals(2, result.accepted());
+        assertEquals("Overlaps row 0 of the batch.", result.items().get(2).reason());
+    }
+
+    @Test
+    public void testDatabaseConflictCheckProbesRepositories() {
+        ReflectionTestUtils.setField(bookingService, "conflictCheck", BookingService.ConflictCheck.DATABASE);
+        LocalDate start = LocalDate.of(2024, 10, 1);
+        LocalDate end = LocalDate.of(2024, 10, 4);
+        when(blockRepository.existsOverlapping(Booking.DEFAULT_PROPERTY_ID, start, end)).thenReturn(true);
+
+        assertFalse(bookingService.createBooking(new Booking(start, end, "John Doe")).isPresent());
+        verify(bookingRepository).existsOverlapping(Booking.DEFAULT_PROPERTY_ID, start, end, null);
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+}
@@ -0,0 +1,42 @@
+package com.bookingmanagerservice;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Test class for creations whose request body carries an ID.
+ * The ID is ignored: the booking or block is created with a fresh one rather than failing on a
+ * detached entity.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class CreateWithIdTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void bookingBodyWithAnIdCreatesANewBooking() throws Exception {
+        String booking = "{\"id\":987654,\"startDate\":\"2032-01-10\",\"endDate\":\"2032-01-12\",\"guestDetails\":\"John Doe\"}";
+        mockMvc.perform(post("/bookings").contentType(MediaType.APPLICATION_JSON).content(booking))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(not(987654)))
+                .andExpect(jsonPath("$.version").value(0));
+    }
+
+    @Test
+    public void blockBodyWithAnIdCreatesANewBlock() throws Exception {
+        String block = "{\"id\":987654,\"startDate\":\"2032-02-10\",\"endDate\":\"2032-02-12\",\"reason\":\"Maintenance\"}";
+        mockMvc.perform(post("/blocks").contentType(MediaType.APPLICATION_JSON).content(block))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(not(987654)));
+    }
+}
@@ -0,0 +1,77 @@
+package com.bookingmanagerservice;
+
+import com.bookingmanagerservice.calendar.IntervalTree;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for IntervalTree.
+ * It checks the overlap queries against a brute-force scan.
+ */
+public class IntervalTreeTest {
+
+    @Test
+    public void halfOpenIntervalsTouchingAtTheBoundaryDoNotOverlap() {
+        IntervalTree tree = new IntervalTree();
+        tree.insert(10, 15, 1L);
+
+        assertTrue(tree.overlapsAny(14, 20, null));
+        assertFalse(tree.overlapsAny(15, 20, null)); // Starts on the exclusive end.
+        assertFalse(tree.overlapsAny(5, 10, null)); // Ends on the inclusive start.
+        assertFalse(tree.overlapsAny(12, 13, 1L)); // Own interval is excluded.
+    }
+
+    @Test
+    public void removeReleasesTheInterval() {
+        IntervalTree tree = new IntervalTree();
+        tree.insert(10, 15, 1L);
+        tree.insert(20, 25, 2L);
+
+        assertTrue(tree.remove(10, 1L));
+        assertFalse(tree.remove(10, 1L));
+        assertFalse(tree.overlapsAny(10, 15, null));
+        assertEquals(1, tree.size());
+    }
+
+    @Test
+    public void randomQueriesMatchBruteForce() {
+        Random random = new Random(42);
+        IntervalTree tree = new IntervalTree();
+        Map<Long, long[]> intervals = new HashMap<>();
+
+        for (long id = 0; id < 2_000; id++) {
+            long start = random.nextInt(10_000);
+            long end = start + 1 + random.nextInt(30);
+            tree.insert(start, end, id);
+            intervals.put(id, new long[]{start, end});
+        }
+        for (long id = 0; id < 2_000; id += 3) {
+            long[] interval = intervals.remove(id);
+            assertTrue(tree.remove(interval[0], id));
+        }
+        assertEquals(intervals.size(), tree.size());
+
+        for (int i = 0; i < 1_000; i++) {
+            long start = random.nextInt(10_000);
+            long end = start + 1 + random.nextInt(60);
+
+            List<Long> expected = new ArrayList<>();
+            intervals.forEach((id, interval) -> {
+                if (interval[0] < end && interval[1] > start) {
+                    expected.add(id);
+                }
+            });
+            List<Long> actual = new ArrayList<>();
+            tree.forEachOverlapping(start, end, actual::add);
+
+            assertEquals(expected.size(), actual.size());
+            assertTrue(actual.containsAll(expected));
+            assertEquals(!expected.isEmpty(), tree.overlapsAny(start, end, null));
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.bookingmanagerservice;
+
+import com.bookingmanagerservice.journal.JournalRecord;
+import com.bookingmanagerservice.journal.JournalStore;
+import com.bookingmanagerservice.model.Block;
+import com.bookingmanagerservice.model.Booking;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for JournalStore.
+ * It checks that writes survive a reopen, through the journal, a snapshot, or both.
+ */
+public class JournalStoreTest {
+
+    private static final int REGION = 64 * 1024;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void journalIsReplayedOnReopen() throws IOException {
+        try (JournalStore store = JournalStore.open(directory, REGION, false)) {
+            store.append(JournalRecord.of(booking(1L, 0L, 1, 5, "John Doe"), false));
+            store.append(JournalRecord.of(booking(2L, 0L, 3, 8, "Jane Doe"), false));
+            store.append(JournalRecord.of(booking(1L, 1L, 10, 12, "John Doe"), false));
+            store.append(JournalRecord.of(booking(2L, 0L, 3, 8, "Jane Doe"), true));
+            store.append(JournalRecord.of(block(1L, 2, 4), false));
+        }
+
+        try (JournalStore store = JournalStore.open(directory, REGION, false)) {
+            List<Booking> bookings = store.bookings();
+            assertEquals(1, bookings.size());
+            assertEquals(LocalDate.of(2024, 1, 10), bookings.get(0).getStartDate());
+            assertEquals(1L, bookings.get(0).getVersion());
+            assertEquals("Maintenance", store.blocks().get(0).getReason());
+            assertEquals(5, store.appendedSinceSnapshot());
+        }
+    }
+
+    @Test
+    public void snapshotReplacesTheJournalAndTheTailIsReplayed() throws IOException {
+        try (JournalStore store = JournalStore.open(directory, REGION, false)) {
+            // Enough records to span several mapped regions
+            for (long id = 1; id <= 5000; id++) {
+                store.append(JournalRecord.of(booking(id, 0L, 1, 2, "Guest " + id), false));
+            }
+            store.snapshot();
+            store.append(JournalRecord.of(booking(5001L, 0L, 1, 2, "Late guest"), false));
+            store.append(JournalRecord.of(booking(1L, 0L, 1, 2, "Guest 1"), true));
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(List.of("journal-1.log", "snapshot-1.bin"), files.map(file -> file.getFileName().toString()).sorted().toList());
+        }
+        try (JournalStore store = JournalStore.open(directory, REGION, false)) {
+            assertEquals(5000, store.bookings().size());
+            assertEquals(2, store.appendedSinceSnapshot());
+            assertTrue(store.bookings().stream().anyMatch(booking -> booking.getGuestDetails().equals("Late guest")));
+        }
+    }
+
+    @Test
+    public void olderVersionsNeverOverwriteNewerOnes() throws IOException {
+        try (JournalStore store = JournalStore.open(directory, REGION, false)) {
+            // Concurrent writers may append out of order: the highest version wins, a removal wins a tie
+            store.append(JournalRecord.of(booking(1L, 2L, 5, 6, "Newest"), false));
+            store.append(JournalRecord.of(booking(1L, 1L, 3, 4, "Older"), false));
+            store.append(JournalRecord.of(booking(2L, 0L, 1, 2, "Removed"), true));
+            store.append(JournalRecord.of(booking(2L, 0L, 1, 2, "Removed"), false));
+
+            assertEquals(List.of("Newest"), store.bookings().stream().map(Booking::getGuestDetails).toList());
+        }
+    }
+
+    @Test
+    public void tornRecordAtTheEndIsDropped() throws IOException {
+        try (JournalStore store = JournalStore.open(directory, REGION, false)) {
+            store.append(JournalRecord.of(booking(1L, 0L, 1, 5, "John Doe"), false));
+            store.append(JournalRecord.of(booking(2L, 0L, 6, 9, "Jane Doe"), false));
+        }
+        // Corrupt the body of the last record, as if the machine died while writing it
+        Path journal = directory.resolve("journal-0.log");
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            int secondRecord = 16 + 8 + 45 + "John Doe".length(); // File header, then the frame and body of the first record.
+            channel.write(ByteBuffer.wrap(new byte[]{42}), secondRecord + 8 + 20); // Inside the body of the second record.
+        }
+
+        try (JournalStore store = JournalStore.open(directory, REGION, false)) {
+            assertEquals(List.of(1L), store.bookings().stream().map(Booking::getId).toList());
+            // The next append takes the place of the torn record
+            store.append(JournalRecord.of(booking(3L, 0L, 10, 11, "Next guest"), false));
+        }
+        try (JournalStore store = JournalStore.open(directory, REGION, false)) {
+            assertEquals(List.of(1L, 3L), store.bookings().stream().map(Booking::getId).sorted(Comparator.naturalOrder()).toList());
+        }
+    }
+
+    private static Booking booking(Long id, Long version, int startDay, int endDay, String guest) {
+        Booking booking = new Booking(LocalDate.of(2024, 1, startDay), LocalDate.of(2024, 1, endDay), guest);
+        booking.setId(id);
+        booking.setVersion(version);
+        return booking;
+    }
+
+    private static Block block(Long id, int startDay, int endDay) {
+        Block block = new Block(LocalDate.of(2024, 1, startDay), LocalDate.of(2024, 1, endDay), "Maintenance");
+        block.setId(id);
+        block.setVersion(0L);
+        return block;
+    }
+}
@@ -0,0 +1,47 @@
+package com.bookingmanagerservice;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Test class for the Prometheus endpoint.
+ * It checks that booking operations show up as Prometheus metrics.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability // Keeps the Prometheus registry, which tests disable by default.
+public class MetricsEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void bookingOperationsArePublished() throws Exception {
+        String booking = "{\"startDate\":\"2031-01-10\",\"endDate\":\"2031-01-12\",\"guestDetails\":\"John Doe\"}";
+        mockMvc.perform(post("/bookings").contentType(MediaType.APPLICATION_JSON).content(booking))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/bookings").contentType(MediaType.APPLICATION_JSON).content(booking))
+                .andExpect(status().isConflict());
+        mockMvc.perform(get("/availability").param("from", "2031-01-01").param("to", "2031-02-01"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("booking_service_seconds_bucket{class=\"com.bookingmanagerservice.service.BookingService\"")))
+                .andExpect(content().string(containsString("booking_conflict_check_seconds_bucket")))
+                .andExpect(content().string(containsString("booking_conflicts_total{operation=\"createBooking\"")))
+                .andExpect(content().string(containsString("repository_calls_total{method=\"BookingRepository.save\"")))
+                .andExpect(content().string(containsString("http_server_repository_calls_count{method=\"POST\",uri=\"/bookings\"")))
+                .andExpect(content().string(containsString("cache_gets_total{cache=\"availability.months\"")));
+    }
+}
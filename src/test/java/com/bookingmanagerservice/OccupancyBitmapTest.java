@@ -0,0 +1,93 @@
+package com.bookingmanagerservice;
+
+import com.bookingmanagerservice.calendar.OccupancyBitmap;
+import org.junit.jupiter.api.Test;
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for OccupancyBitmap.
+ * It checks the word-mask range operations against a plain BitSet.
+ */
+public class OccupancyBitmapTest {
+
+    @Test
+    public void rangesAreHalfOpen() {
+        OccupancyBitmap bitmap = new OccupancyBitmap();
+        long day = LocalDate.of(2024, 1, 10).toEpochDay();
+        bitmap.set(day, day + 5);
+
+        assertTrue(bitmap.anySet(day + 4, day + 10));
+        assertFalse(bitmap.anySet(day + 5, day + 10));
+        assertFalse(bitmap.anySet(day - 3, day));
+        assertTrue(bitmap.get(day));
+        assertFalse(bitmap.get(day + 5));
+    }
+
+    @Test
+    public void growsInBothDirectionsAcrossYears() {
+        OccupancyBitmap bitmap = new OccupancyBitmap();
+        long day = LocalDate.of(2030, 6, 1).toEpochDay();
+        bitmap.set(day, day + 1);
+        bitmap.set(day - 3_650, day - 3_640); // Ten years earlier.
+        bitmap.set(day + 3_650, day + 3_700); // Ten years later.
+
+        assertTrue(bitmap.get(day));
+        assertTrue(bitmap.anySet(day - 3_645, day - 3_644));
+        assertTrue(bitmap.anySet(day + 3_699, day + 4_000));
+        assertFalse(bitmap.anySet(day + 1, day + 3_650));
+    }
+
+    @Test
+    public void farApartDaysDoNotNeedTheSpanBetweenThem() {
+        OccupancyBitmap bitmap = new OccupancyBitmap();
+        long near = LocalDate.of(2025, 3, 1).toEpochDay();
+        long far = LocalDate.of(9999, 12, 1).toEpochDay();
+        long min = LocalDate.MIN.toEpochDay();
+        long max = LocalDate.MAX.toEpochDay();
+        bitmap.set(near, near + 3);
+        bitmap.set(far, far + 30);
+        bitmap.set(min, min + 2);
+        bitmap.set(max - 1, max + 1);
+
+        assertTrue(bitmap.anySet(near + 2, far));
+        assertTrue(bitmap.anySet(far + 29, max));
+        assertTrue(bitmap.get(min + 1));
+        assertTrue(bitmap.get(max));
+        assertFalse(bitmap.anySet(near + 3, far));
+        assertFalse(bitmap.anySet(min + 2, near));
+
+        bitmap.clear(min, max + 1);
+        assertFalse(bitmap.anySet(min, max + 1));
+        bitmap.set(near, near + 1); // Segments freed by the clear are allocated again.
+        assertTrue(bitmap.get(near));
+    }
+
+    @Test
+    public void randomOperationsMatchBitSet() {
+        Random random = new Random(7);
+        OccupancyBitmap bitmap = new OccupancyBitmap();
+        BitSet expected = new BitSet();
+        long origin = 20_000;
+
+        for (int i = 0; i < 5_000; i++) {
+            int start = random.nextInt(2_000);
+            int end = start + random.nextInt(200);
+            if (random.nextInt(3) == 0) {
+                bitmap.clear(origin + start, origin + end);
+                expected.clear(start, end);
+            } else {
+                bitmap.set(origin + start, origin + end);
+                expected.set(start, end);
+            }
+
+            int queryStart = random.nextInt(2_000);
+            int queryEnd = queryStart + random.nextInt(300);
+            boolean expectedAny = queryStart < queryEnd && expected.nextSetBit(queryStart) >= 0
+                    && expected.nextSetBit(queryStart) < queryEnd;
+            assertEquals(expectedAny, bitmap.anySet(origin + queryStart, origin + queryEnd));
+        }
+    }
+}
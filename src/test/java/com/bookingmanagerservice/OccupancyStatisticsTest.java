@@ -0,0 +1,173 @@
+package com.bookingmanagerservice;
+
+import com.bookingmanagerservice.dto.BlockView;
+import com.bookingmanagerservice.dto.BookingView;
+import com.bookingmanagerservice.dto.OccupancyFigures;
+import com.bookingmanagerservice.dto.OccupancyReport;
+import com.bookingmanagerservice.dto.RecomputeReport;
+import com.bookingmanagerservice.event.BlockChangedEvent;
+import com.bookingmanagerservice.event.BookingChangedEvent;
+import com.bookingmanagerservice.model.Block;
+import com.bookingmanagerservice.model.Booking;
+import com.bookingmanagerservice.service.BlockService;
+import com.bookingmanagerservice.service.BookingService;
+import com.bookingmanagerservice.stats.OccupancyStatistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+public class OccupancyStatisticsTest {
+
+    private static final LocalDate MARCH = LocalDate.of(2031, 3, 1);
+
+    @Mock
+    private BookingService bookingService;
+
+    @Mock
+    private BlockService blockService;
+
+    private final Map<Long, Booking> bookings = new LinkedHashMap<>(); // The booking table.
+    private final Map<Long, Block> blocks = new LinkedHashMap<>(); // The block table.
+    private OccupancyStatistics statistics;
+
+    @BeforeEach
+    public void setup() {
+        doAnswer(invocation -> {
+            Consumer<BookingView> action = invocation.getArgument(0);
+            bookings.values().forEach(booking -> action.accept(BookingView.of(booking)));
+            return null;
+        }).when(bookingService).forEachBooking(any());
+        doAnswer(invocation -> {
+            Consumer<BlockView> action = invocation.getArgument(0);
+            blocks.values().forEach(block -> action.accept(BlockView.of(block)));
+            return null;
+        }).when(blockService).forEachBlock(any());
+        statistics = new OccupancyStatistics(bookingService, blockService);
+        statistics.initialize();
+    }
+
+    @Test
+    public void eachNightIsCountedOnceAsBookedOrBlocked() {
+        saveBlock(1L, 1L, MARCH, MARCH.plusDays(9)); // March 1-9.
+        saveBlock(2L, 1L, MARCH.plusDays(4), MARCH.plusDays(11)); // Overlaps the first block up to March 11.
+        saveBooking(1L, 1L, MARCH.plusDays(7), MARCH.plusDays(14)); // March 8-14, over both blocks.
+        saveBooking(2L, 1L, MARCH.plusDays(29), MARCH.plusDays(33)); // March 30 to April 2.
+
+        OccupancyReport report = statistics.occupancy(2031, 1L);
+
+        assertEquals(1, report.properties());
+        OccupancyFigures march = report.months().get(2);
+        assertEquals("2031-03", march.period());
+        assertEquals(9, march.bookedNights()); // March 8-14, 30 and 31.
+        assertEquals(7, march.blockedNights()); // March 1-7; the booking takes March 8-11.
+        assertEquals(24, march.availableNights());
+        assertEquals(9 / 24.0, march.occupancyRate(), 1e-9);
+        assertEquals(2, report.months().get(3).bookedNights());
+        assertEquals(new OccupancyFigures("2031", 11, 7, 365 - 7, 11 / 358.0), report.year());
+        assertEquals(0, statistics.occupancy(2030, 1L).year().bookedNights());
+    }
+
+    @Test
+    public void updatesMoveTheirNightsAndRemovalsReleaseThem() {
+        saveBooking(1L, 1L, MARCH, MARCH.plusDays(5));
+        saveBlock(1L, 2L, MARCH, MARCH.plusDays(3));
+        assertEquals(2, statistics.occupancy(2031, null).properties());
+
+        saveBooking(1L, 2L, MARCH.plusDays(1), MARCH.plusDays(5)); // Moved to property 2, over the block.
+        assertEquals(0, statistics.occupancy(2031, 1L).year().bookedNights());
+        OccupancyFigures moved = statistics.occupancy(2031, 2L).months().get(2);
+        assertEquals(4, moved.bookedNights());
+        assertEquals(1, moved.blockedNights());
+        assertEquals(1, statistics.occupancy(2031, null).properties()); // Property 1 holds nothing anymore.
+
+        removeBlock(1L);
+        removeBooking(1L);
+        removeBooking(99L); // Unknown IDs are ignored.
+        OccupancyFigures empty = statistics.occupancy(2031, 2L).year();
+        assertEquals(0, empty.bookedNights());
+        assertEquals(0, empty.blockedNights());
+        assertEquals(0, statistics.occupancy(2031, null).properties());
+    }
+
+    @Test
+    public void recomputeAgreesWithIncrementalCountsAndCorrectsDrift() {
+        Random random = new Random(42);
+        for (long id = 1; id <= 20_000; id++) {
+            LocalDate start = MARCH.plusDays(random.nextInt(3 * 365));
+            LocalDate end = start.plusDays(1 + random.nextInt(random.nextInt(50) == 0 ? 120 : 10));
+            long propertyId = 1 + random.nextInt(20);
+            if (random.nextInt(4) == 0) {
+                saveBlock(id, propertyId, start, end);
+            } else {
+                saveBooking(id, propertyId, start, end);
+            }
+        }
+        for (long id = 1; id <= 20_000; id += 7) {
+            if (bookings.containsKey(id)) {
+                Booking booking = bookings.get(id);
+                saveBooking(id, booking.getPropertyId(), booking.getStartDate().plusDays(3), booking.getEndDate().plusDays(5));
+            } else {
+                removeBlock(id);
+            }
+        }
+        OccupancyReport before = statistics.occupancy(2032, null);
+
+        RecomputeReport recomputed = statistics.recompute();
+
+        assertEquals(bookings.size() + blocks.size(), recomputed.stays());
+        assertTrue(recomputed.months() > 20 * 36);
+        assertEquals(0, recomputed.mismatches());
+        assertEquals(before, statistics.occupancy(2032, null));
+
+        // A row written behind the statistics' back is picked up by the next recompute.
+        Booking direct = booking(50_000L, 3L, LocalDate.of(2040, 1, 30), LocalDate.of(2040, 2, 2));
+        bookings.put(direct.getId(), direct);
+        assertEquals(2, statistics.recompute().mismatches());
+        assertEquals(3, statistics.occupancy(2040, 3L).year().bookedNights());
+    }
+
+    private void saveBooking(long id, long propertyId, LocalDate start, LocalDate end) {
+        Booking booking = booking(id, propertyId, start, end);
+        bookings.put(id, booking);
+        statistics.onBookingChanged(new BookingChangedEvent(booking, false));
+    }
+
+    private void removeBooking(long id) {
+        Booking booking = bookings.remove(id);
+        statistics.onBookingChanged(new BookingChangedEvent(booking != null ? booking : booking(id, 1L, MARCH, MARCH.plusDays(1)), true));
+    }
+
+    private void saveBlock(long id, long propertyId, LocalDate start, LocalDate end) {
+        Block block = new Block(start, end, "Maintenance");
+        block.setId(id);
+        block.setPropertyId(propertyId);
+        block.setVersion(0L);
+        blocks.put(id, block);
+        statistics.onBlockChanged(new BlockChangedEvent(block, false));
+    }
+
+    private void removeBlock(long id) {
+        statistics.onBlockChanged(new BlockChangedEvent(blocks.remove(id), true));
+    }
+
+    private static Booking booking(long id, long propertyId, LocalDate start, LocalDate end) {
+        Booking booking = new Booking(start, end, "Guest " + id);
+        booking.setId(id);
+        booking.setPropertyId(propertyId);
+        booking.setVersion(0L);
+        return booking;
+    }
+}